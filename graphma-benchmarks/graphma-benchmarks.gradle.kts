@@ -19,6 +19,7 @@ dependencies {
     implementation(project(":graphma-data"))
     implementation(libs.bundles.jgraphT)
     implementation(libs.bundles.magma)
+    testImplementation(libs.bundles.test)
     jmh("org.openjdk.jmh:jmh-core:1.37")
     jmh("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
@@ -29,6 +30,10 @@ jmh {
     fork.set(1)
     resultFormat.set("JSON")
     resultsFile.set(file("${project.layout.buildDirectory.get()}/reports/jmh/results.json"))
+    // Select the benchmarks with -Pjmh.includes=<regex>, e.g. -Pjmh.includes=ParsingBenchmark
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+    // Add profilers with -Pjmh.profilers=<list>, e.g. -Pjmh.profilers=gc to record the allocation
+    (project.findProperty("jmh.profilers") as String?)?.let { profilers.set(it.split(",")) }
 }
 
 // Task to run the streaming ingestion benchmark (JGraphT only)
@@ -47,6 +52,15 @@ tasks.register<JavaExec>("runGraphMaBenchmark") {
     mainClass.set("graphma.benchmarks.GraphMaStreamingIngestionBenchmark")
 }
 
+// Task to run the operator benchmarks with the GC profiler, e.g. --args="pageRank -p topology=RMAT"
+tasks.register<JavaExec>("runAlgorithmBenchmark") {
+    group = "benchmark"
+    description = "Run the JMH benchmarks of the graph operators over generated graphs with the GC profiler"
+    // The JMH jar holds the generated benchmark list.
+    classpath = files(tasks.named("jmhJar"))
+    mainClass.set("graphma.benchmarks.AlgorithmBenchmark")
+}
+
 // Task to run the GraphMa MTX file ingestion benchmark
 tasks.register<JavaExec>("runMtxIngestionBenchmark") {
     group = "benchmark"
@@ -0,0 +1,316 @@
+// 		╭━━━╮	    ╭╮ ╭━╮╭━╮
+// 		┃╭━╮┃	    ┃┃ ┃┃╰╯┃┃
+// 		┃┃╱╰╋━┳━━┳━━┫╰━┫╭╮╭╮┣━━╮
+// 		┃┃╭━┫╭┫╭╮┃╭╮┃╭╮┃┃┃┃┃┃╭╮┃
+// 		┃╰┻━┃┃┃╭╮┃╰╯┃┃┃┃┃┃┃┃┃╭╮┃
+// 		╰━━━┻╯╰╯╰┫╭━┻╯╰┻╯╰╯╰┻╯╰╯
+// 				 ┃┃
+//
+
+package graphma.benchmarks;
+
+import formats.Mtx;
+import graphma.compute.operator.centralities.*;
+import graphma.compute.operator.clustering.ConnectedComponent;
+import graphma.compute.operator.clustering.KCores;
+import graphma.compute.operator.clustering.LabelPropagation;
+import graphma.compute.operator.metrics.*;
+import graphma.compute.operator.partitioning.BipartitePartitioning;
+import graphma.compute.operator.transform.MtxToCsrGraph;
+import graphma.graph.CsrGraph;
+import magma.data.sequence.operator.DataSource;
+import magma.data.sequence.operator.strict.ForNext;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultUndirectedGraph;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every operator of {@code graphma.compute.operator} over a matrix of generated graphs: Erdős–Rényi,
+ * R-MAT and grid graphs, see {@link SyntheticGraphs.Topology}, of several sizes.
+ * <p>
+ * Every invocation runs the operator as a pipeline stage on one graph. The JGraphT based operators get a
+ * {@link DefaultUndirectedGraph}, the CSR based operators a {@link CsrGraph}, both built from the same edges.
+ * The exact all-pairs metrics of JGraphT ({@code diameter}, {@code radius}, {@code center} and {@code periphery})
+ * take cubic time, larger graphs should be benchmarked selectively, e.g. {@code -p vertices=16000}.
+ * </p>
+ * <p>
+ * Together with the time, the allocation should be recorded with the GC profiler, as done by
+ * {@link #main(String[])}:
+ * {@code ./gradlew :graphma-benchmarks:runAlgorithmBenchmark --args="pageRank -p topology=RMAT"} or
+ * {@code ./gradlew :graphma-benchmarks:jmh -Pjmh.includes=AlgorithmBenchmark -Pjmh.profilers=gc}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlgorithmBenchmark {
+
+    @Param({"ERDOS_RENYI", "RMAT", "GRID"})
+    public SyntheticGraphs.Topology topology;
+
+    @Param({"1000", "4000"})
+    public int vertices;
+
+    @Param({"8"})
+    public int degree;
+
+    // The graphs as pipeline sources.
+    private List<Graph<Long, DefaultEdge>> graph;
+    private List<CsrGraph> csr;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final var edges = SyntheticGraphs.generate(topology, vertices, (long) vertices * degree / 2, 42);
+        final Path path = SyntheticGraphs.write(SyntheticGraphs.Format.MTX, Files.createTempDirectory("graphma-jmh"), edges);
+        try {
+            final var mtx = new Mtx.MTXFile(path, 0, 0, Integer.MAX_VALUE, 0);
+            final var jgrapht = new DefaultUndirectedGraph<Long, DefaultEdge>(DefaultEdge.class);
+            mtx.mapped().forEach(edge -> {
+                jgrapht.addVertex(edge.source());
+                jgrapht.addVertex(edge.target());
+                jgrapht.addEdge(edge.source(), edge.target());
+            });
+            graph = List.of(jgrapht);
+            csr = List.of(MtxToCsrGraph.build(mtx.mapped(), false));
+        } finally {
+            SyntheticGraphs.delete(path);
+        }
+    }
+
+    /**
+     * Runs the benchmarks with the GC profiler. A first argument that is not an option selects a single benchmark
+     * method, the other arguments are passed to JMH.
+     *
+     * @param args the benchmark method and the options of the JMH command line, e.g. {@code pageRank -p topology=RMAT}
+     * @throws Exception if JMH fails
+     */
+    public static void main(final String[] args) throws Exception {
+        final List<String> options = new ArrayList<>();
+        int first = 0;
+        if (args.length > 0 && !args[0].startsWith("-"))
+            options.add(AlgorithmBenchmark.class.getSimpleName() + "\\." + args[first++] + "$");
+        else
+            options.add(AlgorithmBenchmark.class.getSimpleName());
+        options.addAll(List.of("-prof", "gc"));
+        options.addAll(Arrays.asList(args).subList(first, args.length));
+        Main.main(options.toArray(String[]::new));
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Centralities
+
+    @Benchmark
+    public void betweennessCentrality(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(BetweennessCentrality.centrality())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void betweennessCentralityParallel(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(BetweennessCentrality.parallel())
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void betweennessCentralitySampled(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(BetweennessCentrality.sampled(32, 42L))
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void closenessCentrality(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(ClosenessCentrality.centrality())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void clusteringCoefficient(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(ClusteringCoefficient.centrality())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void degreeCentrality(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(DegreeCentrality.centrality())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void eigenvectorCentrality(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(EigenvectorCentrality.centrality())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void katzCentrality(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(KatzCentrality.centrality())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void pageRank(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(PageRank.centrality())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void pageRankParallel(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(PageRank.parallel())
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Clustering
+
+    @Benchmark
+    public void connectedComponents(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(ConnectedComponent.cluster())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void kCores(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(KCores.cluster())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void labelPropagation(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(LabelPropagation.cluster())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Metrics
+
+    @Benchmark
+    public void diameter(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(Diameter.diameter())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void diameterCsr(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(Diameter.csr())
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void radius(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(Radius.radius())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void radiusCsr(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(Radius.csr())
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void graphCenter(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(GraphCenter.center())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void graphCenterCsr(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(GraphCenter.csr())
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void graphPeriphery(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(GraphPeriphery.periphery())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void graphPeripheryCsr(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(GraphPeriphery.csr())
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void eccentricity(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(Eccentricity.profile())
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    @Benchmark
+    public void graphProfile(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(GraphProfile.of(GraphProfile.Analysis.values()))
+                .apply(DataSource.of(csr))
+                .evaluate();
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Partitioning
+
+    @Benchmark
+    public void bipartitePartitioning(final Blackhole blackhole) {
+        ForNext.build(blackhole::consume)
+                .compose(BipartitePartitioning.partition())
+                .apply(DataSource.of(graph))
+                .evaluate();
+    }
+}
@@ -0,0 +1,117 @@
+// 		╭━━━╮	    ╭╮ ╭━╮╭━╮
+// 		┃╭━╮┃	    ┃┃ ┃┃╰╯┃┃
+// 		┃┃╱╰╋━┳━━┳━━┫╰━┫╭╮╭╮┣━━╮
+// 		┃┃╭━┫╭┫╭╮┃╭╮┃╭╮┃┃┃┃┃┃╭╮┃
+// 		┃╰┻━┃┃┃╭╮┃╰╯┃┃┃┃┃┃┃┃┃╭╮┃
+// 		╰━━━┻╯╰╯╰┫╭━┻╯╰┻╯╰╯╰┻╯╰╯
+// 				 ┃┃
+//
+
+package graphma.benchmarks;
+
+import formats.Mtx;
+import graphma.compute.operator.transform.GraphToSimpleGraph;
+import graphma.compute.operator.transform.MtxToUndirectedGraph;
+import magma.data.sequence.operator.DataSource;
+import magma.data.sequence.operator.strict.ForNext;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultUndirectedGraph;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the graph construction stages of a pipeline: building a JGraphT graph from an MTX file with
+ * {@link MtxToUndirectedGraph} and copying a graph into a simple graph with {@link GraphToSimpleGraph}.
+ * <p>
+ * Every invocation builds one graph. Besides the invocations per second, the throughput is reported in edges per
+ * second ({@code edges}), counting the edges read from the file or the source graph.
+ * </p>
+ * <p>
+ * By default the input is a random graph, see {@link SyntheticGraphs}, with the given number of edges. An MTX
+ * file can be benchmarked instead with the {@code file} parameter, e.g. {@code -p file=/data/graph.mtx}.
+ * </p>
+ *
+ * Run with: ./gradlew :graphma-benchmarks:jmh -Pjmh.includes=ConstructionBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    @Param({"100000", "1000000"})
+    public long size;
+
+    @Param({""})
+    public String file;
+
+    private Path path;
+    private boolean generated;
+    private Mtx.MTXFile mtx;
+    private long edges;
+    private Graph<Long, DefaultEdge> graph;
+
+    /**
+     * Edges read, reported per second.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+        public long edges;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            edges = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        generated = file.isEmpty();
+        path = generated
+                ? SyntheticGraphs.write(SyntheticGraphs.Format.MTX, Files.createTempDirectory("graphma-jmh"), size, 42)
+                : Path.of(file);
+        mtx = new Mtx.MTXFile(path, 0, 0, Integer.MAX_VALUE, 0);
+        graph = new DefaultUndirectedGraph<>(DefaultEdge.class);
+        // A simple graph has no loops.
+        mtx.mapped().forEach(edge -> {
+            edges++;
+            if (edge.source() == edge.target()) return;
+            graph.addVertex(edge.source());
+            graph.addVertex(edge.target());
+            graph.addEdge(edge.source(), edge.target());
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (generated) SyntheticGraphs.delete(path);
+    }
+
+    @Benchmark
+    public void mtxToUndirectedGraph(final Throughput throughput, final Blackhole blackhole) {
+        ForNext.build((Graph<Long, DefaultEdge> built) -> blackhole.consume(built))
+                .compose(MtxToUndirectedGraph.of(DefaultEdge.class))
+                .apply(DataSource.of(List.of(mtx)))
+                .evaluate();
+        throughput.edges += edges;
+    }
+
+    @Benchmark
+    public void graphToSimpleGraph(final Throughput throughput, final Blackhole blackhole) {
+        ForNext.build((Graph<Long, DefaultEdge> built) -> blackhole.consume(built))
+                .compose(GraphToSimpleGraph.of(DefaultEdge.class))
+                .apply(DataSource.of(List.of(graph)))
+                .evaluate();
+        throughput.edges += graph.edgeSet().size();
+    }
+}
@@ -15,6 +15,7 @@ import magma.control.traversal.Traversable;
 import magma.data.sequence.operator.DataSource;
 import magma.data.sequence.operator.Operator;
 import magma.data.sequence.operator.lazy.Filter;
+import magma.data.sequence.operator.lazy.Map;
 import magma.data.sequence.operator.strict.ForNext;
 import magma.data.sequence.pipeline.Composer;
 import magma.data.sequence.pipeline.Pipe;
@@ -23,10 +24,7 @@ import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
 
 /**
  * GraphMa MTX File Ingestion Benchmark for KPI-1.2:
@@ -42,7 +40,8 @@ import java.util.concurrent.atomic.AtomicLong;
  *   <li>Uses GraphMa's pipeline composition pattern</li>
  *   <li>Implements {@link GraphIngestionOperator} as a proper {@link Pipeline.Stage}</li>
  *   <li>Follows the same pattern as {@code MtxToUndirectedGraph}</li>
- *   <li>Measures ingestion latency per edge and reports P95 latency</li>
+ *   <li>Reads the edges with the memory-mapped MTX parser, see {@link Mtx.MTXFile#mapped()}</li>
+ *   <li>Measures ingestion latency per edge and reports the P50, P95, P99 and P99.9 latency</li>
  * </ul>
  *
  * <p>Run with: {@code ./gradlew :graphma-benchmarks:runMtxIngestionBenchmark}
@@ -51,7 +50,7 @@ public class GraphMaMtxIngestionBenchmark {
 
     // KPI Targets
     private static final long TARGET_LATENCY_MS = 500;
-    private static final double PERCENTILE_RANK = 0.95;
+    private static final double PERCENTILE = 95.0;
 
     public static void main(String[] args) {
         System.out.println("=".repeat(70));
@@ -80,6 +79,7 @@ public class GraphMaMtxIngestionBenchmark {
                             graph.vertexSet().size(), graph.edgeSet().size());
                 })
                 .compose(GraphIngestionOperator.of(DefaultEdge.class))  // Our custom operator
+                .compose(Map.build(Mtx.MTXFile::mapped))  // Parse the memory-mapped file
                 .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 100 && mtx.lines() > 10))
                 .apply(DataSource.of(SSDB.SMALL))
                 .evaluate();
@@ -91,7 +91,7 @@ public class GraphMaMtxIngestionBenchmark {
         System.out.println("Pipeline complete:");
         System.out.println("Total time: " + duration + "ms");
         System.out.printf("Edges processed: %,d%n", KpiMonitor.getCount());
-        System.out.printf("P95 Latency: %d ms%n", KpiMonitor.getP95Latency());
+        KpiMonitor.printPercentiles(KpiMonitor.snapshot());
 
         // =====================================================================
         // Second run with more graphs to simulate higher throughput
@@ -107,6 +107,7 @@ public class GraphMaMtxIngestionBenchmark {
                     // Silent processing for throughput test
                 })
                 .compose(GraphIngestionOperator.of(DefaultEdge.class))
+                .compose(Map.build(Mtx.MTXFile::mapped))
                 .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 200))
                 .apply(DataSource.of(SSDB.SMALL))
                 .evaluate();
@@ -120,17 +121,18 @@ public class GraphMaMtxIngestionBenchmark {
         System.out.println("Total time: " + duration + "ms");
         System.out.printf("Edges processed: %,d%n", edgesProcessed);
         System.out.printf("Throughput: %.0f edges/second%n", edgesPerSecond);
-        System.out.printf("P95 Latency: %d ms%n", KpiMonitor.getP95Latency());
+        LatencyRecorder.Snapshot latencies = KpiMonitor.snapshot();
+        KpiMonitor.printPercentiles(latencies);
 
         // Final KPI check
         System.out.println();
         System.out.println("=".repeat(70));
         System.out.println("KPI-1.2 Assessment:");
-        long p95 = KpiMonitor.getP95Latency();
-        boolean latencyPassed = p95 < TARGET_LATENCY_MS;
+        long p95 = latencies.percentile(PERCENTILE);
+        boolean latencyPassed = p95 < TimeUnit.MILLISECONDS.toNanos(TARGET_LATENCY_MS);
         boolean throughputPassed = edgesPerSecond > 1000;
-        System.out.printf("P95 Latency: %d ms (target: < %d ms) - %s%n",
-                p95, TARGET_LATENCY_MS, latencyPassed ? "✓ PASS" : "✗ FAIL");
+        System.out.printf("P95 Latency: %.3f ms (target: < %d ms) - %s%n",
+                p95 / 1e6, TARGET_LATENCY_MS, latencyPassed ? "✓ PASS" : "✗ FAIL");
         System.out.printf("Throughput: %.0f edges/sec (target: > 1000 edges/sec) - %s%n",
                 edgesPerSecond, throughputPassed ? "✓ PASS" : "✗ FAIL");
         System.out.println("=".repeat(70));
@@ -219,8 +221,7 @@ public class GraphMaMtxIngestionBenchmark {
                                 graph.addEdge(edge.source(), edge.target());
 
                                 // Record latency
-                                long latencyNanos = System.nanoTime() - startNanos;
-                                KpiMonitor.recordLatency(latencyNanos / 1_000_000); // Convert to ms
+                                KpiMonitor.recordLatency(System.nanoTime() - startNanos);
                             });
 
                             // Yield the completed graph to the next stage
@@ -245,36 +246,34 @@ public class GraphMaMtxIngestionBenchmark {
 
     /**
      * Static KPI monitor for tracking latency measurements across the pipeline.
+     * <p>
+     * The latencies are counted in a {@link LatencyRecorder}, so recording takes neither locks nor memory per edge.
      */
     static class KpiMonitor {
-        private static final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
-        private static final AtomicLong counter = new AtomicLong(0);
+        private static final LatencyRecorder recorder = new LatencyRecorder();
 
         public static void reset() {
-            synchronized (latencies) {
-                latencies.clear();
-            }
-            counter.set(0);
+            recorder.reset();
         }
 
-        public static void recordLatency(long latencyMs) {
-            latencies.add(latencyMs);
-            counter.incrementAndGet();
+        public static void recordLatency(long latencyNanos) {
+            recorder.record(latencyNanos);
         }
 
         public static long getCount() {
-            return counter.get();
+            return recorder.snapshot().count();
         }
 
-        public static long getP95Latency() {
-            synchronized (latencies) {
-                if (latencies.isEmpty()) return 0;
-                List<Long> sorted = new ArrayList<>(latencies);
-                Collections.sort(sorted);
-                int index = (int) (sorted.size() * PERCENTILE_RANK);
-                return sorted.get(Math.min(index, sorted.size() - 1));
-            }
+        public static LatencyRecorder.Snapshot snapshot() {
+            return recorder.snapshot();
+        }
+
+        public static void printPercentiles(LatencyRecorder.Snapshot latencies) {
+            System.out.printf("Latency: P50 %.3f ms | P95 %.3f ms | P99 %.3f ms | P99.9 %.3f ms%n",
+                    latencies.percentile(50.0) / 1e6,
+                    latencies.percentile(95.0) / 1e6,
+                    latencies.percentile(99.0) / 1e6,
+                    latencies.percentile(99.9) / 1e6);
         }
     }
 }
-
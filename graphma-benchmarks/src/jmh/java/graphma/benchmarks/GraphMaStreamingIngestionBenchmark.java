@@ -9,9 +9,12 @@
 
 package graphma.benchmarks;
 
+import graphma.compute.operator.streaming.Streaming;
 import magma.adt.value.product.Product2;
 import magma.control.traversal.Traversable;
+import magma.data.sequence.operator.DataSource;
 import magma.data.sequence.operator.Operator;
+import magma.data.sequence.operator.strict.ForNext;
 import magma.data.sequence.pipeline.Pipe;
 import magma.data.sequence.pipeline.Pipeline;
 import magma.data.sequence.pipeline.Composer;
@@ -19,8 +22,7 @@ import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,9 +37,11 @@ import java.util.concurrent.atomic.AtomicLong;
  *
  * <p>Architecture Overview:
  * <ul>
- *   <li><b>Producer Thread:</b> Pushes edge batches into a buffer at a controlled high rate</li>
- *   <li><b>GraphMa Pipeline:</b> Consumes batches and transforms them into graph updates</li>
- *   <li><b>Graph Sink:</b> Writes edges to an in-memory JGraphT graph</li>
+ *   <li><b>Producer Thread:</b> Puts edges into a {@link Streaming.EdgeStream} at a controlled high rate,
+ *   blocked by the stream while the pipeline falls behind</li>
+ *   <li><b>GraphMa Pipeline:</b> Traverses the stream in micro-batches of up to {@code BATCH_SIZE} edges or
+ *   {@code MAX_BATCH_DELAY}</li>
+ *   <li><b>Graph Sink:</b> {@link Streaming#toGraph} writes every batch to an in-memory JGraphT graph</li>
  *   <li><b>KPI Monitor:</b> Calculates latency and checks 95th percentile</li>
  * </ul>
  *
@@ -47,30 +51,35 @@ public class GraphMaStreamingIngestionBenchmark {
 
     // KPI Targets
     private static final long TARGET_LATENCY_MS = 500;
-    private static final int TARGET_RATE_PER_SEC = 2000; // > 1000s of new edges
-    private static final double PERCENTILE_RANK = 0.95;
-    private static final int BATCH_SIZE = 100; // Process edges in batches for efficiency
+    private static final int TARGET_RATE_PER_SEC = 100_000; // > 1000s of new edges
+    private static final double PERCENTILE = 95.0;
+    private static final int BATCH_SIZE = 1_000; // Process edges in batches for efficiency
+    private static final Duration MAX_BATCH_DELAY = Duration.ofMillis(10); // Longest wait for a full batch
+    // Edges buffered before the producer is blocked, i.e. 100 ms at the target rate
+    private static final int BUFFER_CAPACITY = TARGET_RATE_PER_SEC / 10;
+    private static final int VERTICES = 100_000; // The distinct edges connect a fixed set of vertices
 
     public static void main(String[] args) throws InterruptedException {
         // 1. Setup JGraphT Graph as the sink
         Graph<String, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
 
-        // Buffer to decouple Producer and GraphMa Pipeline
-        BlockingQueue<EdgeBatch> buffer = new LinkedBlockingQueue<>(1_000);
+        // Buffer to decouple Producer and GraphMa Pipeline, blocks the producer when full
+        Streaming.EdgeStream<TimestampedEdge> stream =
+                new Streaming.EdgeStream<>(BUFFER_CAPACITY, BATCH_SIZE, MAX_BATCH_DELAY);
 
         // 2. Start the Producer (Simulates Real-Time Data Source)
-        Thread producerThread = new Thread(new BatchProducer(buffer, TARGET_RATE_PER_SEC, BATCH_SIZE));
+        Thread producerThread = new Thread(new EdgeProducer(stream, TARGET_RATE_PER_SEC));
         producerThread.setDaemon(true);
         producerThread.start();
 
         // 3. Start the GraphMa Pipeline Processing
         System.out.println("Starting GraphMa Ingestion Pipeline...");
         System.out.println("Target: " + TARGET_RATE_PER_SEC + " edges/sec with P95 latency < " + TARGET_LATENCY_MS + "ms");
-        System.out.println("Batch size: " + BATCH_SIZE + " edges");
+        System.out.println("Batch size: " + BATCH_SIZE + " edges or " + MAX_BATCH_DELAY.toMillis() + "ms");
         System.out.println();
 
         // Run the pipeline in a separate thread
-        CompletableFuture.runAsync(() -> runGraphMaPipeline(buffer, graph));
+        CompletableFuture.runAsync(() -> runGraphMaPipeline(stream, graph));
 
         // Let it run for 10 seconds then exit
         Thread.sleep(10_000);
@@ -82,42 +91,20 @@ public class GraphMaStreamingIngestionBenchmark {
     }
 
     /**
-     * Runs the GraphMa-style pipeline that consumes edge batches and writes to the graph.
+     * Runs the GraphMa pipeline that consumes the edge stream in micro-batches and writes them to the graph.
+     * The latency of an edge is measured once its batch is in the graph.
      */
-    private static void runGraphMaPipeline(BlockingQueue<EdgeBatch> buffer, Graph<String, DefaultEdge> graph) {
-        // Simulate a GraphMa pipeline by processing batches
-        while (!Thread.currentThread().isInterrupted()) {
-            try {
-                EdgeBatch batch = buffer.take();
-
-                // Process the batch through the "pipeline" - in production this would be
-                // a full GraphMa Pipeline with stages like:
-                // DataSource.of(...) + Filter + Map + GraphSink
-                processBatchThroughPipeline(batch, graph);
-
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-    }
-
-    /**
-     * Processes a batch of edges through a simulated GraphMa pipeline stage.
-     * This mimics the Transform operator pattern used in GraphMa.
-     */
-    private static void processBatchThroughPipeline(EdgeBatch batch, Graph<String, DefaultEdge> graph) {
-        // Process each edge in the batch - similar to Operator.Transform.onNext()
-        batch.edges.forEach(edge -> {
-            // Graph mutation (equivalent to GraphMa sink operation)
-            graph.addVertex(edge.source);
-            graph.addVertex(edge.target);
-            graph.addEdge(edge.source, edge.target);
-
-            // Calculate and record latency
-            long latency = System.currentTimeMillis() - edge.creationTime;
-            KpiMonitor.recordLatency(latency);
-        });
+    private static void runGraphMaPipeline(Streaming.EdgeStream<TimestampedEdge> stream,
+                                           Graph<String, DefaultEdge> graph) {
+        ForNext.build((List<TimestampedEdge> batch) -> {
+                    long now = System.nanoTime();
+                    for (TimestampedEdge edge : batch) {
+                        KpiMonitor.recordLatency(now - edge.creationTime);
+                    }
+                })
+                .compose(Streaming.toGraph(graph, (TimestampedEdge edge) -> edge.source, edge -> edge.target))
+                .apply(DataSource.of(stream))
+                .evaluate();
     }
 
     // ---------------------------------------------------------
@@ -198,105 +185,87 @@ public class GraphMaStreamingIngestionBenchmark {
         TimestampedEdge(String source, String target) {
             this.source = source;
             this.target = target;
-            this.creationTime = System.currentTimeMillis();
+            this.creationTime = System.nanoTime();
         }
     }
 
     /**
-     * A batch of edges for efficient processing through the pipeline.
-     * Batching reduces overhead and improves throughput.
-     */
-    static class EdgeBatch {
-        final List<TimestampedEdge> edges;
-
-        EdgeBatch(List<TimestampedEdge> edges) {
-            this.edges = edges;
-        }
-    }
-
-    /**
-     * Produces batches of edges at a controlled rate.
+     * Produces edges at a controlled rate.
      * This simulates a real-time data source feeding into a GraphMa pipeline.
      */
-    static class BatchProducer implements Runnable {
-        private final BlockingQueue<EdgeBatch> queue;
+    static class EdgeProducer implements Runnable {
+        private final Streaming.EdgeStream<TimestampedEdge> stream;
         private final int ratePerSec;
-        private final int batchSize;
 
-        BatchProducer(BlockingQueue<EdgeBatch> queue, int ratePerSec, int batchSize) {
-            this.queue = queue;
+        EdgeProducer(Streaming.EdgeStream<TimestampedEdge> stream, int ratePerSec) {
+            this.stream = stream;
             this.ratePerSec = ratePerSec;
-            this.batchSize = batchSize;
         }
 
         @Override
         public void run() {
-            int nodeId = 0;
-            int batchesPerSecond = ratePerSec / batchSize;
-
-            while (!Thread.currentThread().isInterrupted()) {
-                long start = System.currentTimeMillis();
-
-                // Generate batches for this second
-                for (int b = 0; b < batchesPerSecond; b++) {
-                    List<TimestampedEdge> edges = new ArrayList<>(batchSize);
-                    for (int j = 0; j < batchSize; j++) {
-                        edges.add(new TimestampedEdge("Node-" + nodeId, "Node-" + (nodeId + 1)));
-                        nodeId++;
-                    }
-                    queue.offer(new EdgeBatch(edges));
-                }
+            long nodeId = 0;
+            long start = System.nanoTime();
 
-                // Sleep remainder of the second to maintain rate
-                long elapsed = System.currentTimeMillis() - start;
-                long sleep = 1000 - elapsed;
-                if (sleep > 0) {
-                    try {
-                        Thread.sleep(sleep);
-                    } catch (InterruptedException e) {
-                        break;
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    // Put the edges due by now, spreading them evenly over the second
+                    long due = (System.nanoTime() - start) * ratePerSec / 1_000_000_000L;
+                    if (nodeId >= due) {
+                        Thread.sleep(1);
+                        continue;
+                    }
+                    for (; nodeId < due; nodeId++) {
+                        // Lap k connects every vertex to the vertex k + 1 ahead, so the edges repeat only
+                        // after VERTICES - 1 laps
+                        int source = (int) (nodeId % VERTICES);
+                        int lap = (int) (nodeId / VERTICES);
+                        int target = (source + 1 + lap % (VERTICES - 1)) % VERTICES;
+                        stream.put(new TimestampedEdge("Node-" + source, "Node-" + target));
                     }
                 }
+            } catch (InterruptedException e) {
+                // Stopped
             }
         }
     }
 
     /**
-     * Simple Monitor to track 95th Percentile Latency.
+     * Monitor to track the latency percentiles P50, P95, P99 and P99.9.
      * <p>
-     * Note: In production, use HdrHistogram or Micrometer for more accurate measurements.
+     * The latencies are counted in a {@link LatencyRecorder}, so recording takes neither locks nor memory per
+     * edge; every report covers the latencies since the previous one.
      */
     static class KpiMonitor {
-        private static final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private static final LatencyRecorder recorder = new LatencyRecorder();
         private static final AtomicLong counter = new AtomicLong(0);
+        private static LatencyRecorder.Snapshot reported = recorder.snapshot();
 
-        public static void recordLatency(long latency) {
-            latencies.add(latency);
+        public static void recordLatency(long latencyNanos) {
+            recorder.record(latencyNanos);
             long count = counter.incrementAndGet();
 
-            // Periodically report (every 2000 items)
-            if (count % 2000 == 0) {
+            // Periodically report (once per second at the target rate)
+            if (count % TARGET_RATE_PER_SEC == 0) {
                 printStats();
-                synchronized (latencies) {
-                    latencies.clear();
-                }
             }
         }
 
-        private static void printStats() {
-            synchronized (latencies) {
-                if (latencies.isEmpty()) return;
-                Collections.sort(latencies);
-                int index95 = (int) (latencies.size() * PERCENTILE_RANK);
-                long p95 = latencies.get(Math.min(index95, latencies.size() - 1));
-
-                System.out.printf("[GraphMa KPI Monitor] Processed: %,d | P95 Latency: %d ms | Status: %s%n",
-                        counter.get(),
-                        p95,
-                        (p95 < TARGET_LATENCY_MS ? "✓ PASS" : "✗ FAIL")
-                );
-            }
+        private static synchronized void printStats() {
+            LatencyRecorder.Snapshot current = recorder.snapshot();
+            LatencyRecorder.Snapshot interval = current.minus(reported);
+            reported = current;
+            if (interval.count() == 0) return;
+            long p95 = interval.percentile(PERCENTILE);
+
+            System.out.printf("[GraphMa KPI Monitor] Processed: %,d | P50: %.3f ms | P95: %.3f ms | P99: %.3f ms | P99.9: %.3f ms | Status: %s%n",
+                    counter.get(),
+                    interval.percentile(50.0) / 1e6,
+                    p95 / 1e6,
+                    interval.percentile(99.0) / 1e6,
+                    interval.percentile(99.9) / 1e6,
+                    (p95 < TimeUnit.MILLISECONDS.toNanos(TARGET_LATENCY_MS) ? "✓ PASS" : "✗ FAIL")
+            );
         }
     }
 }
-
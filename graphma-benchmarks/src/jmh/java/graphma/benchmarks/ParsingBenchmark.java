@@ -0,0 +1,124 @@
+// 		╭━━━╮	    ╭╮ ╭━╮╭━╮
+// 		┃╭━╮┃	    ┃┃ ┃┃╰╯┃┃
+// 		┃┃╱╰╋━┳━━┳━━┫╰━┫╭╮╭╮┣━━╮
+// 		┃┃╭━┫╭┫╭╮┃╭╮┃╭╮┃┃┃┃┃┃╭╮┃
+// 		┃╰┻━┃┃┃╭╮┃╰╯┃┃┃┃┃┃┃┃┃╭╮┃
+// 		╰━━━┻╯╰╯╰┫╭━┻╯╰┻╯╰╯╰┻╯╰╯
+// 				 ┃┃
+//
+
+package graphma.benchmarks;
+
+import formats.Dot;
+import formats.Gml;
+import formats.GraphML;
+import formats.Mtx;
+import magma.control.traversal.Traversable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing throughput of the graph file formats.
+ * <p>
+ * Every invocation traverses all edges of one file. Besides the invocations per second, the throughput is
+ * reported in bytes per second ({@code bytes}) and edges per second ({@code edges}).
+ * </p>
+ * <p>
+ * By default the input is a random graph, see {@link SyntheticGraphs}, with the given number of edges. A file of
+ * the given format can be benchmarked instead with the {@code file} parameter, e.g.
+ * {@code -p format=MTX_MAPPED -p file=/data/graph.mtx}.
+ * </p>
+ *
+ * Run with: ./gradlew :graphma-benchmarks:jmh -Pjmh.includes=ParsingBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+    /**
+     * The parsers, {@code MTX} is the reader-based and {@code MTX_MAPPED} the memory-mapped MTX parser.
+     */
+    public enum Parser {
+        MTX, MTX_MAPPED, DOT, GML, GRAPHML
+    }
+
+    @Param({"MTX", "MTX_MAPPED", "DOT", "GML", "GRAPHML"})
+    public Parser format;
+
+    @Param({"100000", "1000000"})
+    public long size;
+
+    @Param({""})
+    public String file;
+
+    private Path path;
+    private boolean generated;
+    private long bytes;
+    private Traversable<?> edges;
+
+    /**
+     * Bytes and edges parsed, reported per second.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+        public long bytes;
+        public long edges;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            edges = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        generated = file.isEmpty();
+        path = generated
+                ? SyntheticGraphs.write(syntheticFormat(), Files.createTempDirectory("graphma-jmh"), size, 42)
+                : Path.of(file);
+        bytes = Files.size(path);
+        edges = switch (format) {
+            case MTX -> new Mtx.MTXFile(path, 0, 0, Integer.MAX_VALUE, 0);
+            case MTX_MAPPED -> new Mtx.MTXFile(path, 0, 0, Integer.MAX_VALUE, 0).mapped();
+            case DOT -> new Dot.DotFile(path);
+            case GML -> new Gml.GmlFile(path, 0, 0, Integer.MAX_VALUE, 0);
+            case GRAPHML -> new GraphML.GraphMLFile(path);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (generated) SyntheticGraphs.delete(path);
+    }
+
+    private SyntheticGraphs.Format syntheticFormat() {
+        return switch (format) {
+            case MTX, MTX_MAPPED -> SyntheticGraphs.Format.MTX;
+            case DOT -> SyntheticGraphs.Format.DOT;
+            case GML -> SyntheticGraphs.Format.GML;
+            case GRAPHML -> SyntheticGraphs.Format.GRAPHML;
+        };
+    }
+
+    @Benchmark
+    public void parse(final Throughput throughput, final Blackhole blackhole) {
+        final long[] count = {0};
+        edges.forEach(edge -> {
+            blackhole.consume(edge);
+            count[0]++;
+        });
+        throughput.bytes += bytes;
+        throughput.edges += count[0];
+    }
+}
@@ -0,0 +1,244 @@
+// 		╭━━━╮	    ╭╮ ╭━╮╭━╮
+// 		┃╭━╮┃	    ┃┃ ┃┃╰╯┃┃
+// 		┃┃╱╰╋━┳━━┳━━┫╰━┫╭╮╭╮┣━━╮
+// 		┃┃╭━┫╭┫╭╮┃╭╮┃╭╮┃┃┃┃┃┃╭╮┃
+// 		┃╰┻━┃┃┃╭╮┃╰╯┃┃┃┃┃┃┃┃┃╭╮┃
+// 		╰━━━┻╯╰╯╰┫╭━┻╯╰┻╯╰╯╰┻╯╰╯
+// 				 ┃┃
+//
+
+package graphma.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Generates random graphs for the benchmarks, so they run without the demo data repository.
+ * <p>
+ * The graphs are generated as edge lists without loops, see {@link #generate(Topology, int, long, long)}, and
+ * can be written in each of the supported file formats. The same seed yields the same edges.
+ * </p>
+ */
+public enum SyntheticGraphs {
+    ;
+
+    /**
+     * The file formats the graphs are written in.
+     */
+    public enum Format {
+        MTX("mtx"), DOT("dot"), GML("gml"), GRAPHML("graphml");
+
+        private final String extension;
+
+        Format(final String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * The structures of the generated graphs.
+     */
+    public enum Topology {
+        /** Edges between uniformly chosen vertices, i.e. an Erdős–Rényi G(n, m) graph. */
+        ERDOS_RENYI,
+        /** Recursive matrix (R-MAT) edges with the Graph500 probabilities, which yield a power-law degree distribution. */
+        RMAT,
+        /** A square grid, every vertex is connected to its right and lower neighbor. */
+        GRID
+    }
+
+    /**
+     * A generated graph, edge {@code i} connects vertex {@code sources[i]} to vertex {@code targets[i]}. The vertices
+     * are numbered from 0.
+     *
+     * @param vertices the number of vertices
+     * @param sources the source vertices of the edges
+     * @param targets the target vertices of the edges
+     */
+    public record Edges(int vertices, int[] sources, int[] targets) {
+        public int size() {
+            return sources.length;
+        }
+    }
+
+    // The R-MAT probabilities of the upper left, upper right and lower left quadrant.
+    private static final double RMAT_A = 0.57;
+    private static final double RMAT_B = 0.19;
+    private static final double RMAT_C = 0.19;
+
+    /**
+     * Returns the number of vertices of the generated file graphs with the given number of edges.
+     *
+     * @param edges the number of edges
+     * @return the number of vertices
+     */
+    public static int vertices(final long edges) {
+        return (int) Math.max(2, edges / 8);
+    }
+
+    /**
+     * Generates a random graph.
+     *
+     * @param topology the structure of the graph
+     * @param vertices the number of vertices; rounded up to a power of two for {@link Topology#RMAT} and to a square
+     *                 number for {@link Topology#GRID}
+     * @param edges the number of edges; ignored for {@link Topology#GRID}, which has all edges of the grid
+     * @param seed the seed of the random edges
+     * @return the edges of the graph
+     */
+    public static Edges generate(final Topology topology, final int vertices, final long edges, final long seed) {
+        if (vertices < 2) throw new IllegalArgumentException("at least two vertices required: " + vertices);
+        if (edges < 0 || edges > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("unsupported number of edges: " + edges);
+        final SplittableRandom random = new SplittableRandom(seed);
+        switch (topology) {
+            case ERDOS_RENYI -> {
+                final int[] sources = new int[(int) edges];
+                final int[] targets = new int[(int) edges];
+                for (int i = 0; i < edges; i++) {
+                    final int u = random.nextInt(vertices);
+                    int v = random.nextInt(vertices - 1);
+                    if (v >= u) v++;
+                    sources[i] = u;
+                    targets[i] = v;
+                }
+                return new Edges(vertices, sources, targets);
+            }
+            case RMAT -> {
+                final int scale = 32 - Integer.numberOfLeadingZeros(vertices - 1);
+                final int[] sources = new int[(int) edges];
+                final int[] targets = new int[(int) edges];
+                for (int i = 0; i < edges; ) {
+                    int u = 0;
+                    int v = 0;
+                    for (int bit = 0; bit < scale; bit++) {
+                        final double p = random.nextDouble();
+                        u <<= 1;
+                        v <<= 1;
+                        if (p >= RMAT_A + RMAT_B + RMAT_C) {
+                            u |= 1;
+                            v |= 1;
+                        } else if (p >= RMAT_A + RMAT_B) u |= 1;
+                        else if (p >= RMAT_A) v |= 1;
+                    }
+                    if (u == v) continue;
+                    sources[i] = u;
+                    targets[i++] = v;
+                }
+                return new Edges(1 << scale, sources, targets);
+            }
+            case GRID -> {
+                final int side = (int) Math.ceil(Math.sqrt(vertices));
+                final int[] sources = new int[2 * side * (side - 1)];
+                final int[] targets = new int[sources.length];
+                int i = 0;
+                for (int row = 0; row < side; row++) {
+                    for (int col = 0; col < side; col++) {
+                        final int u = row * side + col;
+                        if (col + 1 < side) {
+                            sources[i] = u;
+                            targets[i++] = u + 1;
+                        }
+                        if (row + 1 < side) {
+                            sources[i] = u;
+                            targets[i++] = u + side;
+                        }
+                    }
+                }
+                return new Edges(side * side, sources, targets);
+            }
+            default -> throw new IllegalArgumentException("unknown topology: " + topology);
+        }
+    }
+
+    /**
+     * Writes an Erdős–Rényi graph with {@link #vertices(long)} vertices into a new file of the given directory.
+     *
+     * @param format the file format
+     * @param dir the directory to write the file into
+     * @param edges the number of edges
+     * @param seed the seed of the random edges
+     * @return the path to the file
+     */
+    public static Path write(final Format format, final Path dir, final long edges, final long seed) {
+        return write(format, dir, generate(Topology.ERDOS_RENYI, vertices(edges), edges, seed));
+    }
+
+    /**
+     * Writes a graph into a new file of the given directory. The vertices are numbered from 1 in an MTX file and
+     * named {@code v0}, {@code v1}, ... in the other formats.
+     *
+     * @param format the file format
+     * @param dir the directory to write the file into
+     * @param graph the graph
+     * @return the path to the file
+     */
+    public static Path write(final Format format, final Path dir, final Edges graph) {
+        final int vertices = graph.vertices();
+        final int[] sources = graph.sources();
+        final int[] targets = graph.targets();
+        final Path path = dir.resolve("synthetic-" + vertices + "-" + graph.size() + "." + format.extension);
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            switch (format) {
+                case MTX -> {
+                    out.write("%%MatrixMarket matrix coordinate pattern general\n");
+                    out.write(vertices + " " + vertices + " " + graph.size() + "\n");
+                    for (int i = 0; i < sources.length; i++) {
+                        out.write((sources[i] + 1) + " " + (targets[i] + 1) + "\n");
+                    }
+                }
+                case DOT -> {
+                    out.write("digraph synthetic {\n");
+                    for (int i = 0; i < sources.length; i++) {
+                        out.write("  v" + sources[i] + " -> v" + targets[i] + ";\n");
+                    }
+                    out.write("}\n");
+                }
+                case GML -> {
+                    out.write("graph [\n  directed 1\n");
+                    for (int v = 0; v < vertices; v++) {
+                        out.write("  node [\n    id " + v + "\n  ]\n");
+                    }
+                    for (int i = 0; i < sources.length; i++) {
+                        out.write("  edge [\n    source " + sources[i] + "\n    target " + targets[i] + "\n  ]\n");
+                    }
+                    out.write("]\n");
+                }
+                case GRAPHML -> {
+                    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+                    out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+                    out.write("  <graph id=\"synthetic\" edgedefault=\"directed\">\n");
+                    for (int v = 0; v < vertices; v++) {
+                        out.write("    <node id=\"v" + v + "\"/>\n");
+                    }
+                    for (int i = 0; i < sources.length; i++) {
+                        out.write("    <edge source=\"v" + sources[i] + "\" target=\"v" + targets[i] + "\"/>\n");
+                    }
+                    out.write("  </graph>\n</graphml>\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return path;
+    }
+
+    /**
+     * Deletes a generated file and its directory, if the directory is empty.
+     *
+     * @param path the path to the file
+     */
+    public static void delete(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(path.getParent());
+        } catch (IOException e) {
+            // A directory that is not empty is kept.
+        }
+    }
+}
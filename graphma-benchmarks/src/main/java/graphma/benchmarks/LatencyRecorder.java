@@ -0,0 +1,231 @@
+// 		╭━━━╮	    ╭╮ ╭━╮╭━╮
+// 		┃╭━╮┃	    ┃┃ ┃┃╰╯┃┃
+// 		┃┃╱╰╋━┳━━┳━━┫╰━┫╭╮╭╮┣━━╮
+// 		┃┃╭━┫╭┫╭╮┃╭╮┃╭╮┃┃┃┃┃┃╭╮┃
+// 		┃╰┻━┃┃┃╭╮┃╰╯┃┃┃┃┃┃┃┃┃╭╮┃
+// 		╰━━━┻╯╰╯╰┫╭━┻╯╰┻╯╰╯╰┻╯╰╯
+// 				 ┃┃
+//
+
+package graphma.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records latencies in a log-linear histogram of fixed size, in the manner of an HDR histogram.
+ * <p>
+ * The values are counted in buckets: the values below 128 exactly, every greater power of two range in 128
+ * sub-buckets, so a recorded value is reported with a relative error below 1/128 (0.8%) over the whole
+ * {@code long} range. Every recording thread counts into its own histogram, without locks or contended
+ * writes; a {@link Snapshot} merges the histograms of all threads while they keep recording.
+ * </p>
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * final var recorder = new LatencyRecorder();
+ * final long start = System.nanoTime();
+ * ...
+ * recorder.recordSince(start);
+ * final var snapshot = recorder.snapshot();
+ * System.out.println(snapshot.percentile(99.0) + " ns");
+ * }</pre>
+ * </p>
+ */
+public final class LatencyRecorder {
+    // Bits of the sub-bucket index, i.e. the precision of the recorded values.
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Number of buckets to cover all non-negative long values.
+    static final int LENGTH = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Shard> shard = ThreadLocal.withInitial(this::register);
+
+    private Shard register() {
+        final var created = new Shard();
+        shards.add(created);
+        return created;
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds; a negative value is recorded as 0
+     */
+    public void record(final long nanos) {
+        shard.get().increment(index(Math.max(0, nanos)));
+    }
+
+    /**
+     * Records the time elapsed since the given {@link System#nanoTime()}.
+     *
+     * @param startNanos the start time
+     */
+    public void recordSince(final long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Merges the latencies recorded by all threads so far.
+     *
+     * @return a snapshot of the latencies
+     */
+    public Snapshot snapshot() {
+        final long[] counts = new long[LENGTH];
+        for (Shard each : shards) {
+            for (int i = 0; i < LENGTH; i++) counts[i] += each.counts.get(i);
+        }
+        return new Snapshot(counts);
+    }
+
+    /**
+     * Discards the recorded latencies. Latencies recorded concurrently may be kept; to measure intervals while
+     * recording, take the difference of two snapshots, see {@link Snapshot#minus(Snapshot)}.
+     */
+    public void reset() {
+        for (Shard each : shards) {
+            for (int i = 0; i < LENGTH; i++) each.counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value the non-negative value
+     * @return the index of the bucket
+     */
+    static int index(final long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        final int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the greatest value counted in a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the greatest value of the bucket
+     */
+    static long highest(final int index) {
+        if (index < SUB_BUCKETS) return index;
+        final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        final long lowest = (long) ((index & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+
+    /**
+     * The histogram of one recording thread. Only the owning thread writes the counts, hence an increment
+     * needs no atomic update, just a release store to publish it to the snapshots.
+     */
+    private static final class Shard {
+        private final AtomicLongArray counts = new AtomicLongArray(LENGTH);
+
+        private void increment(final int index) {
+            counts.setRelease(index, counts.getPlain(index) + 1);
+        }
+    }
+
+    /**
+     * The latencies recorded up to a point in time. Snapshots of different recorders or points in time can be
+     * combined.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+
+        private Snapshot(final long[] counts) {
+            this.counts = counts;
+            long sum = 0;
+            for (long each : counts) sum += each;
+            this.count = sum;
+        }
+
+        /**
+         * Returns the number of recorded latencies.
+         * @return the number of latencies
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Returns the latency that the given percentage of the recorded latencies does not exceed.
+         *
+         * @param percentile the percentage, e.g. {@code 99.9}
+         * @return the latency in nanoseconds, within the precision of the histogram; 0 if nothing was recorded
+         */
+        public long percentile(final double percentile) {
+            if (percentile < 0.0 || percentile > 100.0)
+                throw new IllegalArgumentException("percentile out of range: " + percentile);
+            if (count == 0) return 0;
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < LENGTH; i++) {
+                seen += counts[i];
+                if (seen >= rank) return highest(i);
+            }
+            return max();
+        }
+
+        /**
+         * Returns the greatest recorded latency.
+         * @return the latency in nanoseconds, within the precision of the histogram; 0 if nothing was recorded
+         */
+        public long max() {
+            for (int i = LENGTH - 1; i >= 0; i--) {
+                if (counts[i] != 0) return highest(i);
+            }
+            return 0;
+        }
+
+        /**
+         * Returns the mean of the recorded latencies.
+         * @return the mean in nanoseconds, within the precision of the histogram; 0 if nothing was recorded
+         */
+        public double mean() {
+            if (count == 0) return 0.0;
+            double sum = 0.0;
+            for (int i = 0; i < LENGTH; i++) {
+                if (counts[i] != 0) sum += (double) counts[i] * highest(i);
+            }
+            return sum / count;
+        }
+
+        /**
+         * Combines the latencies of this and the given snapshot, e.g. of several recorders.
+         *
+         * @param other the other snapshot
+         * @return a snapshot of the latencies of both
+         */
+        public Snapshot merge(final Snapshot other) {
+            final long[] merged = new long[LENGTH];
+            for (int i = 0; i < LENGTH; i++) merged[i] = counts[i] + other.counts[i];
+            return new Snapshot(merged);
+        }
+
+        /**
+         * Returns the latencies recorded after the given, earlier snapshot of the same recorder.
+         *
+         * @param earlier the earlier snapshot
+         * @return a snapshot of the latencies of the interval between both snapshots
+         */
+        public Snapshot minus(final Snapshot earlier) {
+            final long[] interval = new long[LENGTH];
+            for (int i = 0; i < LENGTH; i++) interval[i] = Math.max(0, counts[i] - earlier.counts[i]);
+            return new Snapshot(interval);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, p50=%s, p95=%s, p99=%s, p99.9=%s, max=%s", count,
+                    millis(percentile(50.0)), millis(percentile(95.0)), millis(percentile(99.0)),
+                    millis(percentile(99.9)), millis(max()));
+        }
+
+        private static String millis(final long nanos) {
+            return String.format("%.3f ms", nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package graphma.benchmarks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the bucket arithmetic of the latency histogram and its percentiles against exact, sorted latencies.
+ */
+public class LatencyRecorderTest {
+
+    @Test
+    public void test_round_trip_error() {
+        for (long value = 0; value < 256; value++) {
+            assertThat(LatencyRecorder.highest(LatencyRecorder.index(value))).isEqualTo(value);
+        }
+        final Random random = new Random(31);
+        for (int exponent = 8; exponent < 63; exponent++) {
+            final long power = 1L << exponent;
+            for (long value : new long[] { power - 1, power, power + 1, power + (power >>> 7) - 1,
+                    power + (power >>> 7), 2 * power - 1, power + (random.nextLong() & (power - 1)) }) {
+                final int index = LatencyRecorder.index(value);
+                final long highest = LatencyRecorder.highest(index);
+                assertThat(index).isBetween(0, LatencyRecorder.LENGTH - 1);
+                assertThat(highest).as("value %d", value).isGreaterThanOrEqualTo(value);
+                // The error is below 1/128 of the value, computed without rounding.
+                assertThat(highest - value).as("value %d", value).isLessThan(value >>> 7);
+                // The bucket below ends right before the lowest value of this bucket.
+                assertThat(LatencyRecorder.highest(index - 1)).as("value %d", value).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    public void test_top_bucket() {
+        final int top = LatencyRecorder.index(Long.MAX_VALUE);
+        assertThat(LatencyRecorder.index(255L << 55)).isEqualTo(top);
+        assertThat(LatencyRecorder.index((255L << 55) - 1)).isEqualTo(top - 1);
+        assertThat(LatencyRecorder.highest(top)).isEqualTo(Long.MAX_VALUE);
+        assertThat(top).isLessThan(LatencyRecorder.LENGTH);
+
+        final var recorder = new LatencyRecorder();
+        recorder.record(Long.MAX_VALUE);
+        recorder.record(-5);
+        assertThat(recorder.snapshot().max()).isEqualTo(Long.MAX_VALUE);
+        assertThat(recorder.snapshot().percentile(50.0)).isEqualTo(0);
+    }
+
+    @Test
+    public void test_percentiles_match_sorted() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 50_000;
+        final long[] latencies = new long[threads * perThread];
+        final Random random = new Random(37);
+        for (int i = 0; i < latencies.length; i++) {
+            // Log-normal around 100 microseconds, with a long tail.
+            latencies[i] = (long) Math.exp(Math.log(100_000) + 1.5 * random.nextGaussian());
+        }
+
+        final var recorder = new LatencyRecorder();
+        final List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int from = t * perThread;
+            final var worker = new Thread(() -> {
+                for (int i = from; i < from + perThread; i++) recorder.record(latencies[i]);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) worker.join();
+
+        final var snapshot = recorder.snapshot();
+        final long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        assertThat(snapshot.count()).isEqualTo(sorted.length);
+        for (double percentile : new double[] { 0.0, 0.1, 50.0, 90.0, 95.0, 99.0, 99.9, 99.99, 100.0 }) {
+            final long expected = sorted[(int) Math.max(0, Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+            assertThat(snapshot.percentile(percentile)).as("p%s", percentile)
+                    .isBetween(expected, expected + expected / 128);
+        }
+        assertThat(snapshot.max()).isBetween(sorted[sorted.length - 1], sorted[sorted.length - 1] * 129 / 128);
+        final double mean = Arrays.stream(latencies).average().orElseThrow();
+        assertThat(snapshot.mean()).isBetween(mean, mean * 129 / 128);
+    }
+
+    @Test
+    public void test_merge_and_minus() {
+        final var first = new LatencyRecorder();
+        final var second = new LatencyRecorder();
+        for (long value = 1; value <= 1000; value++) first.record(value);
+        final var before = first.snapshot();
+        for (long value = 1001; value <= 3000; value++) first.record(value);
+        for (long value = 5000; value <= 5999; value++) second.record(value);
+
+        final var interval = first.snapshot().minus(before);
+        assertThat(interval.count()).isEqualTo(2000);
+        assertThat(interval.percentile(0.0)).isBetween(1001L, 1001L + 1001 / 128);
+        assertThat(interval.percentile(50.0)).isBetween(2000L, 2000L + 2000 / 128);
+        assertThat(interval.max()).isBetween(3000L, 3000L + 3000 / 128);
+
+        final var merged = first.snapshot().merge(second.snapshot());
+        assertThat(merged.count()).isEqualTo(4000);
+        assertThat(merged.percentile(75.0)).isBetween(3000L, 3000L + 3000 / 128);
+        assertThat(merged.max()).isBetween(5999L, 5999L + 5999 / 128);
+
+        first.reset();
+        assertThat(first.snapshot().count()).isZero();
+        assertThat(first.snapshot().percentile(99.0)).isZero();
+    }
+}
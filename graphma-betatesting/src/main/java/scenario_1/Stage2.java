@@ -1,5 +1,6 @@
 package scenario_1;
 
+import formats.EdgeList;
 import magma.control.function.Fn2;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.SimpleGraph;
@@ -10,7 +11,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 
-import static scenario_1.Stage1.traverserFile;
 import static scenario_1.Utils.exporter;
 
 public class Stage2 implements Fn2.Consumer<Path, Path> {
@@ -21,9 +21,10 @@ public class Stage2 implements Fn2.Consumer<Path, Path> {
         var graph = new SimpleGraph<Long, DefaultEdge>(DefaultEdge.class);
         var map = new HashMap<Long, Set<Long>>();
 
-        traverserFile(srcFile).forNext(e -> {
-            long rId = e._1;
-            long pId = e._2;
+        // Only the id columns are needed, they are parsed without splitting the lines.
+        EdgeList.traverse(srcFile, EdgeList.Format.CSV.header(1)).forNext(e -> {
+            long rId = e.source();
+            long pId = e.target();
             graph.addVertex(rId);
             map.computeIfAbsent(pId, k -> new HashSet<>()).add(rId);
         });
@@ -1,12 +1,21 @@
 package graphma.compute.operator.centralities;
 
+import graphma.graph.CsrGraph;
+import magma.control.exception.Exceptions;
 import magma.data.sequence.operator.Operator;
 import magma.data.sequence.pipeline.Composer;
 import magma.data.sequence.pipeline.Pipe;
 import magma.data.sequence.pipeline.Pipeline;
 import org.jgrapht.Graph;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
 
 /**
  * Provides a utility to compute betweenness centrality for nodes in a graph.
@@ -30,6 +39,21 @@ import java.util.Map;
  *                 .evaluate();
  * }
  * </pre>
+ *
+ * <p>For large graphs, {@link #parallel()} runs Brandes' algorithm on a {@link CsrGraph}: the breadth-first
+ * search and dependency accumulation of every source run in parallel, each worker on its own primitive arrays.
+ * Every worker takes a fixed share of the sources and the shares are summed in worker order, so a pool of the
+ * same parallelism yields the same scores on every run; pools of different parallelism agree up to rounding.
+ * {@link #sampled(int, long)} approximates the scores from {@code k} randomly sampled sources.</p>
+ * <pre>
+ * {@code
+ * ForNext.build((double[] scores) -> System.out.println(Arrays.toString(scores)))
+ *                 .compose(BetweennessCentrality.sampled(256, 42L))
+ *                 .compose(MtxToCsrGraph.of())
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ * }
+ * </pre>
  */
 public enum BetweennessCentrality {
     ;
@@ -81,5 +105,248 @@ public enum BetweennessCentrality {
         }
         return _BetweennessCentrality::new;
     }
-}
 
+    /**
+     * Constructs a pipeline stage that computes the exact betweenness centrality of each {@link CsrGraph} in
+     * parallel on the common {@link ForkJoinPool}.
+     *
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the scores indexed by vertex
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<double[], P>> parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a pipeline stage that computes the exact betweenness centrality of each {@link CsrGraph} in
+     * parallel on the given pool.
+     *
+     * @param pool the pool that executes the searches
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the scores indexed by vertex
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<double[], P>> parallel(final ForkJoinPool pool) {
+        return stage(graph -> exact(graph, pool));
+    }
+
+    /**
+     * Constructs a pipeline stage that approximates the betweenness centrality of each {@link CsrGraph} from
+     * {@code k} sampled sources on the common {@link ForkJoinPool}.
+     *
+     * @param k the number of sampled sources
+     * @param seed the seed of the source sampling
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the estimated scores indexed by vertex
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<double[], P>> sampled(final int k, final long seed) {
+        return sampled(k, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a pipeline stage that approximates the betweenness centrality of each {@link CsrGraph} from
+     * {@code k} sampled sources on the given pool.
+     *
+     * @param k the number of sampled sources
+     * @param seed the seed of the source sampling
+     * @param pool the pool that executes the searches
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the estimated scores indexed by vertex
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<double[], P>> sampled(final int k, final long seed, final ForkJoinPool pool) {
+        if (k < 1) throw Exceptions.illegalArgument("number of sources must be positive: %d", k);
+        return stage(graph -> approximate(graph, k, seed, pool));
+    }
+
+    private static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<double[], P>> stage(final Function<CsrGraph, double[]> algorithm) {
+
+        final class _ParallelBetweennessCentrality extends Pipeline.AbstractBase<P> implements Pipeline.Stage<double[], P> {
+            private _ParallelBetweennessCentrality(final P tail) {
+                super(tail);
+            }
+
+            @Override
+            public Pipe<?> apply(final Pipe<double[]> out) {
+                final class BrandesStage extends Operator.Transform<G, double[]> {
+                    private BrandesStage(final Pipe<double[]> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void open(long count) {
+                        super.open(count);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final G next) {
+                        this.yield(algorithm.apply(next));
+                    }
+
+                    @Override
+                    public void close() {
+                        super.close();
+                    }
+                }
+                return new BrandesStage(out);
+            }
+        }
+        return _ParallelBetweennessCentrality::new;
+    }
+
+    /**
+     * Computes the exact betweenness centrality of every vertex with Brandes' algorithm, running the sources in
+     * parallel. The scores are not normalized and, as in JGraphT, halved for undirected graphs.
+     *
+     * @param graph the unweighted graph
+     * @param pool the pool that executes the searches
+     * @return the scores indexed by vertex
+     */
+    public static double[] exact(final CsrGraph graph, final ForkJoinPool pool) {
+        final int n = graph.vertexCount();
+        final int[] sources = new int[n];
+        for (int v = 0; v < n; v++) sources[v] = v;
+        return compute(graph, sources, 1.0, pool);
+    }
+
+    /**
+     * Estimates the betweenness centrality of every vertex from {@code k} distinct sources sampled uniformly at
+     * random. The dependencies of the sampled sources are scaled by {@code n / k}, which yields an unbiased
+     * estimate of the exact scores; for {@code k >= n} the result is exact. The same seed yields the same sources.
+     *
+     * @param graph the unweighted graph
+     * @param k the number of sampled sources
+     * @param seed the seed of the source sampling
+     * @param pool the pool that executes the searches
+     * @return the estimated scores indexed by vertex
+     */
+    public static double[] approximate(final CsrGraph graph, final int k, final long seed, final ForkJoinPool pool) {
+        if (k < 1) throw Exceptions.illegalArgument("number of sources must be positive: %d", k);
+        final int n = graph.vertexCount();
+        if (k >= n) return exact(graph, pool);
+        // Partial Fisher-Yates shuffle: the first k entries are a uniform sample without replacement.
+        final int[] vertices = new int[n];
+        for (int v = 0; v < n; v++) vertices[v] = v;
+        final var random = new SplittableRandom(seed);
+        for (int i = 0; i < k; i++) {
+            final int j = i + random.nextInt(n - i);
+            final int tmp = vertices[i];
+            vertices[i] = vertices[j];
+            vertices[j] = tmp;
+        }
+        final int[] sources = Arrays.copyOf(vertices, k);
+        Arrays.sort(sources);
+        return compute(graph, sources, (double) n / k, pool);
+    }
+
+    private static double[] compute(final CsrGraph graph, final int[] sources, final double scale, final ForkJoinPool pool) {
+        final int n = graph.vertexCount();
+        final int workers = Math.max(1, Math.min(pool.getParallelism(), sources.length));
+        final List<Brandes> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) tasks.add(new Brandes(graph, sources, i, workers));
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        // Each worker summed its own sources in order; adding the workers in order keeps the result reproducible.
+        final double factor = graph.directed() ? scale : scale / 2;
+        final double[] scores = new double[n];
+        for (Brandes task : tasks) {
+            final double[] partial = task.centrality;
+            for (int v = 0; v < n; v++) scores[v] += partial[v];
+        }
+        for (int v = 0; v < n; v++) scores[v] *= factor;
+        return scores;
+    }
+
+    /**
+     * Worker that takes every {@code stride}-th source starting at {@code first}, accumulating their dependencies
+     * into its own centrality array. The interleaved shares keep the workers balanced when the sources are sorted
+     * by id, without the scheduling-dependent order of a shared counter. The arrays of a worker are allocated
+     * once and reset after every search by visiting only the reached vertices.
+     */
+    private static final class Brandes extends RecursiveAction {
+
+        private final CsrGraph graph;
+        private final int[] sources;
+        private final int first;
+        private final int stride;
+        private final double[] centrality;
+        private final int[] distance;
+        private final double[] sigma;
+        private final double[] delta;
+        private final int[] queue;
+
+        private Brandes(final CsrGraph graph, final int[] sources, final int first, final int stride) {
+            final int n = graph.vertexCount();
+            this.graph = graph;
+            this.sources = sources;
+            this.first = first;
+            this.stride = stride;
+            this.centrality = new double[n];
+            this.distance = new int[n];
+            this.sigma = new double[n];
+            this.delta = new double[n];
+            this.queue = new int[n];
+            Arrays.fill(distance, -1);
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = first; i < sources.length; i += stride) {
+                accumulate(sources[i]);
+            }
+        }
+
+        private void accumulate(final int source) {
+            // Breadth-first search counting the shortest paths; the queue holds the vertices in visiting order.
+            int head = 0;
+            int tail = 0;
+            distance[source] = 0;
+            sigma[source] = 1;
+            queue[tail++] = source;
+            while (head < tail) {
+                final int v = queue[head++];
+                final int d = distance[v] + 1;
+                for (long i = graph.offset(v), end = graph.offset(v + 1); i < end; i++) {
+                    final int w = graph.neighbor(i);
+                    if (distance[w] < 0) {
+                        distance[w] = d;
+                        queue[tail++] = w;
+                    }
+                    if (distance[w] == d) sigma[w] += sigma[v];
+                }
+            }
+
+            // Dependency accumulation in reverse visiting order, over the successors on shortest paths.
+            for (int q = tail - 1; q >= 0; q--) {
+                final int v = queue[q];
+                final int d = distance[v] + 1;
+                double dependency = 0;
+                for (long i = graph.offset(v), end = graph.offset(v + 1); i < end; i++) {
+                    final int w = graph.neighbor(i);
+                    if (distance[w] == d) dependency += (1 + delta[w]) / sigma[w];
+                }
+                delta[v] = sigma[v] * dependency;
+                if (v != source) centrality[v] += delta[v];
+            }
+
+            for (int q = 0; q < tail; q++) {
+                final int v = queue[q];
+                distance[v] = -1;
+                sigma[v] = 0;
+                delta[v] = 0;
+            }
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package graphma.compute.operator.centralities;
 
+import graphma.graph.CsrGraph;
+import magma.control.exception.Exceptions;
 import magma.data.sequence.operator.Operator;
 import magma.data.sequence.pipeline.Composer;
 import magma.data.sequence.pipeline.Pipe;
 import magma.data.sequence.pipeline.Pipeline;
 import org.jgrapht.Graph;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleBinaryOperator;
 
 /**
  * Provides utilities for computing PageRank centrality for nodes in a graph. PageRank measures
@@ -28,10 +34,35 @@ import java.util.Map;
  *                 .evaluate();
  * }
  * </pre>
+ *
+ * <p>For large graphs, {@link #parallel()} computes PageRank on a {@link CsrGraph} instead: every power iteration
+ * runs on primitive arrays and is split across a {@link ForkJoinPool}, the scores are returned as a
+ * {@code double[]} indexed by vertex.</p>
+ * <pre>
+ * {@code
+ * ForNext.build((double[] scores) -> System.out.println(Arrays.toString(scores)))
+ *                 .compose(PageRank.parallel(0.85, 1e-6, 100))
+ *                 .compose(MtxToCsrGraph.of())
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ * }
+ * </pre>
  */
 public enum PageRank {
     ;
 
+    /** The default damping factor. */
+    public static final double DAMPING_FACTOR = 0.85;
+
+    /** The default tolerance, i.e. the maximum change of a score between two iterations at convergence. */
+    public static final double TOLERANCE = 0.0001;
+
+    /** The default maximum number of iterations. */
+    public static final int MAX_ITERATIONS = 100;
+
+    // Number of vertices below which a sweep over a vertex range is not split further.
+    private static final int GRAIN = 4096;
+
     /**
      * Constructs a pipeline stage that computes the PageRank centrality for each vertex in a graph.
      * This method returns a composer that can be used to seamlessly integrate this computation as a stage
@@ -80,5 +111,215 @@ public enum PageRank {
         }
         return _PageRank::new;
     }
-}
 
+    /**
+     * Constructs a pipeline stage that computes PageRank on each {@link CsrGraph} in parallel with the default
+     * parameters, which are the same as those of the JGraphT implementation used by {@link #centrality()}.
+     *
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the scores indexed by vertex
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<double[], P>> parallel() {
+        return parallel(DAMPING_FACTOR, TOLERANCE, MAX_ITERATIONS);
+    }
+
+    /**
+     * Constructs a pipeline stage that computes PageRank on each {@link CsrGraph} in parallel on the common
+     * {@link ForkJoinPool}.
+     *
+     * @param dampingFactor the damping factor, in {@code [0, 1]}
+     * @param tolerance the maximum change of a score between two iterations at which the computation stops
+     * @param maxIterations the maximum number of iterations
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the scores indexed by vertex
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<double[], P>> parallel(final double dampingFactor, final double tolerance,
+                                                      final int maxIterations) {
+        return parallel(dampingFactor, tolerance, maxIterations, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a pipeline stage that computes PageRank on each {@link CsrGraph} in parallel on the given pool.
+     *
+     * @param dampingFactor the damping factor, in {@code [0, 1]}
+     * @param tolerance the maximum change of a score between two iterations at which the computation stops
+     * @param maxIterations the maximum number of iterations
+     * @param pool the pool that executes the iterations
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the scores indexed by vertex
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<double[], P>> parallel(final double dampingFactor, final double tolerance,
+                                                      final int maxIterations, final ForkJoinPool pool) {
+        check(dampingFactor, tolerance, maxIterations);
+
+        final class _ParallelPageRank extends Pipeline.AbstractBase<P> implements Pipeline.Stage<double[], P> {
+            private _ParallelPageRank(final P tail) {
+                super(tail);
+            }
+
+            @Override
+            public Pipe<?> apply(final Pipe<double[]> out) {
+                final class PageRankStage extends Operator.Transform<G, double[]> {
+                    private PageRankStage(final Pipe<double[]> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void open(long count) {
+                        super.open(count);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final G next) {
+                        this.yield(compute(next, dampingFactor, tolerance, maxIterations, pool));
+                    }
+
+                    @Override
+                    public void close() {
+                        super.close();
+                    }
+                }
+                return new PageRankStage(out);
+            }
+        }
+        return _ParallelPageRank::new;
+    }
+
+    /**
+     * Computes PageRank on the given graph by power iteration. Each iteration pulls the scores of the in-neighbors
+     * of every vertex; the vertex range is split into tasks of the given pool. Like the JGraphT implementation,
+     * the scores of vertices without out-neighbors are distributed uniformly over all vertices.
+     * <p>
+     * The partial sums are combined in a fixed order, hence the result does not depend on the scheduling.
+     * </p>
+     *
+     * @param graph the graph; for a directed graph the transposed adjacency is built on the heap
+     * @param dampingFactor the damping factor, in {@code [0, 1]}
+     * @param tolerance the maximum change of a score between two iterations at which the computation stops
+     * @param maxIterations the maximum number of iterations
+     * @param pool the pool that executes the iterations
+     * @return the scores indexed by vertex, summing up to 1
+     */
+    public static double[] compute(final CsrGraph graph, final double dampingFactor, final double tolerance,
+                                   final int maxIterations, final ForkJoinPool pool) {
+        check(dampingFactor, tolerance, maxIterations);
+        final int n = graph.vertexCount();
+        if (n == 0) return new double[0];
+
+        final CsrGraph incoming = graph.directed() ? transpose(graph) : graph;
+        final int[] outDegrees = new int[n];
+        for (int v = 0; v < n; v++) outDegrees[v] = graph.degree(v);
+
+        double[] score = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(score, 1.0 / n);
+        final double[] share = new double[n];
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            final double[] current = score;
+            final double[] updated = next;
+
+            // Phase 1: the damped share each vertex passes to its out-neighbors, and the teleport probability.
+            final double teleport = pool.invoke(new Sweep(0, n, (lo, hi) -> {
+                double sum = 0;
+                for (int v = lo; v < hi; v++) {
+                    final int degree = outDegrees[v];
+                    if (degree > 0) {
+                        share[v] = dampingFactor * current[v] / degree;
+                        sum += (1 - dampingFactor) * current[v];
+                    } else {
+                        share[v] = 0;
+                        sum += current[v];
+                    }
+                }
+                return sum;
+            }, Double::sum)) / n;
+
+            // Phase 2: every vertex pulls the shares of its in-neighbors.
+            final double change = pool.invoke(new Sweep(0, n, (lo, hi) -> {
+                double max = 0;
+                for (int v = lo; v < hi; v++) {
+                    double contribution = 0;
+                    for (long i = incoming.offset(v), end = incoming.offset(v + 1); i < end; i++) {
+                        contribution += share[incoming.neighbor(i)];
+                    }
+                    final double value = teleport + contribution;
+                    max = Math.max(max, Math.abs(value - current[v]));
+                    updated[v] = value;
+                }
+                return max;
+            }, Math::max));
+
+            score = updated;
+            next = current;
+            if (change < tolerance) break;
+        }
+        return score;
+    }
+
+    private static void check(final double dampingFactor, final double tolerance, final int maxIterations) {
+        if (dampingFactor < 0 || dampingFactor > 1)
+            throw Exceptions.illegalArgument("damping factor not in [0, 1]: %s", dampingFactor);
+        if (!(tolerance > 0))
+            throw Exceptions.illegalArgument("tolerance must be positive: %s", tolerance);
+        if (maxIterations < 1)
+            throw Exceptions.illegalArgument("maximum iterations must be positive: %d", maxIterations);
+    }
+
+    private static CsrGraph.Heap transpose(final CsrGraph graph) {
+        final int n = graph.vertexCount();
+        final long entries = graph.entryCount();
+        if (entries > Integer.MAX_VALUE - 8)
+            throw Exceptions.illegalState("%d adjacency entries exceed the capacity of a heap CSR graph", entries);
+        final int[] offsets = new int[n + 1];
+        for (long i = 0; i < entries; i++) offsets[graph.neighbor(i) + 1]++;
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+        final int[] cursor = Arrays.copyOf(offsets, n);
+        final int[] neighbors = new int[(int) entries];
+        for (int u = 0; u < n; u++) {
+            for (long i = graph.offset(u), end = graph.offset(u + 1); i < end; i++) {
+                neighbors[cursor[graph.neighbor(i)]++] = u;
+            }
+        }
+        return CsrGraph.of(offsets, neighbors, true);
+    }
+
+    /**
+     * Applies a function to a range of vertices by recursive splitting and combines the partial results of the
+     * two halves of every split, which yields the same result for every execution.
+     */
+    private static final class Sweep extends RecursiveTask<Double> {
+
+        interface Leaf {
+            double apply(int lo, int hi);
+        }
+
+        private final int lo;
+        private final int hi;
+        private final Leaf leaf;
+        private final DoubleBinaryOperator combiner;
+
+        private Sweep(final int lo, final int hi, final Leaf leaf, final DoubleBinaryOperator combiner) {
+            this.lo = lo;
+            this.hi = hi;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected Double compute() {
+            if (hi - lo <= GRAIN) return leaf.apply(lo, hi);
+            final int mid = (lo + hi) >>> 1;
+            final var left = new Sweep(lo, mid, leaf, combiner);
+            left.fork();
+            final double right = new Sweep(mid, hi, leaf, combiner).compute();
+            return combiner.applyAsDouble(left.join(), right);
+        }
+    }
+}
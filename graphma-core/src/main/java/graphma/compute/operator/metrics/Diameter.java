@@ -1,5 +1,6 @@
 package graphma.compute.operator.metrics;
 
+import graphma.graph.CsrGraph;
 import magma.data.sequence.operator.Operator;
 import magma.data.sequence.pipeline.Composer;
 import magma.data.sequence.pipeline.Pipe;
@@ -78,4 +79,18 @@ public enum Diameter {
         }
         return _Diameter::new;
     }
+
+    /**
+     * Creates a pipeline stage that computes the diameter of a {@link CsrGraph}, i.e. the greatest eccentricity of any vertex.
+     * The metric is derived from the eccentricities of the vertices, see {@link Eccentricity}; use
+     * {@link Eccentricity#profile()} to derive several metrics from one search.
+     *
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage for computing the graph diameter
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<Double, P>> csr() {
+        return Eccentricity.stage(Eccentricity.Profile::diameter);
+    }
 }
@@ -0,0 +1,279 @@
+package graphma.compute.operator.metrics;
+
+import graphma.graph.CsrGraph;
+import magma.data.sequence.operator.Operator;
+import magma.data.sequence.pipeline.Composer;
+import magma.data.sequence.pipeline.Pipe;
+import magma.data.sequence.pipeline.Pipeline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Provides an eccentricity engine for unweighted {@link CsrGraph}s that serves {@link Diameter}, {@link Radius},
+ * {@link GraphCenter} and {@link GraphPeriphery}. The eccentricity of a vertex is the greatest distance from it to
+ * any other vertex; it is infinite if some vertex is not reachable.
+ * <p>
+ * The eccentricities of all vertices are computed once by a bit-parallel multi-source breadth-first search: every
+ * vertex carries a 64 bit word per search, in which each bit stands for one of 64 sources, hence one traversal of
+ * the edges advances 64 searches by one level. The batches of 64 sources run in parallel, each worker with three
+ * words per vertex. Compared to the all-pairs shortest paths of JGraphT's {@code GraphMeasurer}, the memory is
+ * linear in the number of vertices.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * ForNext.build((Eccentricity.Profile p) -> System.out.println(p.diameter() + " / " + p.radius()))
+ *                 .compose(Eccentricity.profile())
+ *                 .compose(MtxToCsrGraph.of())
+ *                 .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ * }
+ * </pre>
+ */
+public enum Eccentricity {
+    ;
+    // Enum structure used as a namespace for utility methods.
+
+    /** The eccentricity of a vertex from which some vertex is not reachable. */
+    public static final int INFINITE = Integer.MAX_VALUE;
+
+    /**
+     * Creates a pipeline stage that computes the eccentricities of all vertices of a graph on the common
+     * {@link ForkJoinPool}.
+     *
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the {@link Profile} of each graph
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<Profile, P>> profile() {
+        return stage(Function.identity());
+    }
+
+    /**
+     * Creates a pipeline stage that computes the eccentricities of a graph and yields the given metric of them.
+     *
+     * @param metric the metric derived from the eccentricities
+     * @param <B> the type of the metric
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the metric of each graph
+     */
+    static <B, G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<B, P>> stage(final Function<Profile, B> metric) {
+
+        final class _Eccentricity extends Pipeline.AbstractBase<P> implements Pipeline.Stage<B, P> {
+            private _Eccentricity(final P tail) {
+                super(tail);
+            }
+
+            @Override
+            public Pipe<?> apply(final Pipe<B> out) {
+                final class EccentricityStage extends Operator.Transform<G, B> {
+                    private EccentricityStage(final Pipe<B> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void open(long count) {
+                        super.open(count);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final G next) {
+                        this.yield(metric.apply(compute(next, ForkJoinPool.commonPool())));
+                    }
+
+                    @Override
+                    public void close() {
+                        super.close();
+                    }
+                }
+                return new EccentricityStage(out);
+            }
+        }
+        return _Eccentricity::new;
+    }
+
+    /**
+     * Computes the eccentricities of all vertices of the given graph. For a directed graph the distances follow
+     * the direction of the edges.
+     *
+     * @param graph the unweighted graph
+     * @param pool the pool that executes the batches of searches
+     * @return the eccentricities of the graph
+     */
+    public static Profile compute(final CsrGraph graph, final ForkJoinPool pool) {
+        final int n = graph.vertexCount();
+        final int[] eccentricities = new int[n];
+        final int batches = (n + 63) >>> 6;
+        final var next = new AtomicInteger();
+        final int workers = Math.max(1, Math.min(pool.getParallelism(), batches));
+        final List<Search> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) tasks.add(new Search(graph, eccentricities, batches, next));
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        return new Profile(eccentricities);
+    }
+
+    /**
+     * Worker that takes batches of 64 consecutive sources from a shared counter and searches them at once.
+     * Bit {@code j} of the words of a vertex belongs to the source {@code 64 * batch + j}.
+     */
+    private static final class Search extends RecursiveAction {
+
+        private final CsrGraph graph;
+        private final int[] eccentricities;
+        private final int batches;
+        private final AtomicInteger next;
+        private final long[] seen;
+        private final long[] frontier;
+        private final long[] reached;
+
+        private Search(final CsrGraph graph, final int[] eccentricities, final int batches, final AtomicInteger next) {
+            final int n = graph.vertexCount();
+            this.graph = graph;
+            this.eccentricities = eccentricities;
+            this.batches = batches;
+            this.next = next;
+            this.seen = new long[n];
+            this.frontier = new long[n];
+            this.reached = new long[n];
+        }
+
+        @Override
+        protected void compute() {
+            for (int batch = next.getAndIncrement(); batch < batches; batch = next.getAndIncrement()) {
+                search(batch);
+            }
+        }
+
+        private void search(final int batch) {
+            final int n = graph.vertexCount();
+            final int first = batch << 6;
+            final int size = Math.min(64, n - first);
+            final long sources = size == 64 ? -1L : (1L << size) - 1;
+
+            Arrays.fill(seen, 0);
+            Arrays.fill(frontier, 0);
+            for (int j = 0; j < size; j++) {
+                seen[first + j] = frontier[first + j] = 1L << j;
+                eccentricities[first + j] = 0;
+            }
+
+            for (int level = 1; ; level++) {
+                // Push the frontier of every search to the neighbors.
+                for (int v = 0; v < n; v++) {
+                    final long bits = frontier[v];
+                    if (bits == 0) continue;
+                    for (long i = graph.offset(v), end = graph.offset(v + 1); i < end; i++) {
+                        reached[graph.neighbor(i)] |= bits;
+                    }
+                }
+                // Keep the newly visited vertices as next frontier.
+                long visited = 0;
+                for (int v = 0; v < n; v++) {
+                    final long bits = reached[v] & ~seen[v];
+                    reached[v] = 0;
+                    frontier[v] = bits;
+                    seen[v] |= bits;
+                    visited |= bits;
+                }
+                if (visited == 0) break;
+                for (long bits = visited; bits != 0; bits &= bits - 1) {
+                    eccentricities[first + Long.numberOfTrailingZeros(bits)] = level;
+                }
+            }
+
+            // A search that has not seen every vertex has an infinite eccentricity.
+            long complete = sources;
+            for (int v = 0; v < n && complete != 0; v++) complete &= seen[v];
+            for (long bits = sources & ~complete; bits != 0; bits &= bits - 1) {
+                eccentricities[first + Long.numberOfTrailingZeros(bits)] = INFINITE;
+            }
+        }
+    }
+
+    // ----------------------------------------------------------
+    //  ECCENTRICITY.PROFILE
+    // ----------------------------------------------------------
+
+    /**
+     * The eccentricities of all vertices of a graph, from which the distance metrics are derived without further
+     * searches. Infinite eccentricities are represented by {@link #INFINITE} and reported as
+     * {@link Double#POSITIVE_INFINITY} by {@link #diameter()} and {@link #radius()}.
+     *
+     * @param eccentricities the eccentricity of every vertex
+     */
+    public record Profile(int[] eccentricities) {
+
+        /**
+         * Returns the greatest eccentricity of any vertex.
+         * @return the diameter of the graph, 0 for an empty graph
+         */
+        public double diameter() {
+            int max = 0;
+            for (int e : eccentricities) max = Math.max(max, e);
+            return value(max);
+        }
+
+        /**
+         * Returns the smallest eccentricity of any vertex.
+         * @return the radius of the graph, 0 for an empty graph
+         */
+        public double radius() {
+            if (eccentricities.length == 0) return 0;
+            int min = INFINITE;
+            for (int e : eccentricities) min = Math.min(min, e);
+            return value(min);
+        }
+
+        /**
+         * Returns the vertices whose eccentricity equals the radius.
+         * @return the center of the graph in ascending order
+         */
+        public int[] center() {
+            return select(eccentricities.length == 0 ? 0 : Arrays.stream(eccentricities).min().getAsInt());
+        }
+
+        /**
+         * Returns the vertices whose eccentricity equals the diameter.
+         * @return the periphery of the graph in ascending order
+         */
+        public int[] periphery() {
+            return select(eccentricities.length == 0 ? 0 : Arrays.stream(eccentricities).max().getAsInt());
+        }
+
+        private int[] select(final int eccentricity) {
+            int count = 0;
+            for (int e : eccentricities) if (e == eccentricity) count++;
+            final int[] vertices = new int[count];
+            for (int v = 0, i = 0; v < eccentricities.length; v++) {
+                if (eccentricities[v] == eccentricity) vertices[i++] = v;
+            }
+            return vertices;
+        }
+
+        private static double value(final int eccentricity) {
+            return eccentricity == INFINITE ? Double.POSITIVE_INFINITY : eccentricity;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Eccentricity.Profile[vertices=%d, diameter=%s, radius=%s]",
+                    eccentricities.length, diameter(), radius());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package graphma.compute.operator.metrics;
 
+import graphma.graph.CsrGraph;
 import magma.data.sequence.operator.Operator;
 import magma.data.sequence.pipeline.Composer;
 import magma.data.sequence.pipeline.Pipe;
@@ -82,5 +83,18 @@ public enum GraphCenter {
         }
         return _GraphCenter::new;
     }
-}
 
+    /**
+     * Creates a pipeline stage that computes the center of a {@link CsrGraph}, i.e. the vertices of minimum eccentricity, in ascending order.
+     * The metric is derived from the eccentricities of the vertices, see {@link Eccentricity}; use
+     * {@link Eccentricity#profile()} to derive several metrics from one search.
+     *
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage for computing the graph center
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<int[], P>> csr() {
+        return Eccentricity.stage(Eccentricity.Profile::center);
+    }
+}
@@ -0,0 +1,330 @@
+package graphma.compute.operator.metrics;
+
+import graphma.graph.CsrGraph;
+import magma.control.exception.Exceptions;
+import magma.data.sequence.operator.Operator;
+import magma.data.sequence.pipeline.Composer;
+import magma.data.sequence.pipeline.Pipe;
+import magma.data.sequence.pipeline.Pipeline;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Provides a fused pipeline stage that runs several analyses on a {@link CsrGraph} at once and emits a single
+ * {@link Result}. It replaces a sequence of {@code DegreeCentrality}, {@code ClusteringCoefficient}, {@code KCores}
+ * and {@code ConnectedComponent} stages, which each walk the graph from scratch and allocate maps of boxed scores.
+ * <p>
+ * The analyses share their traversals and intermediate arrays: one pass over the adjacency counts the degrees
+ * and unites the connected components, the triangle count reuses the degrees for the clustering coefficients,
+ * and the core decomposition starts from the same degrees. Loops are ignored by all analyses but
+ * {@link Analysis#DEGREE}. The clustering coefficients and k-cores are defined for undirected graphs only, for
+ * a directed graph the components are the weakly connected components.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * ForNext.build(System.out::println)
+ *                 .compose(GraphProfile.of(GraphProfile.Analysis.DEGREE, GraphProfile.Analysis.K_CORES))
+ *                 .compose(MtxToCsrGraph.of())
+ *                 .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ * }
+ * </pre>
+ */
+public enum GraphProfile {
+    ;
+    // Enum structure used as a namespace for utility methods.
+
+    /**
+     * The analyses a graph profile can comprise.
+     */
+    public enum Analysis {
+        /** The number of adjacency entries of every vertex. */
+        DEGREE,
+        /** The local clustering coefficient of every vertex and the triangle count of the graph. */
+        CLUSTERING_COEFFICIENT,
+        /** The coreness of every vertex and the degeneracy of the graph. */
+        K_CORES,
+        /** The connected component of every vertex. */
+        CONNECTED_COMPONENTS
+    }
+
+    /**
+     * Creates a pipeline stage that computes the requested analyses of each graph in one fused pass.
+     *
+     * @param analyses the analyses to compute; all analyses if none are given
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding one {@link Result} per graph
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<Result, P>> of(final Analysis... analyses) {
+        final Set<Analysis> requested = analyses.length == 0 ? EnumSet.allOf(Analysis.class) : EnumSet.of(analyses[0], analyses);
+
+        final class _GraphProfile extends Pipeline.AbstractBase<P> implements Pipeline.Stage<Result, P> {
+            private _GraphProfile(final P tail) {
+                super(tail);
+            }
+
+            @Override
+            public Pipe<?> apply(final Pipe<Result> out) {
+                final class ProfileStage extends Operator.Transform<G, Result> {
+                    private ProfileStage(final Pipe<Result> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void open(long count) {
+                        super.open(count);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final G next) {
+                        this.yield(compute(next, requested));
+                    }
+
+                    @Override
+                    public void close() {
+                        super.close();
+                    }
+                }
+                return new ProfileStage(out);
+            }
+        }
+        return _GraphProfile::new;
+    }
+
+    /**
+     * Computes the requested analyses of the given graph. The clustering coefficients require sorted
+     * adjacencies, as built by {@code MtxToCsrGraph}.
+     *
+     * @param graph the graph
+     * @param analyses the analyses to compute
+     * @return the profile of the graph; the fields of analyses that were not requested are {@code null} or 0
+     */
+    public static Result compute(final CsrGraph graph, final Set<Analysis> analyses) {
+        final boolean clustering = analyses.contains(Analysis.CLUSTERING_COEFFICIENT);
+        final boolean cores = analyses.contains(Analysis.K_CORES);
+        final boolean components = analyses.contains(Analysis.CONNECTED_COMPONENTS);
+        if (graph.directed() && (clustering || cores))
+            throw Exceptions.illegalArgument("clustering coefficients and k-cores require an undirected graph");
+
+        final int n = graph.vertexCount();
+
+        // Shared pass over the adjacency: loop free degrees and the union of the components.
+        final int[] simpleDegrees = clustering || cores ? new int[n] : null;
+        final int[] parents = components ? new int[n] : null;
+        if (parents != null) for (int v = 0; v < n; v++) parents[v] = v;
+        if (simpleDegrees != null || parents != null) {
+            for (int v = 0; v < n; v++) {
+                int degree = 0;
+                for (long i = graph.offset(v), end = graph.offset(v + 1); i < end; i++) {
+                    final int w = graph.neighbor(i);
+                    if (w == v) continue;
+                    degree++;
+                    if (parents != null) union(parents, v, w);
+                }
+                if (simpleDegrees != null) simpleDegrees[v] = degree;
+            }
+        }
+
+        int[] degrees = null;
+        if (analyses.contains(Analysis.DEGREE)) {
+            degrees = new int[n];
+            for (int v = 0; v < n; v++) degrees[v] = graph.degree(v);
+        }
+
+        double[] coefficients = null;
+        long triangles = 0;
+        if (clustering) {
+            final long[] perVertex = triangles(graph);
+            coefficients = new double[n];
+            for (int v = 0; v < n; v++) {
+                final long d = simpleDegrees[v];
+                triangles += perVertex[v];
+                coefficients[v] = d < 2 ? 0 : (2.0 * perVertex[v]) / (d * (d - 1));
+            }
+            triangles /= 3;
+        }
+
+        int[] coreness = null;
+        int degeneracy = 0;
+        if (cores) {
+            coreness = cores(graph, simpleDegrees);
+            for (int c : coreness) degeneracy = Math.max(degeneracy, c);
+        }
+
+        int[] labels = null;
+        int count = 0;
+        if (components) {
+            // Number the components in the order of their smallest vertex.
+            labels = new int[n];
+            for (int v = 0; v < n; v++) {
+                final int root = find(parents, v);
+                labels[v] = root == v ? count++ : labels[root];
+            }
+        }
+
+        return new Result(n, degrees, coefficients, triangles, coreness, degeneracy, labels, count);
+    }
+
+    /**
+     * Counts the triangles at every vertex. Every triangle {@code u < v < w} is found once, from its smallest
+     * vertex, by marking the larger neighbors of {@code u} and scanning the larger neighbors of {@code v}.
+     */
+    private static long[] triangles(final CsrGraph graph) {
+        final int n = graph.vertexCount();
+        final long[] triangles = new long[n];
+        final int[] marks = new int[n];
+        Arrays.fill(marks, -1);
+        for (int u = 0; u < n; u++) {
+            final long end = graph.offset(u + 1);
+            final long first = upper(graph, u, graph.offset(u), end);
+            for (long i = first; i < end; i++) marks[graph.neighbor(i)] = u;
+            for (long i = first; i < end; i++) {
+                final int v = graph.neighbor(i);
+                final long vEnd = graph.offset(v + 1);
+                for (long j = upper(graph, v, graph.offset(v), vEnd); j < vEnd; j++) {
+                    final int w = graph.neighbor(j);
+                    if (marks[w] == u) {
+                        triangles[u]++;
+                        triangles[v]++;
+                        triangles[w]++;
+                    }
+                }
+            }
+        }
+        return triangles;
+    }
+
+    // Position of the first neighbor greater than the vertex in its sorted adjacency.
+    private static long upper(final CsrGraph graph, final int vertex, long lo, long hi) {
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (graph.neighbor(mid) <= vertex) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Computes the coreness of every vertex with the bucket algorithm of Batagelj and Zaversnik in linear time.
+     */
+    private static int[] cores(final CsrGraph graph, final int[] simpleDegrees) {
+        final int n = graph.vertexCount();
+        final int[] degree = simpleDegrees.clone();
+        int max = 0;
+        for (int d : degree) max = Math.max(max, d);
+
+        // Sort the vertices by degree into buckets.
+        final int[] bins = new int[max + 1];
+        for (int d : degree) bins[d]++;
+        for (int d = 0, start = 0; d <= max; d++) {
+            final int size = bins[d];
+            bins[d] = start;
+            start += size;
+        }
+        final int[] order = new int[n];
+        final int[] position = new int[n];
+        for (int v = 0; v < n; v++) {
+            position[v] = bins[degree[v]]++;
+            order[position[v]] = v;
+        }
+        for (int d = max; d > 0; d--) bins[d] = bins[d - 1];
+        bins[0] = 0;
+
+        // Peel the vertices in the order of increasing degree.
+        for (int i = 0; i < n; i++) {
+            final int v = order[i];
+            for (long e = graph.offset(v), end = graph.offset(v + 1); e < end; e++) {
+                final int u = graph.neighbor(e);
+                if (u == v || degree[u] <= degree[v]) continue;
+                // Move u to the front of its bucket and decrement its degree.
+                final int du = degree[u];
+                final int pu = position[u];
+                final int pw = bins[du];
+                final int w = order[pw];
+                if (u != w) {
+                    position[u] = pw;
+                    order[pu] = w;
+                    position[w] = pu;
+                    order[pw] = u;
+                }
+                bins[du]++;
+                degree[u]--;
+            }
+        }
+        return degree;
+    }
+
+    private static int find(final int[] parents, int v) {
+        while (parents[v] != v) {
+            parents[v] = parents[parents[v]];
+            v = parents[v];
+        }
+        return v;
+    }
+
+    // Links the larger root below the smaller one, hence every root is the smallest vertex of its component.
+    private static void union(final int[] parents, final int u, final int v) {
+        final int ru = find(parents, u);
+        final int rv = find(parents, v);
+        if (ru < rv) parents[rv] = ru;
+        else if (rv < ru) parents[ru] = rv;
+    }
+
+    // ----------------------------------------------------------
+    //  GRAPHPROFILE.RESULT
+    // ----------------------------------------------------------
+
+    /**
+     * The combined result of the analyses of one graph, indexed by vertex.
+     *
+     * @param vertexCount the number of vertices
+     * @param degrees the degree of every vertex, or {@code null}
+     * @param clusteringCoefficients the local clustering coefficient of every vertex, or {@code null}
+     * @param triangles the number of triangles of the graph
+     * @param coreness the coreness of every vertex, or {@code null}
+     * @param degeneracy the greatest coreness of any vertex
+     * @param components the index of the connected component of every vertex, or {@code null}
+     * @param componentCount the number of connected components
+     */
+    public record Result(int vertexCount, int[] degrees, double[] clusteringCoefficients, long triangles,
+                         int[] coreness, int degeneracy, int[] components, int componentCount) {
+
+        /**
+         * Returns the average of the local clustering coefficients.
+         * @return the average clustering coefficient, 0 if not computed or for an empty graph
+         */
+        public double averageClusteringCoefficient() {
+            if (clusteringCoefficients == null || vertexCount == 0) return 0;
+            double sum = 0;
+            for (double c : clusteringCoefficients) sum += c;
+            return sum / vertexCount;
+        }
+
+        @Override
+        public String toString() {
+            final var builder = new StringBuilder("GraphProfile.Result[vertices=").append(vertexCount);
+            if (degrees != null) {
+                long sum = 0;
+                int max = 0;
+                for (int d : degrees) {
+                    sum += d;
+                    max = Math.max(max, d);
+                }
+                builder.append(", maxDegree=").append(max).append(", entries=").append(sum);
+            }
+            if (clusteringCoefficients != null)
+                builder.append(", triangles=").append(triangles)
+                        .append(", averageClusteringCoefficient=").append(averageClusteringCoefficient());
+            if (coreness != null) builder.append(", degeneracy=").append(degeneracy);
+            if (components != null) builder.append(", components=").append(componentCount);
+            return builder.append(']').toString();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package graphma.compute.operator.metrics;
 
+import graphma.graph.CsrGraph;
 import magma.data.sequence.operator.Operator;
 import magma.data.sequence.pipeline.Composer;
 import magma.data.sequence.pipeline.Pipe;
@@ -81,5 +82,18 @@ public enum Radius {
         }
         return _Radius::new;
     }
-}
 
+    /**
+     * Creates a pipeline stage that computes the radius of a {@link CsrGraph}, i.e. the smallest eccentricity of any vertex.
+     * The metric is derived from the eccentricities of the vertices, see {@link Eccentricity}; use
+     * {@link Eccentricity#profile()} to derive several metrics from one search.
+     *
+     * @param <G> the graph type, extending {@link CsrGraph}
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage for computing the graph radius
+     */
+    public static <G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<Double, P>> csr() {
+        return Eccentricity.stage(Eccentricity.Profile::radius);
+    }
+}
@@ -0,0 +1,185 @@
+package graphma.compute.operator.parallel;
+
+import magma.control.exception.Exceptions;
+import magma.control.function.Fn1;
+import magma.data.sequence.operator.Operator;
+import magma.data.sequence.pipeline.Composer;
+import magma.data.sequence.pipeline.Pipe;
+import magma.data.sequence.pipeline.Pipeline;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Provides pipeline stages that apply a function to independent elements, e.g. the graphs of an SSDB collection,
+ * on a bounded executor instead of the calling thread.
+ * <p>
+ * The elements are submitted as they arrive, while the results are yielded on the calling thread, so the
+ * downstream stages do not need to be thread safe. At most {@code window} elements are in flight at any time,
+ * which bounds the memory held by pending results; when the window is full the stage waits for a result before
+ * it accepts the next element. An ordered stage yields the results in the order of the elements, an unordered
+ * stage as soon as they are completed, so a single slow element does not hold back the others.
+ * </p>
+ * <p>
+ * An exception thrown by the function is rethrown on the calling thread; the remaining tasks are cancelled.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * ForNext.build(System.out::println)
+ *                 .compose(Parallel.map((Mtx.MTXFile mtx) -> GraphProfile.compute(
+ *                         MtxToCsrGraph.build(mtx.mapped(), false), EnumSet.allOf(GraphProfile.Analysis.class))))
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ * }
+ * </pre>
+ */
+public enum Parallel {
+    ;
+    // Enum structure used as a namespace for utility methods.
+
+    /**
+     * Creates an ordered pipeline stage that applies the given function on a pool with one thread per processor.
+     *
+     * @param fn the function to apply to every element
+     * @param <A> the type of the elements
+     * @param <B> the type of the results
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the results in the order of the elements
+     */
+    public static <A, B, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<B, P>> map(final Fn1<? super A, ? extends B> fn) {
+        return map(fn, Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * Creates a pipeline stage that applies the given function on a pool of the given parallelism. The pool is
+     * created when the stage is opened and shut down when it is closed.
+     *
+     * @param fn the function to apply to every element
+     * @param parallelism the number of threads
+     * @param ordered whether the results are yielded in the order of the elements
+     * @param <A> the type of the elements
+     * @param <B> the type of the results
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the results
+     */
+    public static <A, B, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<B, P>> map(final Fn1<? super A, ? extends B> fn, final int parallelism,
+                                          final boolean ordered) {
+        if (parallelism < 1) throw Exceptions.illegalArgument("parallelism must be positive: %d", parallelism);
+        return stage(fn, null, parallelism, 2 * parallelism, ordered);
+    }
+
+    /**
+     * Creates a pipeline stage that applies the given function on the given executor, which is not shut down
+     * by the stage.
+     *
+     * @param fn the function to apply to every element
+     * @param executor the executor that runs the function
+     * @param window the maximum number of elements in flight
+     * @param ordered whether the results are yielded in the order of the elements
+     * @param <A> the type of the elements
+     * @param <B> the type of the results
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the results
+     */
+    public static <A, B, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<B, P>> map(final Fn1<? super A, ? extends B> fn, final ExecutorService executor,
+                                          final int window, final boolean ordered) {
+        if (executor == null) throw Exceptions.illegalArgument("executor must not be null");
+        if (window < 1) throw Exceptions.illegalArgument("window must be positive: %d", window);
+        return stage(fn, executor, 0, window, ordered);
+    }
+
+    private static <A, B, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<B, P>> stage(final Fn1<? super A, ? extends B> fn, final ExecutorService shared,
+                                            final int parallelism, final int window, final boolean ordered) {
+
+        final class _Parallel extends Pipeline.AbstractBase<P> implements Pipeline.Stage<B, P> {
+            private _Parallel(final P tail) {
+                super(tail);
+            }
+
+            @Override
+            public Pipe<A> apply(final Pipe<B> out) {
+                final class ParallelStage extends Operator.Transform<A, B> {
+
+                    // Pending results in the order of submission.
+                    private final ArrayDeque<Future<B>> pending = new ArrayDeque<>();
+                    private ExecutorService executor;
+                    private ExecutorCompletionService<B> completion;
+
+                    private ParallelStage(final Pipe<B> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void open(long count) {
+                        executor = shared != null ? shared : new ForkJoinPool(parallelism);
+                        if (!ordered) completion = new ExecutorCompletionService<>(executor);
+                        super.open(count);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final A next) {
+                        if (ordered) {
+                            pending.add(executor.submit(() -> fn.apply(next)));
+                            while (!pending.isEmpty() && (pending.size() >= window || pending.peek().isDone())) {
+                                this.yield(await(pending.poll()));
+                            }
+                        } else {
+                            pending.add(completion.submit(() -> fn.apply(next)));
+                            for (Future<B> done = completion.poll(); done != null; done = completion.poll()) {
+                                this.yield(await(done));
+                            }
+                            while (pending.size() >= window) {
+                                this.yield(await(take()));
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void close() {
+                        try {
+                            while (!pending.isEmpty()) this.yield(await(ordered ? pending.poll() : take()));
+                        } finally {
+                            pending.forEach(future -> future.cancel(true));
+                            pending.clear();
+                            if (shared == null) executor.shutdownNow();
+                            super.close();
+                        }
+                    }
+
+                    private Future<B> take() {
+                        try {
+                            return completion.take();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw Exceptions.illegalState("interrupted while waiting for a result", e);
+                        }
+                    }
+
+                    private B await(final Future<B> future) {
+                        if (!ordered) pending.remove(future);
+                        try {
+                            return future.get();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw Exceptions.illegalState("interrupted while waiting for a result", e);
+                        } catch (ExecutionException e) {
+                            throw Exceptions.unchecked(e.getCause());
+                        }
+                    }
+                }
+                return new ParallelStage(out);
+            }
+        }
+        return _Parallel::new;
+    }
+}
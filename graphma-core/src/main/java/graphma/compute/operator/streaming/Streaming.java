@@ -0,0 +1,269 @@
+package graphma.compute.operator.streaming;
+
+import magma.adt.control.traversal.Traversal;
+import magma.control.exception.Exceptions;
+import magma.control.function.Fn1;
+import magma.control.traversal.Traversable;
+import magma.control.traversal.Traverser;
+import magma.data.sequence.operator.Operator;
+import magma.data.sequence.pipeline.Composer;
+import magma.data.sequence.pipeline.Pipe;
+import magma.data.sequence.pipeline.Pipeline;
+import org.jgrapht.Graph;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Provides the parts of a pipeline that ingests an unbounded stream of edges into a live graph.
+ * <p>
+ * Producers put the edges into an {@link EdgeStream}, a bounded buffer that is traversed as micro-batches: a batch
+ * is complete when it holds {@code batchSize} edges or when {@code maxDelay} has passed since its first edge was
+ * taken from the buffer, whichever comes first. Under load the batches are full, which amortizes the per-element
+ * cost of the pipeline; at a low rate the buffer is empty and an edge waits at most {@code maxDelay} for its batch.
+ * When the pipeline falls behind, the buffer fills up and {@link EdgeStream#put(Object)} blocks the producers until
+ * there is room again. The backpressure bounds the memory of the buffered edges, and their latency to the time the
+ * pipeline takes to drain {@code capacity} edges plus {@code maxDelay}.
+ * </p>
+ * <p>
+ * The stream is a {@link Traversable} and hence the source of a pipeline; the pipeline ends when the stream is
+ * closed and the buffered edges are drained. {@link #toGraph(Graph, Fn1, Fn1)} applies every batch to a graph
+ * and then yields it, e.g. to acknowledge or measure the ingested edges.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * final var stream = new Streaming.EdgeStream<Mtx.Long2LongEdge>(1 << 16, 1024, Duration.ofMillis(10));
+ * final var graph = new DefaultDirectedGraph<Long, DefaultEdge>(DefaultEdge.class);
+ * // producer threads: stream.put(edge); ... stream.close();
+ * ForNext.build((List<Mtx.Long2LongEdge> batch) -> System.out.println(batch.size() + " edges ingested"))
+ *                 .compose(Streaming.toGraph(graph, Mtx.Long2LongEdge::source, Mtx.Long2LongEdge::target))
+ *                 .apply(DataSource.of(stream))
+ *                 .evaluate();
+ * }
+ * </pre>
+ */
+public enum Streaming {
+    ;
+    // Enum structure used as a namespace for utility methods.
+
+    /**
+     * Creates a pipeline stage that adds the edges of every batch, and their vertices, to the given graph and
+     * then yields the batch. The graph is only modified by the thread that evaluates the pipeline; other threads
+     * that read it while the pipeline runs need a thread safe graph, e.g. a {@code AsSynchronizedGraph}.
+     *
+     * @param graph the graph the edges are added to
+     * @param sourceOf the function that returns the source vertex of an edge
+     * @param targetOf the function that returns the target vertex of an edge
+     * @param <T> the type of the streamed edges
+     * @param <V> the type of the vertices
+     * @param <P> the type of the pipeline
+     * @return a composer that constructs a pipeline stage yielding the applied batches
+     */
+    public static <T, V, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<List<T>, P>> toGraph(final Graph<V, ?> graph,
+                                                    final Fn1<? super T, ? extends V> sourceOf,
+                                                    final Fn1<? super T, ? extends V> targetOf) {
+        if (graph == null) throw Exceptions.illegalArgument("graph must not be null");
+
+        final class _ToGraph extends Pipeline.AbstractBase<P> implements Pipeline.Stage<List<T>, P> {
+            private _ToGraph(final P tail) {
+                super(tail);
+            }
+
+            @Override
+            public Pipe<List<T>> apply(final Pipe<List<T>> out) {
+                final class ToGraphStage extends Operator.Transform<List<T>, List<T>> {
+
+                    private ToGraphStage(final Pipe<List<T>> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final List<T> next) {
+                        for (T edge : next) {
+                            final V from = sourceOf.apply(edge);
+                            final V to = targetOf.apply(edge);
+                            graph.addVertex(from);
+                            graph.addVertex(to);
+                            graph.addEdge(from, to);
+                        }
+                        this.yield(next);
+                    }
+                }
+                return new ToGraphStage(out);
+            }
+        }
+        return _ToGraph::new;
+    }
+
+    /**
+     * A bounded buffer of streamed edges, traversed once as micro-batches. Any number of threads may put edges
+     * into the stream while a single pipeline traverses it.
+     *
+     * @param <E> the type of the edges
+     */
+    public static final class EdgeStream<E> implements Traversable<List<E>> {
+        // Marks the end of the stream in the buffer.
+        private static final Object END = new Object();
+        // Time between the checks for the end of the stream while the buffer is empty.
+        private static final long IDLE = TimeUnit.MILLISECONDS.toNanos(100);
+
+        private final BlockingQueue<Object> buffer;
+        private final int batchSize;
+        private final long maxDelay;
+        private final AtomicBoolean traversed = new AtomicBoolean();
+        private volatile boolean closed;
+
+        /**
+         * Creates a stream.
+         *
+         * @param capacity the number of edges buffered before the producers are blocked
+         * @param batchSize the maximum number of edges of a batch
+         * @param maxDelay the maximum time a batch waits for more edges after its first edge was taken from the buffer
+         */
+        public EdgeStream(final int capacity, final int batchSize, final Duration maxDelay) {
+            if (capacity < 1) throw Exceptions.illegalArgument("capacity must be positive: %d", capacity);
+            if (batchSize < 1) throw Exceptions.illegalArgument("batchSize must be positive: %d", batchSize);
+            if (maxDelay == null || maxDelay.isNegative())
+                throw Exceptions.illegalArgument("maxDelay must not be negative: %s", maxDelay);
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+            this.batchSize = batchSize;
+            this.maxDelay = maxDelay.toNanos();
+        }
+
+        /**
+         * Puts an edge into the stream, waiting while the buffer is full.
+         *
+         * @param edge the edge
+         * @throws InterruptedException if interrupted while waiting
+         */
+        public void put(final E edge) throws InterruptedException {
+            if (edge == null) throw Exceptions.nullPointer("edge must not be null");
+            if (closed) throw Exceptions.illegalState("stream closed");
+            buffer.put(edge);
+        }
+
+        /**
+         * Puts all edges into the stream, waiting while the buffer is full.
+         *
+         * @param edges the edges
+         * @throws InterruptedException if interrupted while waiting
+         */
+        public void putAll(final Collection<? extends E> edges) throws InterruptedException {
+            for (E edge : edges) put(edge);
+        }
+
+        /**
+         * Ends the stream once the buffered edges are traversed. The producers must not put edges into the stream
+         * after, or concurrently with, closing it.
+         */
+        public void close() {
+            if (closed) return;
+            closed = true;
+            // If the buffer is full, the traverser ends once it is drained.
+            buffer.offer(END);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @throws IllegalStateException if the stream is traversed a second time
+         */
+        @Override
+        public Traverser<List<E>> traverse() {
+            if (!traversed.compareAndSet(false, true)) throw Exceptions.illegalState("stream already traversed");
+            return new BatchTraverser();
+        }
+
+        /**
+         * Takes the next batch from the buffer.
+         *
+         * @return the batch, or {@code null} at the end of the stream
+         */
+        @SuppressWarnings("unchecked")
+        private List<E> next() {
+            final List<Object> taken = new ArrayList<>(Math.min(batchSize, 1024));
+            try {
+                Object first;
+                while ((first = buffer.poll(IDLE, TimeUnit.NANOSECONDS)) == null) {
+                    if (closed && buffer.isEmpty()) return null;
+                }
+                if (first == END) return null;
+                taken.add(first);
+                // The delay starts when the first edge is taken, not when it was put.
+                final long deadline = System.nanoTime() + maxDelay;
+                while (taken.size() < batchSize) {
+                    if (buffer.drainTo(taken, batchSize - taken.size()) == 0) {
+                        final long remaining = deadline - System.nanoTime();
+                        final Object polled = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (polled == null) break;
+                        taken.add(polled);
+                    }
+                    if (taken.get(taken.size() - 1) == END) {
+                        taken.remove(taken.size() - 1);
+                        // Keep the end for the next batch.
+                        buffer.offer(END);
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Exceptions.illegalState("interrupted while waiting for edges", e);
+            }
+            return (List<E>) (List<?>) taken;
+        }
+
+        /**
+         * Implementation of a {@link Traverser} that yields the batches of the stream until it is closed.
+         */
+        private final class BatchTraverser extends Traversal.Control.Context implements Traverser<List<E>> {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean tryNext(final Fn1.Consumer<? super List<E>> action) {
+                if (null == action) throw new NullPointerException();
+                final List<E> batch = next();
+                if (batch == null) return false;
+                action.accept(batch);
+                return true;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void forNext(final Fn1.Consumer<? super List<E>> action) {
+                if (null == action) throw new NullPointerException();
+                for (List<E> batch = next(); batch != null; batch = next()) action.accept(batch);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Traversal.Status whileNext(final Fn1<Traversal.Control, Fn1.Consumer<? super List<E>>> context) {
+                if (null == context) throw new NullPointerException();
+                List<E> batch = next();
+                if (batch != null) {
+                    // Propagate context control state.
+                    final var action = bind(context);
+                    do {
+                        action.accept(batch);
+                    } while (active && (batch = next()) != null);
+                    if (!active) return Traversal.Status.EXIT;
+                }
+                return Traversal.Status.DONE;
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package graphma.compute.operator.transform;
+
+import formats.Mtx;
+import graphma.graph.CsrGraph;
+import magma.control.exception.Exceptions;
+import magma.control.function.Fn1;
+import magma.control.traversal.Traversable;
+import magma.data.sequence.operator.Operator;
+import magma.data.sequence.pipeline.Composer;
+import magma.data.sequence.pipeline.Pipe;
+import magma.data.sequence.pipeline.Pipeline;
+
+import java.util.Arrays;
+
+/**
+ * Provides pipeline stages that build a {@link CsrGraph} directly from MTX edge data, without materializing
+ * boxed vertices or edge objects. The Matrix Market indices are 1-based, hence the entry {@code i j} becomes
+ * the edge between the CSR vertices {@code i - 1} and {@code j - 1}.
+ * <p>
+ * The graph is built in two passes over the edges: the first pass counts the degree of every vertex, which
+ * determines the offsets, the second pass scatters the neighbors into a single array. Afterwards every adjacency
+ * is sorted and duplicate edges are removed, so the result corresponds to the JGraphT graph built by
+ * {@link MtxToUndirectedGraph}.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * ForNext.build(System.out::println)
+ *                 .compose(MtxToCsrGraph.of())
+ *                 .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ * }
+ * </pre>
+ */
+public enum MtxToCsrGraph {
+    // No enum instances are defined as this enum is used as a namespace for the utility methods.
+    ;
+
+    /**
+     * Creates a pipeline stage that converts each traversable collection of MTX edges into an undirected
+     * {@link CsrGraph}.
+     *
+     * @param <A> The traversable collection type containing the MTX edges.
+     * @param <G> The graph type extending {@link CsrGraph}.
+     * @param <P> The pipeline type extending {@link Pipeline}.
+     * @return A {@link Composer} that, when applied, returns a {@link Pipeline.Stage} for converting edge
+     *         data into an undirected CSR graph.
+     */
+    public static <A extends Traversable<Mtx.Long2LongEdge>, G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<G, P>> of() {
+        return stage(false);
+    }
+
+    /**
+     * Creates a pipeline stage that converts each traversable collection of MTX edges into a directed
+     * {@link CsrGraph}, storing every edge in the adjacency of its source.
+     *
+     * @param <A> The traversable collection type containing the MTX edges.
+     * @param <G> The graph type extending {@link CsrGraph}.
+     * @param <P> The pipeline type extending {@link Pipeline}.
+     * @return A {@link Composer} that, when applied, returns a {@link Pipeline.Stage} for converting edge
+     *         data into a directed CSR graph.
+     */
+    public static <A extends Traversable<Mtx.Long2LongEdge>, G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<G, P>> directed() {
+        return stage(true);
+    }
+
+    private static <A extends Traversable<Mtx.Long2LongEdge>, G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<G, P>> stage(final boolean directed) {
+
+        final class _MtxToCsrGraph extends Pipeline.AbstractBase<P> implements Pipeline.Stage<G, P> {
+
+            private _MtxToCsrGraph(final P tail) { super(tail); }
+
+            @Override
+            public Pipe<A> apply(final Pipe<G> out) {
+
+                final class BuildingStage extends Operator.Transform<A, G> {
+
+                    private BuildingStage(final Pipe<G> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void open(long count) {
+                        super.open(count);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final A next) {
+                        this.yield((G) build(next, directed));
+                    }
+
+                    @Override
+                    public void close() {
+                        super.close();
+                    }
+                }
+                return new BuildingStage(out);
+            }
+        }
+        return _MtxToCsrGraph::new;
+    }
+
+    /**
+     * Builds a CSR graph from the given MTX edges. The edges are traversed twice, hence the traversable must
+     * yield the same edges on every traversal, which holds for all file based traversables.
+     *
+     * @param edges the MTX edges with 1-based vertex indices
+     * @param directed whether every edge is stored in the adjacency of its source only
+     * @return a new CSR graph with sorted, duplicate free adjacencies
+     */
+    public static CsrGraph.Heap build(final Traversable<Mtx.Long2LongEdge> edges, final boolean directed) {
+
+        // First pass: count the degree of every vertex.
+        final var count = new DegreeCount(directed);
+        edges.traverse().forNext(count);
+
+        final int n = count.vertices;
+        final int[] offsets = new int[n + 1];
+        final int[] cursor = count.degrees;
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = (int) total;
+            total += cursor[i];
+            cursor[i] = offsets[i];
+            if (total > Integer.MAX_VALUE - 8)
+                throw Exceptions.illegalState("%d adjacency entries exceed the capacity of a heap CSR graph", total);
+        }
+        offsets[n] = (int) total;
+
+        // Second pass: scatter the neighbors into their adjacency.
+        final int[] neighbors = new int[(int) total];
+        edges.traverse().forNext(edge -> {
+            final int u = vertex(edge.source());
+            final int v = vertex(edge.target());
+            neighbors[cursor[u]++] = v;
+            if (!directed && u != v) neighbors[cursor[v]++] = u;
+        });
+
+        // Sort every adjacency and compact it in place, dropping duplicate edges.
+        int w = 0;
+        int lo = offsets[0];
+        for (int i = 0; i < n; i++) {
+            final int hi = offsets[i + 1];
+            Arrays.sort(neighbors, lo, hi);
+            offsets[i] = w;
+            int last = -1;
+            for (int j = lo; j < hi; j++) {
+                final int neighbor = neighbors[j];
+                if (neighbor != last) {
+                    neighbors[w++] = last = neighbor;
+                }
+            }
+            lo = hi;
+        }
+        offsets[n] = w;
+
+        return CsrGraph.of(offsets, w == neighbors.length ? neighbors : Arrays.copyOf(neighbors, w), directed);
+    }
+
+    /**
+     * Counts the degree of every vertex in a pass over MTX edges, growing the degree array as new vertices appear.
+     */
+    static final class DegreeCount implements Fn1.Consumer<Mtx.Long2LongEdge> {
+        private final boolean directed;
+        int[] degrees = new int[1024];
+        int vertices;
+
+        DegreeCount(final boolean directed) { this.directed = directed; }
+
+        @Override
+        public void accept(final Mtx.Long2LongEdge edge) {
+            final int u = vertex(edge.source());
+            final int v = vertex(edge.target());
+            final int max = Math.max(u, v);
+            if (max >= vertices) {
+                vertices = max + 1;
+                if (vertices > degrees.length)
+                    degrees = Arrays.copyOf(degrees, (int) Math.min(MAX_VERTICES, Math.max(vertices, 2L * degrees.length)));
+            }
+            degrees[u]++;
+            if (!directed && u != v) degrees[v]++;
+        }
+    }
+
+    // Greatest number of vertices, limited by the maximum length of the degree array.
+    static final int MAX_VERTICES = Integer.MAX_VALUE - 8;
+
+    static int vertex(final long id) {
+        if (id < 1 || id > MAX_VERTICES)
+            throw Exceptions.illegalArgument("MTX index out of range: %d", id);
+        return (int) (id - 1);
+    }
+}
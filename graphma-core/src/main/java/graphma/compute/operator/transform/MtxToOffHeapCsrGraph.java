@@ -0,0 +1,213 @@
+package graphma.compute.operator.transform;
+
+import formats.Mtx;
+import graphma.graph.CsrGraph;
+import graphma.graph.OffHeapCsrGraph;
+import magma.control.traversal.Traversable;
+import magma.data.sequence.operator.Operator;
+import magma.data.sequence.pipeline.Composer;
+import magma.data.sequence.pipeline.Pipe;
+import magma.data.sequence.pipeline.Pipeline;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Provides pipeline stages that build an {@link OffHeapCsrGraph} directly from MTX edge data. The construction
+ * follows {@link MtxToCsrGraph}, but the offsets and neighbors are written outside the heap and the number of
+ * adjacency entries is not limited to {@code 2^31}.
+ * <p>
+ * The stage owns the graphs it yields: all of them are released when the stage is closed, i.e. at the end of the
+ * pipeline evaluation. Downstream stages must therefore consume a graph, e.g. run an algorithm on it, instead of
+ * retaining it beyond the evaluation.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * ForNext.build((CsrGraph g) -> System.out.println(g.vertexCount() + " / " + g.entryCount()))
+ *                 .compose(MtxToOffHeapCsrGraph.of())
+ *                 .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ * }
+ * </pre>
+ */
+public enum MtxToOffHeapCsrGraph {
+    // No enum instances are defined as this enum is used as a namespace for the utility methods.
+    ;
+
+    /**
+     * Creates a pipeline stage that converts each traversable collection of MTX edges into an undirected
+     * {@link OffHeapCsrGraph}, released when the stage is closed.
+     *
+     * @param <A> The traversable collection type containing the MTX edges.
+     * @param <G> The graph type extending {@link CsrGraph}.
+     * @param <P> The pipeline type extending {@link Pipeline}.
+     * @return A {@link Composer} that, when applied, returns a {@link Pipeline.Stage} for converting edge
+     *         data into an undirected off-heap CSR graph.
+     */
+    public static <A extends Traversable<Mtx.Long2LongEdge>, G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<G, P>> of() {
+        return stage(false);
+    }
+
+    /**
+     * Creates a pipeline stage that converts each traversable collection of MTX edges into a directed
+     * {@link OffHeapCsrGraph}, released when the stage is closed.
+     *
+     * @param <A> The traversable collection type containing the MTX edges.
+     * @param <G> The graph type extending {@link CsrGraph}.
+     * @param <P> The pipeline type extending {@link Pipeline}.
+     * @return A {@link Composer} that, when applied, returns a {@link Pipeline.Stage} for converting edge
+     *         data into a directed off-heap CSR graph.
+     */
+    public static <A extends Traversable<Mtx.Long2LongEdge>, G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<G, P>> directed() {
+        return stage(true);
+    }
+
+    private static <A extends Traversable<Mtx.Long2LongEdge>, G extends CsrGraph, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<G, P>> stage(final boolean directed) {
+
+        final class _MtxToOffHeapCsrGraph extends Pipeline.AbstractBase<P> implements Pipeline.Stage<G, P> {
+
+            private _MtxToOffHeapCsrGraph(final P tail) { super(tail); }
+
+            @Override
+            public Pipe<A> apply(final Pipe<G> out) {
+
+                final class BuildingStage extends Operator.Transform<A, G> {
+
+                    private final List<OffHeapCsrGraph> graphs = new ArrayList<>();
+
+                    private BuildingStage(final Pipe<G> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void open(long count) {
+                        super.open(count);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final A next) {
+                        final var graph = build(next, directed);
+                        graphs.add(graph);
+                        this.yield((G) graph);
+                    }
+
+                    @Override
+                    public void close() {
+                        try {
+                            super.close();
+                        } finally {
+                            graphs.forEach(OffHeapCsrGraph::close);
+                            graphs.clear();
+                        }
+                    }
+                }
+                return new BuildingStage(out);
+            }
+        }
+        return _MtxToOffHeapCsrGraph::new;
+    }
+
+    /**
+     * Builds an off-heap CSR graph in direct memory from the given MTX edges. The edges are traversed twice,
+     * hence the traversable must yield the same edges on every traversal. The caller owns the returned graph
+     * and has to close it.
+     *
+     * @param edges the MTX edges with 1-based vertex indices
+     * @param directed whether every edge is stored in the adjacency of its source only
+     * @return a new off-heap CSR graph with sorted, duplicate free adjacencies
+     */
+    public static OffHeapCsrGraph build(final Traversable<Mtx.Long2LongEdge> edges, final boolean directed) {
+        final var count = new MtxToCsrGraph.DegreeCount(directed);
+        edges.traverse().forNext(count);
+        final var graph = OffHeapCsrGraph.allocate(count.vertices, total(count), directed);
+        return fill(graph, edges, count);
+    }
+
+    /**
+     * Builds an off-heap CSR graph backed by the given file from the given MTX edges, see
+     * {@link OffHeapCsrGraph#map(Path, int, long, boolean)}. The caller owns the returned graph and has to close it.
+     *
+     * @param edges the MTX edges with 1-based vertex indices
+     * @param directed whether every edge is stored in the adjacency of its source only
+     * @param file the file that backs the graph
+     * @return a new off-heap CSR graph with sorted, duplicate free adjacencies
+     */
+    public static OffHeapCsrGraph build(final Traversable<Mtx.Long2LongEdge> edges, final boolean directed, final Path file) {
+        final var count = new MtxToCsrGraph.DegreeCount(directed);
+        edges.traverse().forNext(count);
+        final var graph = OffHeapCsrGraph.map(file, count.vertices, total(count), directed);
+        return fill(graph, edges, count);
+    }
+
+    private static long total(final MtxToCsrGraph.DegreeCount count) {
+        long total = 0;
+        for (int i = 0; i < count.vertices; i++) total += count.degrees[i];
+        return total;
+    }
+
+    private static OffHeapCsrGraph fill(final OffHeapCsrGraph graph, final Traversable<Mtx.Long2LongEdge> edges,
+                                        final MtxToCsrGraph.DegreeCount count) {
+        try {
+            final int n = count.vertices;
+            final int[] degrees = count.degrees;
+
+            // Offsets point to the end of every adjacency first; the scatter pass decrements them to the start,
+            // which avoids a separate cursor array of n longs.
+            long end = 0;
+            int maxDegree = 0;
+            for (int i = 0; i < n; i++) {
+                end += degrees[i];
+                graph.offset(i, end);
+                maxDegree = Math.max(maxDegree, degrees[i]);
+            }
+            graph.offset(n, end);
+
+            // Second pass: scatter the neighbors into their adjacency.
+            edges.traverse().forNext(edge -> {
+                final int u = MtxToCsrGraph.vertex(edge.source());
+                final int v = MtxToCsrGraph.vertex(edge.target());
+                put(graph, u, v);
+                if (!graph.directed() && u != v) put(graph, v, u);
+            });
+
+            // Sort every adjacency on the heap and write it back compacted, dropping duplicate edges.
+            final int[] adjacency = new int[maxDegree];
+            long w = 0;
+            long lo = graph.offset(0);
+            for (int i = 0; i < n; i++) {
+                final long hi = graph.offset(i + 1);
+                final int degree = (int) (hi - lo);
+                for (int j = 0; j < degree; j++) adjacency[j] = graph.neighbor(lo + j);
+                Arrays.sort(adjacency, 0, degree);
+                graph.offset(i, w);
+                int last = -1;
+                for (int j = 0; j < degree; j++) {
+                    final int neighbor = adjacency[j];
+                    if (neighbor != last) {
+                        graph.neighbor(w++, last = neighbor);
+                    }
+                }
+                lo = hi;
+            }
+            graph.offset(n, w);
+            return graph;
+        } catch (RuntimeException e) {
+            graph.close();
+            throw e;
+        }
+    }
+
+    private static void put(final OffHeapCsrGraph graph, final int vertex, final int neighbor) {
+        final long entry = graph.offset(vertex) - 1;
+        graph.offset(vertex, entry);
+        graph.neighbor(entry, neighbor);
+    }
+}
@@ -0,0 +1,271 @@
+package graphma.graph;
+
+import magma.control.exception.Exceptions;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Mutable graph that threads can add edges to while other threads take consistent snapshots of it. The vertices
+ * are the dense indices {@code 0 .. n-1}, {@code n} being one more than the greatest vertex of any edge.
+ * <p>
+ * Every vertex owns an append-only adjacency array. A writer appends an edge under the lock of one of a fixed
+ * number of stripes, chosen by the vertex, so writers of different vertices rarely contend; readers take no locks.
+ * Edges cannot be removed, and parallel edges are kept.
+ * </p>
+ * <p>
+ * Every adjacency entry is stamped with the epoch it was added in. {@link #snapshot(boolean)} starts a new epoch,
+ * waits until the writers of the previous one have finished and copies the entries up to the previous epoch into
+ * a {@link CsrGraph}. A snapshot hence contains every edge that was added before it was taken, no edge that was
+ * added after, and no half of an undirected edge, while the writers keep adding edges at full speed. As a
+ * {@link CsrGraph}, a snapshot can be analysed by any CSR operator, e.g. the degrees and connected components of
+ * {@code GraphProfile}.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * final var graph = new ConcurrentGraph(false);
+ * // ingesting threads: graph.addEdge(u, v);
+ * final var snapshot = graph.snapshot(true);
+ * System.out.println(GraphProfile.compute(snapshot, EnumSet.of(GraphProfile.Analysis.CONNECTED_COMPONENTS)));
+ * }
+ * </pre>
+ */
+public final class ConcurrentGraph {
+    // Locks that guard the appends to the adjacencies.
+    private static final int STRIPES = 256;
+    // Vertices per chunk of the vertex directory.
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK = 1 << CHUNK_BITS;
+    // Slots of the writer counts per epoch parity, padded to a cache line each.
+    private static final int SLOTS = 64;
+    private static final int PAD = 8;
+
+    private final boolean directed;
+    private final Object[] locks = new Object[STRIPES];
+    private volatile AtomicReferenceArray<Adjacency>[] chunks;
+    private final AtomicInteger vertices = new AtomicInteger();
+
+    // The current epoch; the writers registered in an epoch are counted in the slots of its parity.
+    private volatile int epoch = 1;
+    private final AtomicLongArray writers = new AtomicLongArray(2 * SLOTS * PAD);
+    private final Object snapshots = new Object();
+
+    /**
+     * Creates an empty graph.
+     *
+     * @param directed whether every edge is stored in the adjacency of its source only
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentGraph(final boolean directed) {
+        this.directed = directed;
+        for (int i = 0; i < STRIPES; i++) locks[i] = new Object();
+        this.chunks = new AtomicReferenceArray[16];
+    }
+
+    /**
+     * Determines whether every edge is stored in the adjacency of its source only.
+     * @return true if the graph is directed
+     */
+    public boolean directed() {
+        return directed;
+    }
+
+    /**
+     * Returns the number of vertices, including those of edges that are being added.
+     * @return the number of vertices
+     */
+    public int vertexCount() {
+        return vertices.get();
+    }
+
+    /**
+     * Adds an edge. An undirected edge is stored in the adjacency of both of its end points, a loop once.
+     *
+     * @param source the index of the source vertex
+     * @param target the index of the target vertex
+     * @throws IllegalArgumentException if an index is negative or {@link Integer#MAX_VALUE}
+     */
+    public void addEdge(final int source, final int target) {
+        if (source < 0 || target < 0)
+            throw Exceptions.illegalArgument("vertex indices must not be negative: %d, %d", source, target);
+        // The vertex count is one more than the greatest index.
+        if (source == Integer.MAX_VALUE || target == Integer.MAX_VALUE)
+            throw Exceptions.illegalArgument("vertex indices must be less than %d: %d, %d",
+                    Integer.MAX_VALUE, source, target);
+        final int slot = slot();
+        final int stamp = enter(slot);
+        try {
+            grow(source);
+            grow(target);
+            append(source, target, stamp);
+            if (!directed && source != target) append(target, source, stamp);
+        } finally {
+            writers.decrementAndGet(((stamp & 1) * SLOTS + slot) * PAD);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the edges added so far. The adjacencies of the snapshot are either in the order the
+     * edges were added or, if requested, sorted and free of duplicates like the graphs built by
+     * {@code MtxToCsrGraph}, as the clustering coefficients of {@code GraphProfile} require.
+     *
+     * @param sorted whether the adjacencies are sorted and duplicate edges removed
+     * @return a new CSR graph of the edges added before this call
+     */
+    public CsrGraph.Heap snapshot(final boolean sorted) {
+        final int stamp;
+        synchronized (snapshots) {
+            stamp = epoch;
+            epoch = stamp + 1;
+            // Wait for the writers that registered in the closed epoch.
+            final int parity = stamp & 1;
+            for (int slot = 0; slot < SLOTS; slot++) {
+                for (int spins = 0; writers.get((parity * SLOTS + slot) * PAD) != 0; spins++) {
+                    if (spins < 100) Thread.onSpinWait();
+                    else Thread.yield();
+                }
+            }
+        }
+
+        // The vertices of the snapshot are those of its edges; in-flight edges may have added more.
+        final AtomicReferenceArray<Adjacency>[] directory = chunks;
+        final int limit = (int) Math.min(vertices.get(), (long) directory.length << CHUNK_BITS);
+        int n = 0;
+        long total = 0;
+        final int[] degrees = new int[limit];
+        for (int v = 0; v < limit; v++) {
+            final Adjacency adjacency = adjacency(directory, v);
+            if (adjacency == null) continue;
+            final int size = adjacency.size;
+            final long[] entries = adjacency.entries;
+            int degree = 0;
+            for (int i = 0; i < size; i++) {
+                final long entry = entries[i];
+                if ((int) (entry >>> 32) > stamp) continue;
+                degree++;
+                n = Math.max(n, Math.max(v, (int) entry) + 1);
+            }
+            degrees[v] = degree;
+            total += degree;
+            if (total > Integer.MAX_VALUE - 8)
+                throw Exceptions.illegalState("%d adjacency entries exceed the capacity of a heap CSR graph", total);
+        }
+
+        final int[] offsets = new int[n + 1];
+        final int[] neighbors = new int[(int) total];
+        int w = 0;
+        for (int v = 0; v < n; v++) {
+            offsets[v] = w;
+            if (degrees[v] == 0) continue;
+            final Adjacency adjacency = adjacency(directory, v);
+            final int size = adjacency.size;
+            final long[] entries = adjacency.entries;
+            final int lo = w;
+            for (int i = 0; i < size && w - lo < degrees[v]; i++) {
+                final long entry = entries[i];
+                if ((int) (entry >>> 32) <= stamp) neighbors[w++] = (int) entry;
+            }
+            if (sorted) {
+                Arrays.sort(neighbors, lo, w);
+                // Compact in place, dropping duplicate edges.
+                int last = -1;
+                int kept = lo;
+                for (int j = lo; j < w; j++) {
+                    if (neighbors[j] != last) neighbors[kept++] = last = neighbors[j];
+                }
+                w = kept;
+            }
+        }
+        offsets[n] = w;
+        return CsrGraph.of(offsets, w == neighbors.length ? neighbors : Arrays.copyOf(neighbors, w), directed);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConcurrentGraph[vertices=%d, directed=%b, epoch=%d]", vertices.get(), directed, epoch);
+    }
+
+    // ----------------------------------------------------------
+
+    /**
+     * Registers the calling writer in the current epoch. A writer that read the epoch before a snapshot closed
+     * it registers again in the new one, so a snapshot never waits for writers that it does not include.
+     */
+    private int enter(final int slot) {
+        while (true) {
+            final int stamp = epoch;
+            final int index = ((stamp & 1) * SLOTS + slot) * PAD;
+            writers.incrementAndGet(index);
+            if (epoch == stamp) return stamp;
+            writers.decrementAndGet(index);
+        }
+    }
+
+    private static int slot() {
+        final long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 58) & (SLOTS - 1);
+    }
+
+    private void append(final int vertex, final int neighbor, final int stamp) {
+        final AtomicReferenceArray<Adjacency> chunk = chunks[vertex >>> CHUNK_BITS];
+        final int index = vertex & (CHUNK - 1);
+        synchronized (locks[vertex & (STRIPES - 1)]) {
+            Adjacency adjacency = chunk.get(index);
+            if (adjacency == null) {
+                adjacency = new Adjacency();
+                chunk.set(index, adjacency);
+            }
+            adjacency.add(((long) stamp << 32) | neighbor);
+        }
+    }
+
+    /**
+     * Makes room for the given vertex in the vertex directory.
+     */
+    private void grow(final int vertex) {
+        for (int n = vertices.get(); vertex >= n; n = vertices.get()) {
+            if (vertices.compareAndSet(n, vertex + 1)) break;
+        }
+        final int chunk = vertex >>> CHUNK_BITS;
+        final AtomicReferenceArray<Adjacency>[] directory = chunks;
+        if (chunk < directory.length && directory[chunk] != null) return;
+        synchronized (locks) {
+            AtomicReferenceArray<Adjacency>[] grown = chunks;
+            if (chunk >= grown.length) grown = Arrays.copyOf(grown, Math.max(chunk + 1, 2 * grown.length));
+            else if (grown[chunk] != null) return;
+            else grown = grown.clone();
+            grown[chunk] = new AtomicReferenceArray<>(CHUNK);
+            chunks = grown;
+        }
+    }
+
+    private static Adjacency adjacency(final AtomicReferenceArray<Adjacency>[] directory, final int vertex) {
+        final AtomicReferenceArray<Adjacency> chunk = directory[vertex >>> CHUNK_BITS];
+        return chunk == null ? null : chunk.get(vertex & (CHUNK - 1));
+    }
+
+    /**
+     * The adjacency entries of a vertex, each the neighbor in the lower and the epoch in the upper 32 bits.
+     * Entries are appended under the stripe lock; the volatile size publishes them to the readers, which read
+     * the entries below the size only.
+     */
+    private static final class Adjacency {
+        private volatile long[] entries = new long[4];
+        private volatile int size;
+
+        private void add(final long entry) {
+            long[] current = entries;
+            final int n = size;
+            if (n == current.length) {
+                current = Arrays.copyOf(current, n + (n >> 1));
+                entries = current;
+            }
+            current[n] = entry;
+            size = n + 1;
+        }
+    }
+}
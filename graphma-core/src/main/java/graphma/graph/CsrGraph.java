@@ -0,0 +1,121 @@
+package graphma.graph;
+
+import magma.control.exception.Exceptions;
+
+/**
+ * Immutable graph in compressed sparse row (CSR) layout. The vertices are the dense indices {@code 0 .. n-1},
+ * the neighbors of vertex {@code v} are stored contiguously in the adjacency entries
+ * {@code offset(v) .. offset(v + 1) - 1}. An undirected graph stores every edge in the adjacency of both of its
+ * end points, a directed graph only in the adjacency of its source.
+ * <p>
+ * Compared to a JGraphT graph of boxed vertices and edge objects, a CSR graph needs a few bytes per edge only and
+ * allows algorithms to run on plain primitive arrays.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * ForNext.build((CsrGraph g) -> System.out.println(g.vertexCount() + " / " + g.entryCount()))
+ *                 .compose(MtxToCsrGraph.of())
+ *                 .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ * }
+ * </pre>
+ */
+public interface CsrGraph {
+
+    /**
+     * Returns the number of vertices.
+     * @return the number of vertices
+     */
+    int vertexCount();
+
+    /**
+     * Returns the number of adjacency entries, i.e. the number of edges of a directed graph
+     * or twice the number of non-loop edges of an undirected graph.
+     * @return the number of adjacency entries
+     */
+    long entryCount();
+
+    /**
+     * Returns the position of the first adjacency entry of the given vertex.
+     * @param vertex the vertex index; {@code vertexCount()} yields the total number of entries
+     * @return the offset of the vertex in the adjacency entries
+     */
+    long offset(int vertex);
+
+    /**
+     * Returns the neighbor stored at the given adjacency entry.
+     * @param entry the position of the adjacency entry
+     * @return the index of the neighbor vertex
+     */
+    int neighbor(long entry);
+
+    /**
+     * Determines whether every edge is stored in the adjacency of its source only.
+     * @return true if the graph is directed
+     */
+    boolean directed();
+
+    /**
+     * Returns the number of neighbors of the given vertex.
+     * @param vertex the vertex index
+     * @return the degree of the vertex
+     */
+    default int degree(int vertex) {
+        return (int) (offset(vertex + 1) - offset(vertex));
+    }
+
+    // ----------------------------------------------------------
+
+    /**
+     * Creates a CSR graph on the heap from the given arrays. The arrays are not copied.
+     *
+     * @param offsets the offsets of the vertices, of length {@code n + 1}
+     * @param neighbors the adjacency entries, of length {@code offsets[n]} at least
+     * @param directed whether the graph is directed
+     * @return a new {@link CsrGraph.Heap}
+     */
+    static CsrGraph.Heap of(final int[] offsets, final int[] neighbors, final boolean directed) {
+        if (offsets.length == 0 || neighbors.length < offsets[offsets.length - 1])
+            throw Exceptions.illegalArgument("offsets and neighbors do not match");
+        return new CsrGraph.Heap(offsets, neighbors, directed);
+    }
+
+    // ----------------------------------------------------------
+    //  CSRGRAPH.HEAP
+    // ----------------------------------------------------------
+
+    /**
+     * CSR graph whose offsets and neighbors are plain {@code int} arrays on the heap. Algorithms that require
+     * maximum throughput can operate directly on the arrays.
+     *
+     * @param offsets the offsets of the vertices, of length {@code n + 1}
+     * @param neighbors the adjacency entries
+     * @param directed whether the graph is directed
+     */
+    record Heap(int[] offsets, int[] neighbors, boolean directed) implements CsrGraph {
+
+        @Override
+        public int vertexCount() { return offsets.length - 1; }
+
+        @Override
+        public long entryCount() { return offsets[offsets.length - 1]; }
+
+        @Override
+        public long offset(final int vertex) { return offsets[vertex]; }
+
+        @Override
+        public int neighbor(final long entry) { return neighbors[(int) entry]; }
+
+        @Override
+        public int degree(final int vertex) { return offsets[vertex + 1] - offsets[vertex]; }
+
+        @Override
+        public String toString() {
+            return String.format("CsrGraph.Heap[vertices=%d, entries=%d, directed=%b]",
+                    vertexCount(), entryCount(), directed);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package graphma.graph;
+
+import magma.control.exception.Exceptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * CSR graph whose offsets and neighbors are stored outside the GC-managed heap, either in direct memory or in a
+ * memory-mapped file. The {@code long} offsets allow more than {@code 2^31} adjacency entries, hence graphs that
+ * exceed the capacity of {@link CsrGraph.Heap} and do not put any pressure on the garbage collector.
+ * <p>
+ * The memory is released deterministically by {@link #close()}, e.g. when the pipeline stage that built the graph
+ * is closed. A closed graph must not be accessed anymore; doing so fails with a {@link NullPointerException}.
+ * </p>
+ * <p>
+ * A graph is filled by its builder through {@link #offset(int, long)} and {@link #neighbor(long, int)} and should
+ * be treated as immutable afterwards.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * try (var graph = MtxToOffHeapCsrGraph.build(mtx, false)) {
+ *     System.out.println(graph.vertexCount() + " / " + graph.entryCount());
+ * }
+ * }
+ * </pre>
+ */
+public final class OffHeapCsrGraph implements CsrGraph, AutoCloseable {
+
+    private final int vertices;
+    private final boolean directed;
+    private final OffHeapMemory offsets;
+    private final OffHeapMemory neighbors;
+
+    private OffHeapCsrGraph(final int vertices, final boolean directed,
+                            final OffHeapMemory offsets, final OffHeapMemory neighbors) {
+        this.vertices = vertices;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Allocates a zeroed graph in direct memory.
+     *
+     * @param vertices the number of vertices
+     * @param entries the capacity for adjacency entries
+     * @param directed whether the graph is directed
+     * @return a new off-heap graph
+     */
+    public static OffHeapCsrGraph allocate(final int vertices, final long entries, final boolean directed) {
+        return allocate(vertices, entries, directed, OffHeapMemory.PAGE_SHIFT);
+    }
+
+    static OffHeapCsrGraph allocate(final int vertices, final long entries, final boolean directed, final int shift) {
+        check(vertices, entries);
+        final var offsets = OffHeapMemory.allocate(((long) vertices + 1) * Long.BYTES, shift);
+        try {
+            return new OffHeapCsrGraph(vertices, directed, offsets, OffHeapMemory.allocate(entries * Integer.BYTES, shift));
+        } catch (RuntimeException | OutOfMemoryError e) {
+            offsets.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Allocates a graph backed by the given file, which is created or overwritten. The operating system pages
+     * the graph in and out on demand, hence it may exceed the physical memory. The file is kept after
+     * {@link #close()}.
+     *
+     * @param file the file that backs the graph
+     * @param vertices the number of vertices
+     * @param entries the capacity for adjacency entries
+     * @param directed whether the graph is directed
+     * @return a new off-heap graph
+     */
+    public static OffHeapCsrGraph map(final Path file, final int vertices, final long entries, final boolean directed) {
+        check(vertices, entries);
+        final long offsetBytes = ((long) vertices + 1) * Long.BYTES;
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // A mapping stays valid after its channel has been closed.
+            final var offsets = OffHeapMemory.map(channel, 0, offsetBytes, OffHeapMemory.PAGE_SHIFT);
+            try {
+                return new OffHeapCsrGraph(vertices, directed, offsets,
+                        OffHeapMemory.map(channel, offsetBytes, entries * Integer.BYTES, OffHeapMemory.PAGE_SHIFT));
+            } catch (RuntimeException e) {
+                offsets.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void check(final int vertices, final long entries) {
+        if (vertices < 0 || entries < 0)
+            throw Exceptions.illegalArgument("invalid graph size: %d vertices, %d entries", vertices, entries);
+    }
+
+    @Override
+    public int vertexCount() { return vertices; }
+
+    @Override
+    public long entryCount() { return offset(vertices); }
+
+    @Override
+    public long offset(final int vertex) { return offsets.getLong((long) vertex << 3); }
+
+    @Override
+    public int neighbor(final long entry) { return neighbors.getInt(entry << 2); }
+
+    @Override
+    public boolean directed() { return directed; }
+
+    /**
+     * Returns the number of adjacency entries this graph can hold.
+     * @return the capacity for adjacency entries
+     */
+    public long capacity() { return neighbors.size() / Integer.BYTES; }
+
+    /**
+     * Sets the offset of the given vertex.
+     * @param vertex the vertex index; {@code vertexCount()} sets the total number of entries
+     * @param offset the position of the first adjacency entry of the vertex
+     */
+    public void offset(final int vertex, final long offset) { offsets.putLong((long) vertex << 3, offset); }
+
+    /**
+     * Sets the neighbor stored at the given adjacency entry.
+     * @param entry the position of the adjacency entry
+     * @param neighbor the index of the neighbor vertex
+     */
+    public void neighbor(final long entry, final int neighbor) { neighbors.putInt(entry << 2, neighbor); }
+
+    /**
+     * Determines whether the memory of this graph has been released.
+     * @return true if the graph has been closed
+     */
+    public boolean isClosed() { return offsets.isReleased(); }
+
+    /**
+     * Releases the memory of this graph immediately. Closing a graph more than once has no effect.
+     */
+    @Override
+    public void close() {
+        offsets.close();
+        neighbors.close();
+    }
+
+    @Override
+    public String toString() {
+        return isClosed()
+                ? "OffHeapCsrGraph[closed]"
+                : String.format("OffHeapCsrGraph[vertices=%d, entries=%d, directed=%b]", vertexCount(), entryCount(), directed);
+    }
+}
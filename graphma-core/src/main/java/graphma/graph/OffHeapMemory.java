@@ -0,0 +1,122 @@
+package graphma.graph;
+
+import magma.control.exception.Exceptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Memory region outside the GC-managed heap, addressed by {@code long} byte offsets. The region is split into pages
+ * of direct or memory-mapped {@link ByteBuffer}s, hence it is not limited to the 2 GB of a single buffer.
+ * <p>
+ * The pages are released deterministically by {@link #close()}. Afterwards every access fails with a
+ * {@link NullPointerException} instead of touching freed memory.
+ * </p>
+ */
+final class OffHeapMemory implements AutoCloseable {
+
+    // Default page size; a multiple of every element size, so no element crosses a page boundary.
+    static final int PAGE_SHIFT = 30;
+
+    private static final sun.misc.Unsafe UNSAFE = unsafe();
+
+    private final int shift;
+    private final long mask;
+    private final long size;
+    private ByteBuffer[] pages;
+
+    private OffHeapMemory(final ByteBuffer[] pages, final int shift, final long size) {
+        this.pages = pages;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        this.size = size;
+    }
+
+    /**
+     * Allocates a zeroed region of direct memory.
+     *
+     * @param bytes the size of the region
+     * @param shift the base 2 logarithm of the page size
+     * @return a new memory region
+     */
+    static OffHeapMemory allocate(final long bytes, final int shift) {
+        final var pages = new ByteBuffer[pageCount(bytes, shift)];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = ByteBuffer.allocateDirect(pageSize(bytes, shift, i)).order(ByteOrder.nativeOrder());
+        }
+        return new OffHeapMemory(pages, shift, bytes);
+    }
+
+    /**
+     * Maps a region of the given file into memory. The file is extended if necessary.
+     *
+     * @param channel the file channel, opened for reading and writing
+     * @param position the position of the region within the file
+     * @param bytes the size of the region
+     * @param shift the base 2 logarithm of the page size
+     * @return a new memory region backed by the file
+     */
+    static OffHeapMemory map(final FileChannel channel, final long position, final long bytes, final int shift) {
+        final var pages = new ByteBuffer[pageCount(bytes, shift)];
+        try {
+            for (int i = 0; i < pages.length; i++) {
+                final long offset = position + ((long) i << shift);
+                pages[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset, pageSize(bytes, shift, i))
+                        .order(ByteOrder.nativeOrder());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new OffHeapMemory(pages, shift, bytes);
+    }
+
+    long size() { return size; }
+
+    int getInt(final long offset) { return pages[(int) (offset >>> shift)].getInt((int) (offset & mask)); }
+
+    void putInt(final long offset, final int value) { pages[(int) (offset >>> shift)].putInt((int) (offset & mask), value); }
+
+    long getLong(final long offset) { return pages[(int) (offset >>> shift)].getLong((int) (offset & mask)); }
+
+    void putLong(final long offset, final long value) { pages[(int) (offset >>> shift)].putLong((int) (offset & mask), value); }
+
+    boolean isReleased() { return pages == null; }
+
+    /**
+     * Releases all pages of this region immediately.
+     */
+    @Override
+    public void close() {
+        final var pages = this.pages;
+        if (pages == null) return;
+        this.pages = null;
+        for (ByteBuffer page : pages) {
+            UNSAFE.invokeCleaner(page);
+        }
+    }
+
+    // ----------------------------------------------------------
+
+    private static int pageCount(final long bytes, final int shift) {
+        if (bytes < 0) throw Exceptions.illegalArgument("negative size: %d", bytes);
+        return Math.toIntExact((bytes + (1L << shift) - 1) >>> shift);
+    }
+
+    private static int pageSize(final long bytes, final int shift, final int page) {
+        return (int) Math.min(1L << shift, bytes - ((long) page << shift));
+    }
+
+    private static sun.misc.Unsafe unsafe() {
+        try {
+            final Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (sun.misc.Unsafe) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw Exceptions.illegalState("Unable to access sun.misc.Unsafe", e);
+        }
+    }
+}
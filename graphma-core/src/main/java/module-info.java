@@ -19,5 +19,7 @@ module graphma.core {
 
     requires magma;
 
+    requires jdk.unsupported;
+
     requires graphma.data;
 }
\ No newline at end of file
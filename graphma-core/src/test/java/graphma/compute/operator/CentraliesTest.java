@@ -3,7 +3,9 @@ package graphma.compute.operator;
 import data.suitesparse.SSDB;
 import formats.Mtx;
 import graphma.compute.operator.centralities.*;
+import graphma.compute.operator.transform.MtxToCsrGraph;
 import graphma.compute.operator.transform.MtxToUndirectedGraph;
+import graphma.graph.CsrGraph;
 import magma.data.sequence.operator.DataSource;
 import magma.data.sequence.operator.lazy.Filter;
 import magma.data.sequence.operator.lazy.Map;
@@ -11,6 +13,13 @@ import magma.data.sequence.operator.strict.ForNext;
 import org.jgrapht.graph.DefaultEdge;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
 /**
  * These are not really tests. More demos with printouts to check if stuff works.
  *
@@ -95,4 +104,133 @@ public class CentraliesTest {
                 .apply(DataSource.of(SSDB.SMALL))
                 .evaluate();
     }
+
+    @Test
+    public void test_parallel_page_rank() {
+        ForNext.build((double[] r) -> System.out.println(Arrays.toString(r) + "\n-------\n"))
+                .compose(PageRank.parallel(0.85, 1e-6, 100))
+                .compose(MtxToCsrGraph.of())
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+    }
+
+    @Test
+    public void test_parallel_page_rank_matches_jgrapht() {
+        final var pool = new ForkJoinPool(4);
+        try {
+            for (Mtx.MTXFile mtx : SSDB.SMALL) {
+                if (mtx.lines() == 0) continue;
+                for (boolean directed : new boolean[]{false, true}) {
+                    final CsrGraph csr = MtxToCsrGraph.build(mtx.mapped(), directed);
+                    // JGraphT counts an undirected loop twice in the degree but once in the incoming edges.
+                    if (!directed && hasLoop(csr)) continue;
+                    assertSameScores(csr, pool);
+                }
+            }
+            final var random = new Random(42);
+            final int n = 50_000;
+            for (boolean directed : new boolean[]{false, true}) {
+                assertSameScores(randomGraph(random, n, 4 * n, directed), pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void test_parallel_betweenness_centrality() {
+        ForNext.build((double[] r) -> System.out.println(Arrays.toString(r) + "\n-------\n"))
+                .compose(BetweennessCentrality.sampled(8, 42L))
+                .compose(MtxToCsrGraph.of())
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+    }
+
+    @Test
+    public void test_parallel_betweenness_matches_jgrapht() {
+        final var pool = new ForkJoinPool(4);
+        try {
+            for (Mtx.MTXFile mtx : SSDB.SMALL) {
+                if (mtx.lines() == 0) continue;
+                for (boolean directed : new boolean[]{false, true}) {
+                    final CsrGraph csr = MtxToCsrGraph.build(mtx.mapped(), directed);
+                    final var expected = new org.jgrapht.alg.scoring.BetweennessCentrality<>(Utils.toJGraphT(csr)).getScores();
+                    final double[] actual = BetweennessCentrality.exact(csr, pool);
+                    for (int v = 0; v < actual.length; v++) {
+                        assertThat(actual[v]).as(mtx.pth() + " / " + v).isCloseTo(expected.get(v), within(1e-6 * Math.max(1, expected.get(v))));
+                    }
+                    // Sampling all sources is exact.
+                    assertThat(BetweennessCentrality.approximate(csr, csr.vertexCount(), 7L, pool))
+                            .containsExactly(actual, within(1e-9 * Math.max(1, Arrays.stream(actual).max().orElse(0))));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void test_sampled_betweenness_is_reproducible() {
+        final var pool = new ForkJoinPool(4);
+        try {
+            final CsrGraph csr = randomGraph(new Random(7), 20_000, 60_000, false);
+            final double[] a = BetweennessCentrality.approximate(csr, 200, 42L, pool);
+            final double[] b = BetweennessCentrality.approximate(csr, 200, 42L, pool);
+            final double[] c = BetweennessCentrality.approximate(csr, 200, 43L, pool);
+            assertThat(a).containsExactly(b);
+            assertThat(a).isNotEqualTo(c);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameScores(final CsrGraph csr, final ForkJoinPool pool) {
+        final var expected = new org.jgrapht.alg.scoring.PageRank<>(Utils.toJGraphT(csr)).getScores();
+        final double[] actual = PageRank.compute(csr, PageRank.DAMPING_FACTOR, PageRank.TOLERANCE, PageRank.MAX_ITERATIONS, pool);
+        assertThat(actual).hasSize(csr.vertexCount());
+        for (int v = 0; v < actual.length; v++) {
+            assertThat(actual[v]).isCloseTo(expected.get(v), within(1e-9));
+        }
+    }
+
+    private static boolean hasLoop(final CsrGraph csr) {
+        for (int v = 0; v < csr.vertexCount(); v++) {
+            for (long i = csr.offset(v); i < csr.offset(v + 1); i++) if (csr.neighbor(i) == v) return true;
+        }
+        return false;
+    }
+
+    private static CsrGraph randomGraph(final Random random, final int n, final int edges, final boolean directed) {
+        final int[][] adjacency = new int[n][];
+        final int[] degrees = new int[n];
+        final int[][] pairs = new int[edges][];
+        for (int e = 0; e < edges; e++) {
+            final int u = random.nextInt(n);
+            int v = random.nextInt(n - 1);
+            if (v >= u) v++;
+            pairs[e] = new int[]{u, v};
+            degrees[u]++;
+            if (!directed) degrees[v]++;
+        }
+        for (int v = 0; v < n; v++) adjacency[v] = new int[degrees[v]];
+        Arrays.fill(degrees, 0);
+        for (int[] pair : pairs) {
+            adjacency[pair[0]][degrees[pair[0]]++] = pair[1];
+            if (!directed) adjacency[pair[1]][degrees[pair[1]]++] = pair[0];
+        }
+        final int[] offsets = new int[n + 1];
+        final int[] neighbors = new int[Arrays.stream(degrees).sum()];
+        int w = 0;
+        for (int v = 0; v < n; v++) {
+            Arrays.sort(adjacency[v]);
+            offsets[v] = w;
+            for (int j = 0; j < adjacency[v].length; j++) {
+                if (j == 0 || adjacency[v][j] != adjacency[v][j - 1]) neighbors[w++] = adjacency[v][j];
+            }
+        }
+        offsets[n] = w;
+        return CsrGraph.of(offsets, neighbors, directed);
+    }
 }
@@ -3,17 +3,33 @@ package graphma.compute.operator;
 import data.suitesparse.SSDB;
 import formats.Mtx;
 import graphma.compute.operator.metrics.Diameter;
+import graphma.compute.operator.metrics.Eccentricity;
 import graphma.compute.operator.metrics.GraphCenter;
 import graphma.compute.operator.metrics.GraphPeriphery;
+import graphma.compute.operator.metrics.GraphProfile;
 import graphma.compute.operator.metrics.Radius;
+import graphma.compute.operator.transform.MtxToCsrGraph;
 import graphma.compute.operator.transform.MtxToUndirectedGraph;
+import graphma.graph.CsrGraph;
 import magma.data.sequence.operator.DataSource;
 import magma.data.sequence.operator.lazy.Filter;
 import magma.data.sequence.operator.lazy.Map;
 import magma.data.sequence.operator.strict.ForNext;
+import org.jgrapht.alg.connectivity.ConnectivityInspector;
+import org.jgrapht.alg.scoring.ClusteringCoefficient;
+import org.jgrapht.alg.scoring.Coreness;
+import org.jgrapht.alg.shortestpath.GraphMeasurer;
 import org.jgrapht.graph.DefaultEdge;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
 /**
  * These are not really tests. More demos with printouts to check if stuff works.
  *
@@ -65,4 +81,96 @@ public class MetricsTest {
                 .apply(DataSource.of(SSDB.SMALL))
                 .evaluate();
     }
+
+    @Test
+    public void test_csr_metrics() {
+        ForNext.build(System.out::println)
+                .compose(Map.build(r -> r + "\n--------\n"))
+                .compose(Eccentricity.profile())
+                .compose(MtxToCsrGraph.of())
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+        ForNext.build((int[] r) -> System.out.println(Arrays.toString(r) + "\n--------\n"))
+                .compose(GraphCenter.csr())
+                .compose(MtxToCsrGraph.of())
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+    }
+
+    @Test
+    public void test_eccentricity_matches_jgrapht() {
+        final var pool = new ForkJoinPool(4);
+        try {
+            for (Mtx.MTXFile mtx : SSDB.SMALL) {
+                if (mtx.lines() == 0 || mtx.lines() > 5000) continue;
+                for (boolean directed : new boolean[]{false, true}) {
+                    final CsrGraph csr = MtxToCsrGraph.build(mtx.mapped(), directed);
+                    final var measurer = new GraphMeasurer<>(Utils.toJGraphT(csr));
+                    final var profile = Eccentricity.compute(csr, pool);
+                    final var expected = measurer.getVertexEccentricityMap();
+                    for (int v = 0; v < csr.vertexCount(); v++) {
+                        final int e = profile.eccentricities()[v];
+                        assertThat(e == Eccentricity.INFINITE ? Double.POSITIVE_INFINITY : e)
+                                .as(mtx.pth() + " / " + v).isEqualTo(expected.get(v));
+                    }
+                    assertThat(profile.diameter()).isEqualTo(measurer.getDiameter());
+                    assertThat(profile.radius()).isEqualTo(measurer.getRadius());
+                    assertThat(Arrays.stream(profile.center()).boxed().toList())
+                            .isEqualTo(new TreeSet<>(measurer.getGraphCenter()).stream().toList());
+                    assertThat(Arrays.stream(profile.periphery()).boxed().toList())
+                            .isEqualTo(new TreeSet<>(measurer.getGraphPeriphery()).stream().toList());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void test_graph_profile() {
+        ForNext.build(System.out::println)
+                .compose(Map.build(r -> r + "\n--------\n"))
+                .compose(GraphProfile.of())
+                .compose(MtxToCsrGraph.of())
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+    }
+
+    @Test
+    public void test_graph_profile_matches_jgrapht() {
+        int checked = 0;
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0) continue;
+            final CsrGraph csr = MtxToCsrGraph.build(mtx.mapped(), false);
+            final var graph = Utils.toJGraphT(csr);
+            // JGraphT counts a loop twice in the degree and includes it in the neighbor set.
+            if (Utils.containsLoop(graph)) continue;
+            final var profile = GraphProfile.compute(csr, EnumSet.allOf(GraphProfile.Analysis.class));
+
+            final var clustering = new ClusteringCoefficient<>(graph);
+            final var coreness = new Coreness<>(graph);
+            for (int v = 0; v < csr.vertexCount(); v++) {
+                assertThat(profile.degrees()[v]).isEqualTo(graph.degreeOf(v));
+                assertThat(profile.clusteringCoefficients()[v]).as(mtx.pth() + " / " + v)
+                        .isCloseTo(clustering.getVertexScore(v), within(1e-12));
+                assertThat(profile.coreness()[v]).as(mtx.pth() + " / " + v).isEqualTo(coreness.getVertexScore(v));
+            }
+            assertThat(profile.degeneracy()).isEqualTo(coreness.getDegeneracy());
+            assertThat(profile.averageClusteringCoefficient())
+                    .isCloseTo(clustering.getAverageClusteringCoefficient(), within(1e-12));
+
+            final var components = new ConnectivityInspector<>(graph).connectedSets();
+            assertThat(profile.componentCount()).isEqualTo(components.size());
+            for (var component : components) {
+                final int label = profile.components()[component.iterator().next()];
+                assertThat(component).allMatch(v -> profile.components()[v] == label);
+            }
+            checked++;
+        }
+        System.out.println(checked + " graphs checked");
+        assertThat(checked).isPositive();
+    }
 }
@@ -0,0 +1,95 @@
+package graphma.compute.operator;
+
+import data.suitesparse.SSDB;
+import formats.Mtx;
+import graphma.compute.operator.metrics.GraphProfile;
+import graphma.compute.operator.parallel.Parallel;
+import graphma.compute.operator.transform.MtxToCsrGraph;
+import magma.data.sequence.operator.DataSource;
+import magma.data.sequence.operator.lazy.Filter;
+import magma.data.sequence.operator.strict.ForNext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks ordered and unordered fan-out of the Parallel stage on a bounded executor and its error propagation.
+ */
+public class ParallelTest {
+
+    @Test
+    public void test_parallel_graph_profile() {
+        ForNext.build(System.out::println)
+                .compose(Parallel.map((Mtx.MTXFile mtx) -> mtx.pth().getFileName() + ": " + GraphProfile.compute(
+                        MtxToCsrGraph.build(mtx.mapped(), false), EnumSet.allOf(GraphProfile.Analysis.class))))
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() > 0))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+    }
+
+    @Test
+    public void test_ordered() {
+        final List<Integer> results = new ArrayList<>();
+        ForNext.build((Integer r) -> results.add(r))
+                .compose(Parallel.map(ParallelTest::slowSquare, 4, true))
+                .apply(DataSource.of(IntStream.range(0, 200).boxed().toList()))
+                .evaluate();
+        assertThat(results).isEqualTo(IntStream.range(0, 200).map(i -> i * i).boxed().toList());
+    }
+
+    @Test
+    public void test_unordered_bounded() {
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            final var running = new AtomicInteger();
+            final var maximum = new AtomicInteger();
+            final List<Integer> results = new ArrayList<>();
+            ForNext.build((Integer r) -> results.add(r))
+                    .compose(Parallel.map((Integer i) -> {
+                        maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            return slowSquare(i);
+                        } finally {
+                            running.decrementAndGet();
+                        }
+                    }, executor, 3, false))
+                    .apply(DataSource.of(IntStream.range(0, 200).boxed().toList()))
+                    .evaluate();
+            assertThat(results).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 200).map(i -> i * i).boxed().toList());
+            assertThat(maximum.get()).isLessThanOrEqualTo(3);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_exception() {
+        assertThatThrownBy(() -> ForNext.build(System.out::println)
+                .compose(Parallel.map((Integer i) -> {
+                    if (i == 17) throw new IllegalStateException("failed: " + i);
+                    return i;
+                }, 4, true))
+                .apply(DataSource.of(IntStream.range(0, 100).boxed().toList()))
+                .evaluate())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("failed: 17");
+    }
+
+    private static int slowSquare(final int i) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return i * i;
+    }
+}
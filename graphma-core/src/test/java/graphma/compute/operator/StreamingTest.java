@@ -0,0 +1,141 @@
+package graphma.compute.operator;
+
+import graphma.compute.operator.streaming.Streaming;
+import magma.data.sequence.operator.DataSource;
+import magma.data.sequence.operator.strict.ForNext;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that edge streams are batched by size and time, apply backpressure and feed a live graph.
+ */
+public class StreamingTest {
+
+    private record Edge(long source, long target) {}
+
+    @Test
+    public void test_stream_into_graph() throws InterruptedException {
+        final var stream = new Streaming.EdgeStream<Edge>(1 << 12, 1000, Duration.ofMillis(10));
+        final Graph<Long, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
+        final int producers = 4;
+        final int edges = 100_000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final long offset = (long) p * edges;
+            final var thread = new Thread(() -> {
+                try {
+                    for (long i = offset; i < offset + edges; i++) stream.put(new Edge(i, i + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        final var closer = new Thread(() -> {
+            try {
+                for (Thread thread : threads) thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stream.close();
+        });
+        closer.start();
+
+        final var batches = new AtomicLong();
+        final var maximum = new AtomicLong();
+        final long start = System.nanoTime();
+        ForNext.build((List<Edge> batch) -> {
+                    batches.incrementAndGet();
+                    maximum.accumulateAndGet(batch.size(), Math::max);
+                })
+                .compose(Streaming.toGraph(graph, Edge::source, Edge::target))
+                .apply(DataSource.of(stream))
+                .evaluate();
+        final long elapsed = System.nanoTime() - start;
+        closer.join();
+
+        System.out.printf("%,d edges in %,d batches, %.0f edges/s%n",
+                graph.edgeSet().size(), batches.get(), graph.edgeSet().size() * 1e9 / elapsed);
+        assertThat(graph.edgeSet()).hasSize(producers * edges);
+        assertThat(maximum.get()).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    public void test_batch_by_time() throws InterruptedException {
+        final var stream = new Streaming.EdgeStream<Edge>(16, 1000, Duration.ofMillis(5));
+        final List<Integer> sizes = new ArrayList<>();
+        final var producer = new Thread(() -> {
+            try {
+                for (long i = 0; i < 5; i++) {
+                    stream.put(new Edge(i, i + 1));
+                    Thread.sleep(50);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stream.close();
+        });
+        producer.start();
+        ForNext.build((List<Edge> batch) -> sizes.add(batch.size()))
+                .apply(DataSource.of(stream))
+                .evaluate();
+        producer.join();
+        System.out.println(sizes);
+        // Every edge waits at most 5 ms for more, so each one is a batch of its own.
+        assertThat(sizes).containsExactly(1, 1, 1, 1, 1);
+    }
+
+    @Test
+    public void test_backpressure() throws InterruptedException {
+        final var stream = new Streaming.EdgeStream<Edge>(8, 4, Duration.ZERO);
+        final var put = new AtomicLong();
+        final var producer = new Thread(() -> {
+            try {
+                for (long i = 0; i < 100; i++) {
+                    stream.put(new Edge(i, i + 1));
+                    put.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stream.close();
+        });
+        producer.start();
+        Thread.sleep(100);
+        // The producer waits for the pipeline, which has not started yet.
+        assertThat(put.get()).isEqualTo(8);
+
+        final var consumed = new AtomicLong();
+        ForNext.build((List<Edge> batch) -> consumed.addAndGet(batch.size()))
+                .apply(DataSource.of(stream))
+                .evaluate();
+        producer.join();
+        assertThat(consumed.get()).isEqualTo(100);
+    }
+
+    @Test
+    public void test_closed() {
+        final var stream = new Streaming.EdgeStream<Edge>(8, 4, Duration.ZERO);
+        stream.close();
+        ForNext.build((List<Edge> batch) -> {
+                    throw new IllegalStateException("no batch expected");
+                })
+                .apply(DataSource.of(stream))
+                .evaluate();
+        assertThatThrownBy(() -> stream.put(new Edge(0, 1)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(stream::traverse)
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -3,15 +3,32 @@ package graphma.compute.operator;
 import data.suitesparse.SSDB;
 import formats.Mtx;
 import graphma.compute.operator.transform.GraphToSimpleGraph;
+import graphma.compute.operator.transform.MtxToCsrGraph;
+import graphma.compute.operator.transform.MtxToOffHeapCsrGraph;
 import graphma.compute.operator.transform.MtxToUndirectedGraph;
+import magma.control.traversal.Traversable;
 import magma.data.sequence.operator.DataSource;
 import magma.data.sequence.operator.lazy.Append;
 import magma.data.sequence.operator.lazy.Filter;
 import magma.data.sequence.operator.lazy.Map;
 import magma.data.sequence.operator.strict.ForNext;
+import graphma.graph.CsrGraph;
+import graphma.graph.OffHeapCsrGraph;
 import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
 import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultUndirectedGraph;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * These are not really tests. More demos with printouts to check if stuff works.
@@ -42,4 +59,96 @@ public class TransformTest {
                 .apply(DataSource.of(SSDB.SMALL))
                 .evaluate();
     }
+
+    @Test
+    public void test_mtx_to_csr_graph() {
+        ForNext.build(System.out::println)
+                .compose(Map.build(r -> r.toString() + "\n" + "--------\n"))
+                .compose(MtxToCsrGraph.of())
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+    }
+
+    @Test
+    public void test_csr_graph_matches_jgrapht() {
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0) continue;
+            final var graph = new DefaultUndirectedGraph<Long, DefaultEdge>(DefaultEdge.class);
+            mtx.mapped().forEach(edge -> {
+                graph.addVertex(edge.source());
+                graph.addVertex(edge.target());
+                graph.addEdge(edge.source(), edge.target());
+            });
+            final CsrGraph csr = MtxToCsrGraph.build(mtx.mapped(), false);
+            for (Long vertex : graph.vertexSet()) {
+                final Set<Long> neighbors = new HashSet<>();
+                final int v = (int) (vertex - 1);
+                for (long i = csr.offset(v); i < csr.offset(v + 1); i++) {
+                    neighbors.add(csr.neighbor(i) + 1L);
+                }
+                assertThat(neighbors).as(mtx.pth() + " / " + vertex).isEqualTo(Graphs.neighborSetOf(graph, vertex));
+            }
+            assertThat(csr.entryCount()).isEqualTo(2L * graph.edgeSet().size() - loops(graph));
+        }
+    }
+
+    @Test
+    public void test_csr_graph_rejects_index_out_of_range() {
+        for (long index : new long[] { 0, Integer.MAX_VALUE - 7, Integer.MAX_VALUE, Integer.MAX_VALUE + 1L }) {
+            final Mtx.Long2LongEdge edge = new Mtx.Long2LongEdge() {
+                @Override public long source() { return 1; }
+                @Override public long target() { return index; }
+            };
+            assertThatThrownBy(() -> MtxToCsrGraph.build(Traversable.of(List.of(edge)), false))
+                    .as("index %d", index)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    public void test_mtx_to_off_heap_csr_graph() {
+        final List<OffHeapCsrGraph> graphs = new ArrayList<>();
+        ForNext.build((CsrGraph g) -> {
+                    graphs.add((OffHeapCsrGraph) g);
+                    System.out.println(g + "\n--------\n");
+                })
+                .compose(MtxToOffHeapCsrGraph.of())
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+        assertThat(graphs).isNotEmpty().allMatch(OffHeapCsrGraph::isClosed);
+        assertThatThrownBy(() -> graphs.get(0).offset(0)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void test_off_heap_csr_graph_matches_heap(@TempDir final Path dir) {
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0) continue;
+            for (boolean directed : new boolean[]{false, true}) {
+                final CsrGraph.Heap heap = MtxToCsrGraph.build(mtx.mapped(), directed);
+                try (var direct = MtxToOffHeapCsrGraph.build(mtx.mapped(), directed);
+                     var mapped = MtxToOffHeapCsrGraph.build(mtx.mapped(), directed, dir.resolve("graph.csr"))) {
+                    assertSameGraph(mtx.pth() + "", heap, direct);
+                    assertSameGraph(mtx.pth() + "", heap, mapped);
+                }
+            }
+        }
+    }
+
+    private static void assertSameGraph(final String name, final CsrGraph expected, final CsrGraph actual) {
+        assertThat(actual.vertexCount()).as(name).isEqualTo(expected.vertexCount());
+        assertThat(actual.entryCount()).as(name).isEqualTo(expected.entryCount());
+        assertThat(actual.directed()).as(name).isEqualTo(expected.directed());
+        for (int v = 0; v <= expected.vertexCount(); v++) {
+            assertThat(actual.offset(v)).as(name).isEqualTo(expected.offset(v));
+        }
+        for (long i = 0; i < expected.entryCount(); i++) {
+            assertThat(actual.neighbor(i)).as(name).isEqualTo(expected.neighbor(i));
+        }
+    }
+
+    private static long loops(Graph<Long, DefaultEdge> graph) {
+        return graph.edgeSet().stream().filter(e -> graph.getEdgeSource(e).equals(graph.getEdgeTarget(e))).count();
+    }
 }
@@ -1,6 +1,10 @@
 package graphma.compute.operator;
 
+import graphma.graph.CsrGraph;
 import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultUndirectedGraph;
 
 enum Utils {
     ;
@@ -23,4 +27,21 @@ enum Utils {
         }
         return false;
     }
+
+    /**
+     * Copies a CSR graph into a JGraphT graph with the same vertex indices.
+     *
+     * @param csr The CSR graph to copy.
+     * @return a directed or undirected JGraphT graph, depending on the CSR graph.
+     */
+    static Graph<Integer, DefaultEdge> toJGraphT(final CsrGraph csr) {
+        final Graph<Integer, DefaultEdge> graph = csr.directed()
+                ? new DefaultDirectedGraph<>(DefaultEdge.class)
+                : new DefaultUndirectedGraph<>(DefaultEdge.class);
+        for (int v = 0; v < csr.vertexCount(); v++) graph.addVertex(v);
+        for (int v = 0; v < csr.vertexCount(); v++) {
+            for (long i = csr.offset(v); i < csr.offset(v + 1); i++) graph.addEdge(v, csr.neighbor(i));
+        }
+        return graph;
+    }
 }
@@ -0,0 +1,124 @@
+package graphma.graph;
+
+import graphma.compute.operator.metrics.GraphProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that snapshots of the concurrent graph are consistent while writers keep adding edges.
+ */
+public class ConcurrentGraphTest {
+
+    @Test
+    public void test_add_and_snapshot() {
+        final var graph = new ConcurrentGraph(true);
+        graph.addEdge(0, 2);
+        graph.addEdge(0, 1);
+        graph.addEdge(0, 2);
+        graph.addEdge(3, 3);
+        final var unsorted = graph.snapshot(false);
+        assertThat(unsorted.vertexCount()).isEqualTo(4);
+        assertThat(unsorted.entryCount()).isEqualTo(4);
+        assertThat(unsorted.neighbor(0)).isEqualTo(2);
+        assertThat(unsorted.neighbor(1)).isEqualTo(1);
+
+        final var sorted = graph.snapshot(true);
+        assertThat(sorted.entryCount()).isEqualTo(3);
+        assertThat(sorted.degree(0)).isEqualTo(2);
+        assertThat(sorted.neighbor(sorted.offset(0))).isEqualTo(1);
+        assertThat(sorted.degree(3)).isEqualTo(1);
+        System.out.println(graph + " " + sorted);
+
+        final var undirected = new ConcurrentGraph(false);
+        undirected.addEdge(5000, 1);
+        undirected.addEdge(1, 1);
+        final var snapshot = undirected.snapshot(true);
+        assertThat(snapshot.vertexCount()).isEqualTo(5001);
+        assertThat(snapshot.entryCount()).isEqualTo(3);
+        assertThat(snapshot.degree(5000)).isEqualTo(1);
+
+        assertThatThrownBy(() -> graph.addEdge(-1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> graph.addEdge(Integer.MAX_VALUE, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> graph.addEdge(0, Integer.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(graph.vertexCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void test_snapshot_while_ingesting() throws InterruptedException {
+        final var graph = new ConcurrentGraph(false);
+        final int writers = 4;
+        final int edges = 200_000;
+        final int vertices = 50_000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            final int offset = t;
+            final var thread = new Thread(() -> {
+                for (int i = offset; i < writers * edges; i += writers) {
+                    graph.addEdge(i % vertices, (int) ((i * 31L + 7) % vertices));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // Analyse snapshots while the writers are adding edges.
+        final var done = new AtomicBoolean();
+        final var waiter = new Thread(() -> {
+            try {
+                for (Thread thread : threads) thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.set(true);
+        });
+        waiter.start();
+        long previous = 0;
+        int snapshots = 0;
+        while (!done.get()) {
+            final var snapshot = graph.snapshot(false);
+            assertThat(snapshot.entryCount()).isGreaterThanOrEqualTo(previous);
+            previous = snapshot.entryCount();
+            assertSymmetric(snapshot);
+            snapshots++;
+        }
+        waiter.join();
+
+        final var last = graph.snapshot(false);
+        assertSymmetric(last);
+        long loops = 0;
+        for (int i = 0; i < writers * edges; i++) {
+            if (i % vertices == (int) ((i * 31L + 7) % vertices)) loops++;
+        }
+        assertThat(last.entryCount()).isEqualTo(2L * writers * edges - loops);
+
+        final var profile = GraphProfile.compute(graph.snapshot(true),
+                EnumSet.of(GraphProfile.Analysis.DEGREE, GraphProfile.Analysis.CONNECTED_COMPONENTS));
+        System.out.println(snapshots + " snapshots while ingesting, " + profile);
+    }
+
+    // Every undirected edge is in the adjacency of both of its end points, or in none.
+    private static void assertSymmetric(final CsrGraph graph) {
+        final long[] forward = new long[(int) graph.entryCount()];
+        final long[] backward = new long[(int) graph.entryCount()];
+        int f = 0;
+        int b = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (long i = graph.offset(v); i < graph.offset(v + 1); i++) {
+                final int w = graph.neighbor(i);
+                if (v < w) forward[f++] = ((long) v << 32) | w;
+                else if (w < v) backward[b++] = ((long) w << 32) | v;
+            }
+        }
+        Arrays.sort(forward, 0, f);
+        Arrays.sort(backward, 0, b);
+        assertThat(Arrays.equals(forward, 0, f, backward, 0, b)).isTrue();
+    }
+}
@@ -0,0 +1,44 @@
+package graphma.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the off-heap CSR graph reads back its entries across page boundaries and frees its memory once.
+ */
+public class OffHeapCsrGraphTest {
+
+    @Test
+    public void test_entries_across_pages() {
+        // 64 byte pages: 8 offsets or 16 neighbors per page.
+        final int n = 100;
+        try (var graph = OffHeapCsrGraph.allocate(n, 2L * n, false, 6)) {
+            for (int v = 0; v < n; v++) {
+                graph.offset(v, 2L * v);
+                graph.neighbor(2L * v, (v + n - 1) % n);
+                graph.neighbor(2L * v + 1, (v + 1) % n);
+            }
+            graph.offset(n, 2L * n);
+            assertThat(graph.entryCount()).isEqualTo(2L * n);
+            for (int v = 0; v < n; v++) {
+                assertThat(graph.degree(v)).isEqualTo(2);
+                assertThat(graph.neighbor(graph.offset(v))).isEqualTo((v + n - 1) % n);
+                assertThat(graph.neighbor(graph.offset(v) + 1)).isEqualTo((v + 1) % n);
+            }
+            System.out.println(graph);
+        }
+    }
+
+    @Test
+    public void test_close() {
+        final var graph = OffHeapCsrGraph.allocate(10, 10, true);
+        assertThat(graph.isClosed()).isFalse();
+        graph.close();
+        graph.close();
+        assertThat(graph.isClosed()).isTrue();
+        assertThat(graph.toString()).isEqualTo("OffHeapCsrGraph[closed]");
+        assertThatThrownBy(() -> graph.neighbor(0)).isInstanceOf(NullPointerException.class);
+    }
+}
@@ -0,0 +1,290 @@
+package data.suitesparse;
+
+import formats.Compression;
+import formats.Mtx;
+import magma.control.exception.Exceptions;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Builds the catalog of the MTX files of a collection directory. The headers are parsed in parallel and cached in
+ * an index file, one line per file with its modification time, size and header values; a file whose modification
+ * time and size match its index line is not opened again. Compressed files ({@code .mtx.gz}) are part of the
+ * catalog, their headers are read from the decompressed content.
+ * <p>
+ * This class must not use the static members of {@link SSDB}: when a catalog is built while {@link SSDB} is
+ * initialized, the parallel workers would block on the class initialization that waits for them.
+ * </p>
+ */
+enum Catalog {
+    ;
+
+    private static final String INDEX_HEADER = "# ssdb-index 1";
+
+    // Bytes read at once while parsing a header.
+    private static final int CHUNK = 1 << 13;
+
+    /**
+     * An index line of the catalog.
+     *
+     * @param path the path of the file relative to the collection directory
+     * @param modified the modification time of the file in milliseconds
+     * @param size the size of the file in bytes
+     * @param header the parsed header of the file
+     */
+    record Entry(String path, long modified, long size, Header header) {}
+
+    /**
+     * The values of an MTX header.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param lines the number of entry lines
+     * @param numCol the number of columns of the first entry line
+     * @param field the field of the banner, e.g. {@code pattern} or {@code real}; empty without banner
+     * @param symmetry the symmetry of the banner, e.g. {@code general} or {@code symmetric}; empty without banner
+     */
+    record Header(int rows, int cols, int lines, int numCol, String field, String symmetry) {}
+
+    /**
+     * An MTX file of the catalog together with its header values.
+     *
+     * @param file the MTX file
+     * @param bytes the size of the file in bytes
+     * @param header the header of the file
+     */
+    record Item(Mtx.MTXFile file, long bytes, Header header) {}
+
+    /**
+     * Loads the MTX files below the given directory, reusing and updating the given index file.
+     *
+     * @param root the collection directory
+     * @param index the index file, or {@code null} to parse all headers
+     * @return the MTX files in the order of the directory walk
+     */
+    static List<Mtx.MTXFile> load(final Path root, final Path index) {
+        return items(root, index).stream().map(Item::file).toList();
+    }
+
+    /**
+     * Loads the MTX files below the given directory together with their header values, reusing and updating the
+     * given index file. A directory that does not exist holds no files. The size of a compressed file is the
+     * size on disk.
+     *
+     * @param root the collection directory
+     * @param index the index file, or {@code null} to parse all headers
+     * @return the MTX files in the order of the directory walk
+     */
+    static List<Item> items(final Path root, final Path index) {
+        if (Files.notExists(root)) return List.of();
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(root)) {
+            paths = stream.filter(Files::isRegularFile)
+                    .filter(p -> p.toString().endsWith(".mtx") || p.toString().endsWith(".mtx.gz"))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading MTX files from directory " + root, e);
+        }
+
+        final Map<String, Entry> cached = index != null ? read(index) : Map.of();
+        final List<Entry> entries = paths.parallelStream()
+                .map(path -> entry(root, path, cached))
+                .toList();
+
+        if (index != null && (entries.size() != cached.size() || entries.stream().anyMatch(e -> cached.get(e.path()) != e)))
+            write(index, entries);
+
+        final List<Item> items = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            final Entry entry = entries.get(i);
+            final Header header = entry.header();
+            items.add(new Item(new Mtx.MTXFile(paths.get(i), header.rows(), header.cols(), header.lines(), header.numCol()),
+                    entry.size(), header));
+        }
+        return items;
+    }
+
+    private static Entry entry(final Path root, final Path path, final Map<String, Entry> cached) {
+        final String name = root.relativize(path).toString();
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final long modified = attributes.lastModifiedTime().toMillis();
+        final long size = attributes.size();
+        final Entry entry = cached.get(name);
+        if (entry != null && entry.modified() == modified && entry.size() == size) return entry;
+        return new Entry(name, modified, size, parseHeader(path));
+    }
+
+    /**
+     * Parses the banner, the size line and the first entry line of an MTX file.
+     *
+     * @param path the path to the MTX file
+     * @return the header values
+     */
+    static Header parseHeader(final Path path) {
+        try (InputStream in = Compression.newInputStream(path)) {
+            final var lines = new LineReader(in);
+            String field = "";
+            String symmetry = "";
+            byte[] line = lines.next();
+            if (line != null && startsWith(line, "%%MatrixMarket")) {
+                final String[] banner = tokens(line);
+                if (banner.length > 3) field = banner[3].toLowerCase();
+                if (banner.length > 4) symmetry = banner[4].toLowerCase();
+            }
+            while (line != null && line.length > 0 && line[0] == '%') line = lines.next();
+            if (line == null) throw Exceptions.illegalState("missing size line in %s", path);
+            final String[] size = tokens(line);
+            final byte[] first = lines.next();
+            return new Header(
+                    size.length > 0 ? Integer.parseInt(size[0]) : 0,
+                    size.length > 1 ? Integer.parseInt(size[1]) : 0,
+                    size.length > 2 ? Integer.parseInt(size[2]) : 0,
+                    first != null ? tokens(first).length : 0,
+                    field,
+                    symmetry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean startsWith(final byte[] line, final String prefix) {
+        if (line.length < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line[i] != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static String[] tokens(final byte[] line) {
+        final List<String> tokens = new ArrayList<>(5);
+        int i = 0;
+        while (i < line.length) {
+            while (i < line.length && isBlank(line[i])) i++;
+            final int start = i;
+            while (i < line.length && !isBlank(line[i])) i++;
+            if (i > start) tokens.add(new String(line, start, i - start, StandardCharsets.US_ASCII));
+        }
+        return tokens.toArray(String[]::new);
+    }
+
+    private static boolean isBlank(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Reads lines of bytes in chunks, so a header is parsed from the first block of the file in most cases.
+     */
+    private static final class LineReader {
+        private final InputStream in;
+        private byte[] buffer = new byte[CHUNK];
+        private int position;
+        private int limit;
+
+        private LineReader(final InputStream in) { this.in = in; }
+
+        /**
+         * Returns the next line without its line break.
+         * @return the line, or {@code null} at the end of the file
+         */
+        byte[] next() throws IOException {
+            int i = position;
+            while (true) {
+                while (i < limit && buffer[i] != '\n') i++;
+                if (i < limit) {
+                    final byte[] line = Arrays.copyOfRange(buffer, position, i);
+                    position = i + 1;
+                    return line;
+                }
+                final int shift = position; // fill moves the unread bytes to the front
+                if (!fill()) {
+                    if (position == limit) return null;
+                    final byte[] line = Arrays.copyOfRange(buffer, position, limit);
+                    position = limit;
+                    return line;
+                }
+                i -= shift;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            if (limit == buffer.length) buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            final int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) return false;
+            limit += read;
+            return true;
+        }
+    }
+
+    // ----------------------------------------------------------
+
+    private static Map<String, Entry> read(final Path index) {
+        if (Files.notExists(index)) return Map.of();
+        try {
+            final List<String> lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(INDEX_HEADER)) return Map.of();
+            final Map<String, Entry> entries = new HashMap<>();
+            for (String line : lines.subList(1, lines.size())) {
+                final String[] values = line.split("\t", -1);
+                if (values.length != 9) return Map.of();
+                entries.put(values[0], new Entry(values[0], Long.parseLong(values[1]), Long.parseLong(values[2]),
+                        new Header(Integer.parseInt(values[3]), Integer.parseInt(values[4]), Integer.parseInt(values[5]),
+                                Integer.parseInt(values[6]), values[7], values[8])));
+            }
+            return entries;
+        } catch (IOException | NumberFormatException e) {
+            // The index is a cache only, a damaged index is rebuilt from the files.
+            return Map.of();
+        }
+    }
+
+    private static void write(final Path index, final List<Entry> entries) {
+        try {
+            Files.createDirectories(Objects.requireNonNull(index.toAbsolutePath().getParent()));
+            final Path temp = Files.createTempFile(index.toAbsolutePath().getParent(), index.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(INDEX_HEADER);
+                writer.newLine();
+                for (Entry entry : entries) {
+                    final Header header = entry.header();
+                    writer.write(String.join("\t", entry.path(), Long.toString(entry.modified()), Long.toString(entry.size()),
+                            Integer.toString(header.rows()), Integer.toString(header.cols()), Integer.toString(header.lines()),
+                            Integer.toString(header.numCol()), header.field(), header.symmetry()));
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(temp, index, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // The index is a cache only, the catalog is complete without it.
+        }
+    }
+}
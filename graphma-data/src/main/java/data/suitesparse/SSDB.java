@@ -2,21 +2,15 @@ package data.suitesparse;
 
 import data.Config;
 import formats.Mtx;
-import magma.control.function.Fn;
-import magma.control.function.Fn5;
 import magma.control.traversal.Traversable;
 import magma.control.traversal.Traverser;
 import magma.data.sequence.operator.DataSource;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static java.lang.Integer.parseInt;
+import java.util.Set;
 
 /**
  * Enumeration that provides access to different collections of graphs in the SuiteSparse Matrix Collection
@@ -25,13 +19,21 @@ import static java.lang.Integer.parseInt;
  *
  * <p>Each enumeration instance corresponds to a specific directory within the SuiteSparse repository,
  * containing multiple MTX files which represent graph data. The files are loaded and parsed to create
- * {@link Mtx.MTXFile} instances which can be traversed using the provided methods.</p>
+ * {@link Mtx.MTXFile} instances which can be traversed using the provided methods. A collection is loaded
+ * when it is used for the first time, a collection whose directory is missing is empty.</p>
+ *
+ * <p>A {@link Query} selects the files of a collection by their header values, which are taken from the header
+ * index of the collection, so the files that do not match are never opened.</p>
  *
  * <p>Usage example:</p>
  * <pre>
  * {@code
  * Traverser<Mtx.MTXFile> traverser = SSDB.SMALL.traverse();
  * traverser.forEach(System.out::println);
+ *
+ * ForNext.build(System.out::println)
+ *                 .apply(DataSource.of(SSDB.MEDIUM.query().lines(20, 40).symmetries("symmetric")))
+ *                 .evaluate();
  * }
  * </pre>
  */
@@ -39,7 +41,17 @@ public enum SSDB implements Traversable<Mtx.MTXFile> {
     /**
      * Represents a small collection of graphs.
      */
-    SMALL("small_graphs");
+    SMALL("small_graphs"),
+
+    /**
+     * Represents a medium collection of graphs.
+     */
+    MEDIUM("medium_graphs"),
+
+    /**
+     * Represents a large collection of graphs.
+     */
+    LARGE("large_graphs");
 
     /**
      * Directory containing MTX files.
@@ -47,22 +59,172 @@ public enum SSDB implements Traversable<Mtx.MTXFile> {
     final Path DIR;
 
     /**
-     * List of parsed MTX files from the directory.
+     * Index file caching the headers of the MTX files.
+     */
+    final Path INDEX;
+
+    /**
+     * List of parsed MTX files from the directory, loaded on first use.
      */
-    final List<Mtx.MTXFile> files;
+    private volatile List<Catalog.Item> catalog;
 
     /**
-     * Constructs an instance of {@link SSDB} which loads MTX files from the specified directory.
+     * Constructs an instance of {@link SSDB} for the MTX files in the specified directory.
      * @param file A sub-directory name under the SuiteSparse directory where the MTX files are stored.
      */
-    SSDB(String file) { files = files(DIR = Config.SUITE_SPARSE.resolve(file)); }
+    SSDB(String file) {
+        DIR = Config.SUITE_SPARSE.resolve(file);
+        INDEX = index(file);
+    }
+
+    /**
+     * Resolves the header index file of a collection, which is kept in the temporary directory of the data repository.
+     * @param file The sub-directory name of the collection.
+     * @return The path to the index file.
+     */
+    static Path index(String file) { return Config.TEMP.resolve("ssdb").resolve(file + ".index"); }
 
     /**
      * Provides a traverser over the loaded MTX files.
      * @return {@link Traverser} for {@link Mtx.MTXFile}.
      */
     public Traverser<Mtx.MTXFile> traverse() {
-        return DataSource.of(files).traverse();
+        return DataSource.of(files()).traverse();
+    }
+
+    /**
+     * Returns the MTX files of this collection, loading the collection if it is used for the first time.
+     * @return the MTX files in the order of the directory walk
+     */
+    public List<Mtx.MTXFile> files() {
+        return catalog().stream().map(Catalog.Item::file).toList();
+    }
+
+    /**
+     * Creates a query that selects all files of this collection.
+     * @return a {@link Query} without constraints
+     */
+    public Query query() {
+        return new Query(this, 0, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, 0, Long.MAX_VALUE, Set.of(), Set.of());
+    }
+
+    private List<Catalog.Item> catalog() {
+        var catalog = this.catalog;
+        if (catalog == null) {
+            synchronized (this) {
+                if ((catalog = this.catalog) == null) this.catalog = catalog = Catalog.items(DIR, INDEX);
+            }
+        }
+        return catalog;
+    }
+
+    // ----------------------------------------------------------
+    //  SSDB.QUERY
+    // ----------------------------------------------------------
+
+    /**
+     * Selects the files of a collection by the values of their headers. The constraints are evaluated against the
+     * header index of the collection before any file is yielded, hence a file that does not match is not opened.
+     * The ranges include their lower and exclude their upper bound; an empty set of fields or symmetries accepts
+     * any value.
+     *
+     * @param collection the collection to select from
+     * @param minLines the least number of entry lines
+     * @param maxLines the bound of the number of entry lines
+     * @param minRows the least number of rows
+     * @param maxRows the bound of the number of rows
+     * @param minBytes the least file size in bytes
+     * @param maxBytes the bound of the file size in bytes
+     * @param fields the accepted fields of the MatrixMarket banner, e.g. {@code pattern} or {@code real}
+     * @param symmetries the accepted symmetries of the MatrixMarket banner, e.g. {@code general} or {@code symmetric}
+     */
+    public record Query(SSDB collection, int minLines, int maxLines, int minRows, int maxRows,
+                        long minBytes, long maxBytes, Set<String> fields, Set<String> symmetries)
+            implements Traversable<Mtx.MTXFile> {
+
+        /**
+         * Restricts the number of entry lines, i.e. the number of edges.
+         * @param min the least number of entry lines
+         * @param max the bound of the number of entry lines (exclusive)
+         * @return the restricted query
+         */
+        public Query lines(final int min, final int max) {
+            return new Query(collection, min, max, minRows, maxRows, minBytes, maxBytes, fields, symmetries);
+        }
+
+        /**
+         * Restricts the number of rows, i.e. the number of vertices.
+         * @param min the least number of rows
+         * @param max the bound of the number of rows (exclusive)
+         * @return the restricted query
+         */
+        public Query rows(final int min, final int max) {
+            return new Query(collection, minLines, maxLines, min, max, minBytes, maxBytes, fields, symmetries);
+        }
+
+        /**
+         * Restricts the size of the files.
+         * @param min the least file size in bytes
+         * @param max the bound of the file size in bytes (exclusive)
+         * @return the restricted query
+         */
+        public Query bytes(final long min, final long max) {
+            return new Query(collection, minLines, maxLines, minRows, maxRows, min, max, fields, symmetries);
+        }
+
+        /**
+         * Restricts the fields of the MatrixMarket banner.
+         * @param fields the accepted fields, e.g. {@code pattern}, {@code integer} or {@code real}
+         * @return the restricted query
+         */
+        public Query fields(final String... fields) {
+            return new Query(collection, minLines, maxLines, minRows, maxRows, minBytes, maxBytes, lowerCase(fields), symmetries);
+        }
+
+        /**
+         * Restricts the symmetries of the MatrixMarket banner.
+         * @param symmetries the accepted symmetries, e.g. {@code general}, {@code symmetric} or {@code skew-symmetric}
+         * @return the restricted query
+         */
+        public Query symmetries(final String... symmetries) {
+            return new Query(collection, minLines, maxLines, minRows, maxRows, minBytes, maxBytes, fields, lowerCase(symmetries));
+        }
+
+        /**
+         * Returns the selected files.
+         * @return the MTX files matching all constraints in the order of the collection
+         */
+        public List<Mtx.MTXFile> files() {
+            final List<Mtx.MTXFile> files = new ArrayList<>();
+            for (Catalog.Item item : collection.catalog()) {
+                if (test(item)) files.add(item.file());
+            }
+            return files;
+        }
+
+        /**
+         * Provides a traverser over the selected files.
+         * @return {@link Traverser} for {@link Mtx.MTXFile}.
+         */
+        @Override
+        public Traverser<Mtx.MTXFile> traverse() {
+            return DataSource.of(files()).traverse();
+        }
+
+        private boolean test(final Catalog.Item item) {
+            final var header = item.header();
+            return header.lines() >= minLines && header.lines() < maxLines
+                    && header.rows() >= minRows && header.rows() < maxRows
+                    && item.bytes() >= minBytes && item.bytes() < maxBytes
+                    && (fields.isEmpty() || fields.contains(header.field()))
+                    && (symmetries.isEmpty() || symmetries.contains(header.symmetry()));
+        }
+
+        private static Set<String> lowerCase(final String... values) {
+            final Set<String> set = new HashSet<>();
+            for (String value : values) set.add(value.toLowerCase());
+            return Set.copyOf(set);
+        }
     }
 
     /**
@@ -71,20 +233,8 @@ public enum SSDB implements Traversable<Mtx.MTXFile> {
      * @return A new {@link Mtx.MTXFile} instance representing the parsed file.
      */
     static Mtx.MTXFile parseHeader(Path path) {
-        var reader = Fn.checked(() -> Files.newBufferedReader(path)).apply();
-        Fn5<Path, Integer, Integer, Integer, Integer, Mtx.MTXFile> factory = Mtx.MTXFile::new;
-        String line;
-        do {
-            line = Fn.checked(reader::readLine).apply();
-        } while (line != null && line.startsWith("%"));
-        var tokenizer = line.split("\\s+");
-        var mtx = factory.apply(path)
-                .apply(tokenizer.length > 0 ? parseInt(tokenizer[0]) : 0)
-                .apply(tokenizer.length > 1 ? parseInt(tokenizer[1]) : 0)
-                .apply(tokenizer.length > 2 ? parseInt(tokenizer[2]) : 0)
-                .apply(Fn.checked(reader::readLine).apply().split("\\s+").length);
-        Fn.checked(() -> { reader.close(); return true; }).apply();
-        return mtx;
+        final var header = Catalog.parseHeader(path);
+        return new Mtx.MTXFile(path, header.rows(), header.cols(), header.lines(), header.numCol());
     }
 
     /**
@@ -93,14 +243,17 @@ public enum SSDB implements Traversable<Mtx.MTXFile> {
      * @return A list of {@link Mtx.MTXFile} instances representing each file found.
      */
     static List<Mtx.MTXFile> files(Path root) {
-        try (Stream<Path> stream = Files.walk(root)) {
-            return stream.filter(Files::isRegularFile)
-                    .filter(p -> p.toString().endsWith(".mtx"))
-                    .map(SSDB::parseHeader)
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new RuntimeException("Error loading MTX files from directory", e);
-        }
+        return Catalog.load(root, null);
     }
-}
 
+    /**
+     * Loads all MTX files from the specified directory, parsing the headers in parallel. The headers are cached in
+     * the given index file, so unchanged files are not opened again on the next load.
+     * @param root The root directory to search for MTX files.
+     * @param index The index file caching the headers.
+     * @return A list of {@link Mtx.MTXFile} instances representing each file found.
+     */
+    static List<Mtx.MTXFile> files(Path root, Path index) {
+        return Catalog.load(root, index);
+    }
+}
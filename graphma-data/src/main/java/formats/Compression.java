@@ -0,0 +1,61 @@
+package formats;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Detects and decompresses compressed graph files. A file is recognized as gzip compressed by its magic number,
+ * so the traversers of all formats accept {@code .mtx.gz} and the like without decompressing them to disk first.
+ * <p>
+ * The traversers read through {@link #newReadAheadStream(Path)}, which reads and decompresses on a background
+ * thread; {@link #newInputStream(Path)} decompresses on the calling thread and suits short reads such as headers.
+ * </p>
+ */
+public enum Compression {
+    ;
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    /**
+     * Checks whether a file is gzip compressed.
+     *
+     * @param path the path to the file
+     * @return true if the file starts with the gzip magic number
+     */
+    public static boolean isCompressed(final Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens a file for reading, decompressing its content on the calling thread if it is compressed.
+     *
+     * @param path the path to the file
+     * @return the stream of the (decompressed) content
+     * @throws IOException if the file cannot be opened
+     */
+    public static InputStream newInputStream(final Path path) throws IOException {
+        return isCompressed(path)
+                ? new GZIPInputStream(Files.newInputStream(path), 1 << 16)
+                : Files.newInputStream(path);
+    }
+
+    /**
+     * Opens a file for reading on a background thread, which reads and decompresses the content ahead of the
+     * consumer. Closing the stream stops the background thread.
+     *
+     * @param path the path to the file
+     * @return the stream of the (decompressed) content
+     */
+    public static InputStream newReadAheadStream(final Path path) {
+        return ReadAhead.start(path, isCompressed(path));
+    }
+}
@@ -1,30 +1,28 @@
 package formats;
 
 import magma.adt.control.traversal.Traversal;
+import magma.control.exception.Exceptions;
 import magma.control.function.Fn1;
 import magma.control.traversal.Traversable;
 import magma.control.traversal.Traverser;
 import magma.value.index.Range;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
-import static formats.Utils.*;
-import static java.lang.Math.min;
+import static java.lang.Math.max;
 
 /**
  * Dot class is designed to read and traverse .dot (Graphviz) graph description files.
  * It provides functionalities to interpret and iterate over the graph's edges.
- *
- * This is a preliminary implementation. The idea is to first prototype complete
- * pipelines in order to subsequently improve them.
+ * <p>
+ * The file is read in a single pass by a byte lexer, see {@link EdgeScanner}. Edge chains ({@code a -> b -> c}),
+ * edges between subgraphs ({@code a -> {b c}}), the {@code weight} attribute of edges and default edge attributes
+ * ({@code edge [weight=2]}) are supported. Both edge operators, {@code ->} and {@code --}, yield the edge from the
+ * left to the right operand.
+ * </p>
  */
 public enum Dot {
     ;
@@ -38,315 +36,705 @@ public enum Dot {
     public interface String2StringEdge {
         String source();
         String target();
+
+        /**
+         * Returns the {@code weight} attribute of the edge.
+         * @return the weight, 1 if the edge has no weight
+         */
+        double weight();
     }
 
     /**
      * Creates a traverser for a given .dot file based on specified range and position.
-     * The function will read edges from the file starting at the given file position.
+     * The function will read the edges of the file starting at the given edge.
      *
      * @param mtxPth the path to the .dot file.
-     * @param slice a range indicating the part of the file to read.
-     * @param position the starting position in the file for reading.
+     * @param slice the range of edges in the file to process.
+     * @param position the index of the first edge to process, if it lies behind the start of the range.
      * @return a Traverser capable of iterating over edges defined within the specified file range.
      */
     public static Traverser<String2StringEdge> traverse(Path mtxPth, final Range slice, final long position) {
         if (Files.notExists(mtxPth) || Range.isEmpty(slice))
             return Traverser.empty();
-        return new Dot.DotTraverser(slice, position, mtxPth);
+        final var scanner = new EdgeScanner(mtxPth, Math.max(Range.lo(slice), position), Range.hi(slice), new VertexDictionary());
+        return new DotTraverser<>(scanner, scanner.names);
+    }
+
+    /**
+     * Creates a traverser to iterate over the edges in a .dot file with the vertex ids replaced by numbers.
+     * The vertices are numbered from 1 in the order of their first appearance in the file, starting from the
+     * first edge of the file, regardless of the range. The edges are {@link Mtx.Long2LongDoubleEdge}s carrying
+     * their weight.
+     *
+     * @param mtxPth the path to the .dot file
+     * @param slice the range of edges in the file to process
+     * @param position the index of the first edge to process, if it lies behind the start of the range
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Mtx.Long2LongEdge> traverseIndexed(Path mtxPth, final Range slice, final long position) {
+        return traverseIndexed(mtxPth, slice, position, new VertexDictionary());
+    }
+
+    /**
+     * Creates a traverser to iterate over the edges in a .dot file with the vertex ids interned into the
+     * given dictionary. The vertex with the dictionary id {@code i} is yielded as {@code i + 1}.
+     *
+     * @param mtxPth the path to the .dot file
+     * @param slice the range of edges in the file to process
+     * @param position the index of the first edge to process, if it lies behind the start of the range
+     * @param dictionary the dictionary to intern the vertex ids into
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Mtx.Long2LongEdge> traverseIndexed(Path mtxPth, final Range slice, final long position,
+                                                               final VertexDictionary dictionary) {
+        if (Files.notExists(mtxPth) || Range.isEmpty(slice))
+            return Traverser.empty();
+        final var scanner = new EdgeScanner(mtxPth, Math.max(Range.lo(slice), position), Range.hi(slice), dictionary);
+        return new DotTraverser<>(scanner, scanner.indices);
     }
 
     /**
-     * DotFile record encapsulates a .dot file's path and structural information such as rows, columns, and number of lines.
+     * DotFile record encapsulates a .dot file's path and structural information such as rows, columns, and number of edges.
+     * The traversals are limited to the first {@code edges} edges of the file; the count is a number of edges, not of
+     * lines.
      */
-    public record DotFile(Path pth, int rows, int cols, int lines,
+    public record DotFile(Path pth, int rows, int cols, int edges,
                           int numCol) implements Traversable<String2StringEdge> {
+
+        /**
+         * Creates a .dot file record that covers all edges of the file.
+         * @param pth the path to the .dot file
+         */
+        public DotFile(Path pth) {
+            this(pth, 0, 0, Integer.MAX_VALUE, 0);
+        }
+
         public Traverser<String2StringEdge> traverse() {
-            return Dot.traverse(pth, Range.of(0, lines), 0);
+            return Dot.traverse(pth, Range.of(0, edges), 0);
         }
+
+        /**
+         * Provides the edges of the associated file with the vertices numbered from 1 in the order of their first
+         * appearance, e.g. as input for the CSR graph transformations.
+         * @return a traversable of edges between vertex numbers
+         */
+        public Traversable<Mtx.Long2LongEdge> indexed() {
+            return () -> Dot.traverseIndexed(pth, Range.of(0, edges), 0);
+        }
+
+        /**
+         * Provides the edges of the associated file with the vertex ids interned into the given dictionary,
+         * which is shared by all traversals.
+         * @param dictionary the dictionary to intern the vertex ids into
+         * @return a traversable of edges between vertex numbers
+         */
+        public Traversable<Mtx.Long2LongEdge> indexed(final VertexDictionary dictionary) {
+            return () -> Dot.traverseIndexed(pth, Range.of(0, edges), 0, dictionary);
+        }
+    }
+
+    private enum Token {
+        END, ID, OPEN_BRACE, CLOSE_BRACE, OPEN_BRACKET, CLOSE_BRACKET, SEMICOLON, COMMA, EQUALS, COLON, EDGE_OP
     }
 
     /**
-     * DotTraverser class implements the Traverser interface to navigate through the graph described in a .dot file.
-     * It uses regular expressions to parse graph edges and provides methods to iterate over them.
-     *
-     * TODO Memory mapped files for performance
-     * TODO change cursor
+     * Scans the edge statements of a .dot file in a single pass.
+     * <p>
+     * The lexer works on the bytes of the memory-mapped file, window by window, and the vertex ids are interned
+     * directly from the window into a {@link VertexDictionary}, so the edges are yielded without creating objects.
+     * A compressed file is scanned through the windows of its decompressed content, see {@link Input}. The
+     * window is moved forward whenever a token crosses its end.
+     * </p>
+     * <p>
+     * The endpoints of the current edge statement are buffered as vertex ids, one operand after the other. The
+     * vertices of the open subgraphs are buffered as well, as a subgraph may turn out to be the left operand of an
+     * edge statement once it is closed ({@code {a b} -> c}). Edge statements nested in a subgraph operand
+     * ({@code a -> {b -> c}}) are not supported.
+     * </p>
      */
-    static final class DotTraverser extends Traversal.Control.Context implements Traverser<String2StringEdge> {
-        private final DotTraverser.Cursor cursor;
-        private final BufferedReader reader;
-        private final long sx;
+    static final class EdgeScanner {
+        // Size of a single mapping window.
+        private static final long WINDOW = 1L << 30;
+
+        private static final byte[] STRICT = {'s', 't', 'r', 'i', 'c', 't'};
+        private static final byte[] GRAPH = {'g', 'r', 'a', 'p', 'h'};
+        private static final byte[] DIGRAPH = {'d', 'i', 'g', 'r', 'a', 'p', 'h'};
+        private static final byte[] SUBGRAPH = {'s', 'u', 'b', 'g', 'r', 'a', 'p', 'h'};
+        private static final byte[] NODE = {'n', 'o', 'd', 'e'};
+        private static final byte[] EDGE = {'e', 'd', 'g', 'e'};
+        private static final byte[] WEIGHT = {'w', 'e', 'i', 'g', 'h', 't'};
+
+        private final Input input;
         private final long lo;
         private final long hi;
-        private long ix;            // line in den daten
-
-        private long entries;
+        private long ix; // index of the next edge
 
-        private final char[] buffer;
-        private int numCharsRead;
+        private ByteBuffer window;
+        private long base;
+        private int limit;
         private int bx;
 
-        private boolean isDirected;
-        private final String[] line = new String[2];
+        // The lookahead token; the bytes of an id are valid until the next token is read.
+        private Token token;
+        private boolean quoted;
+        private int tokenStart;
+        private int start;
+        private int end;
+        // An id whose bytes must stay in the window while the token behind it is read, -1 for none.
+        private int heldStart = -1;
+        private int heldEnd;
+
+        // Open graph and subgraph bodies; depth 1 is the graph itself.
+        private int depth;
+        private int[] bodyStarts = new int[8];
+        private double[] weights = new double[8];
+
+        // Vertices of the current edge statement and of the open subgraphs.
+        private int[] members = new int[64];
+        private int size;
+        private int[] stamps = new int[64];
+        private int serial;
+
+        // Operands of the current edge statement, operand k spans the members from operands[k] to operands[k + 1].
+        private int[] operands = new int[8];
+        private int count;
+        private int statementStart;
+        private double weight;
+        private boolean emitting;
+        private int k;
+        private int u;
+        private int v;
+
+        private final VertexDictionary vertices;
+        private int source;
+        private int target;
+
+        final String2StringEdge names = new String2StringEdge() {
+            @Override public String source() { return vertices.name(source); }
+            @Override public String target() { return vertices.name(target); }
+            @Override public double weight() { return weight; }
+        };
+
+        final Mtx.Long2LongDoubleEdge indices = new Mtx.Long2LongDoubleEdge() {
+            @Override public long source() { return source + 1L; }
+            @Override public long target() { return target + 1L; }
+            @Override public double value() { return weight; }
+        };
+
+        private EdgeScanner(final Path path, final long lo, final long hi, final VertexDictionary vertices) {
+            this.vertices = vertices;
+            this.input = Input.open(path);
+            this.lo = lo;
+            this.hi = hi;
+            this.weights[0] = 1.0;
+            this.window = input.window(0L, WINDOW);
+            this.limit = window.limit();
+            next();
+        }
+
+        private void close() {
+            input.close();
+        }
 
         /**
-         * Constructor initializes a new DotTraverser instance for a specific section of a .dot file.
+         * Moves to the next edge within the range and loads its vertices.
          *
-         * @param slice the segment of the file to be processed.
-         * @param pos the starting position in the file.
-         * @param path the path to the .dot file.
+         * @return false if there are no more edges in the range
          */
-        private DotTraverser(final Range slice, final long pos, final Path path) {
-            System.out.println("CONSTRUCTOR");
-            this.cursor = new DotTraverser.Cursor();
-            this.reader = newReader.apply(path);
-            this.buffer = new char[8192];
-            this.bx = 0;
-
-            // TODO this reads the entire file once before we actually start parsing. Not very performant
-            try {
-                this.entries = countLines(path);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        boolean advance() {
+            while (ix < hi) {
+                if (!nextEdge()) return false;
+                if (ix++ >= lo) return true;
             }
+            return false;
+        }
 
-            this.numCharsRead = readBuffer.apply(reader, buffer);
-            System.out.println("NUM CHARS READ: " + numCharsRead);
-            System.out.println("BUFFER SIZE:    " + buffer.length);
-//            System.out.println(buffer);
-            initHeader();
-            this.lo = Range.lo(slice);
-            this.hi = min(Range.hi(slice), entries);
-            this.sx = this.ix = pos;
-//            TODO DEBUG STUFF, DELETE!
-//            System.out.println("HI: " + Range.hi(slice));
-//            System.out.println("LO: " + lo);
-//            System.out.println("HI: " + hi);
-//            System.out.println("IX: " + ix);
-//            System.out.println("SYMMETRY: " + entries);
+        private boolean nextEdge() {
+            while (true) {
+                if (emitting && emit()) return true;
+                if (!statement()) return false;
+            }
         }
 
         /**
-         * Initializes reading by processing the header to determine if the graph is directed or undirected.
+         * Loads the next edge of the current edge statement.
+         *
+         * @return false if all edges of the statement have been loaded
          */
-        private void initHeader() {
-            StringBuilder headerBuilder = new StringBuilder();
-            while (bx < numCharsRead) {
-                // Read until the end of the first meaningful line or the buffer's end.
-                if (buffer[bx] == '\n' || buffer[bx] == '\r') {
-                    // Process the line to determine the graph's directedness.
-                    String headerLine = headerBuilder.toString().trim();
-                    if (headerLine.startsWith("digraph")) {
-                        isDirected = true;
-                    } else if (headerLine.startsWith("graph")) {
-                        isDirected = false;
+        private boolean emit() {
+            while (k + 1 < count) {
+                if (u < operands[k + 1]) {
+                    if (v < operands[k + 2]) {
+                        source = members[u];
+                        target = members[v++];
+                        return true;
                     }
-                    System.out.println("Graph type determined: " + (isDirected ? "Directed" : "Undirected"));
-                    bx++; // Move past the newline character
-                    return; // Exit after processing the first line indicating graph type.
+                    u++;
+                    v = operands[k + 1];
                 } else {
-                    headerBuilder.append(buffer[bx]);
+                    k++;
+                    u = operands[k];
+                    v = operands[k + 1];
                 }
-                bx++;
             }
+            emitting = false;
+            if (depth <= 1) size = statementStart;
+            return false;
+        }
 
-            // In case the first line or relevant info is longer than the buffer size:
-            // TODO this is somehow weird. The condition IS NOT ALWAYS TRUE!
-            if (bx >= numCharsRead) {
-//                System.out.println("TTTTTTTT");
-                numCharsRead = readBuffer.apply(reader, buffer);
-                bx = 0; // Reset buffer index
-                if (numCharsRead != -1) { // Check if there's more data to read
-                    initHeader(); // Recursively read the next segment of the header
+        /**
+         * Parses statements up to the next edge statement.
+         *
+         * @return false at the end of the file
+         */
+        private boolean statement() {
+            while (true) {
+                switch (token) {
+                    case END -> {
+                        return false;
+                    }
+                    case OPEN_BRACE -> open();
+                    case CLOSE_BRACE -> {
+                        if (depth == 0) throw Exceptions.illegalState("unbalanced '}' at byte %d", base + tokenStart);
+                        final int from = bodyStarts[depth--];
+                        next();
+                        if (token == Token.EDGE_OP && depth > 0) {
+                            // The subgraph is the left operand of an edge statement.
+                            distinct(from);
+                            edges(from);
+                            return true;
+                        }
+                        if (depth <= 1) size = from;
+                    }
+                    case ID -> {
+                        if (keyword(SUBGRAPH)) {
+                            next();
+                            if (token == Token.ID) next();
+                        } else if (keyword(STRICT)) {
+                            next();
+                        } else if (keyword(GRAPH) || keyword(DIGRAPH)) {
+                            next();
+                            if (token == Token.OPEN_BRACKET) attributes(0.0);
+                            else if (token == Token.ID) next();
+                        } else if (keyword(NODE)) {
+                            next();
+                            if (token == Token.OPEN_BRACKET) attributes(0.0);
+                        } else if (keyword(EDGE)) {
+                            next();
+                            if (token == Token.OPEN_BRACKET) weights[depth] = attributes(weights[depth]);
+                        } else {
+                            final int from = size;
+                            if (!vertex()) continue;
+                            if (token == Token.EDGE_OP) {
+                                edges(from);
+                                return true;
+                            }
+                            while (token == Token.OPEN_BRACKET) attributes(0.0);
+                            if (depth <= 1) size = from;
+                        }
+                    }
+                    default -> next();
                 }
             }
         }
 
         /**
-         * {@inheritDoc}
+         * Reads the vertex id at the current token and its port, if the id is not the name of a graph attribute.
+         *
+         * @return false if the id was the name of an attribute assignment
          */
-        @Override
-        public boolean tryNext(Fn1.Consumer<? super String2StringEdge> action) {
-            System.out.println("TRY NEXT");
-            if (null == action) throw new NullPointerException("Action must not be null.");
-//            TODO DEBUG STUFF, DELETE!
-//            debugCharArray(buffer, bx);
-//            System.out.println("IX: " + ix);
-//            System.out.println("HI: " + ix);
-
-            Pattern edgePattern = isDirected
-                    ? Pattern.compile("\\s*(\\S+)\\s*->\\s*(\\S+)\\s*;")
-                    : Pattern.compile("\\s*(\\S+)\\s*--\\s*(\\S+)\\s*;");
-
-            while (true) {
-                if (ix >= hi) {  // Check if current index exceeds the high boundary of the slice
-                    closeReader.apply(reader);
-                    return false;
-                }
-                if (bx >= numCharsRead) { // Need to reload the buffer
-                    numCharsRead = readBuffer.apply(reader, buffer);
-                    if (numCharsRead == -1) return false; // End of file reached
-                    bx = 0; // Reset buffer index
-                }
+        private boolean vertex() {
+            heldStart = start;
+            heldEnd = end;
+            next();
+            final int from = heldStart;
+            final int to = heldEnd;
+            heldStart = -1;
+            if (token == Token.EQUALS) {
+                next();
+                if (token == Token.ID) next();
+                return false;
+            }
+            add(vertices.intern(window, from, to));
+            while (token == Token.COLON) {
+                next();
+                if (token == Token.ID) next();
+            }
+            return true;
+        }
 
-                // Read the line from the buffer
-                StringBuilder lineBuilder = new StringBuilder();
-                while (bx < numCharsRead && buffer[bx] != '\n') {
-                    lineBuilder.append(buffer[bx++]);
-                }
-                bx++; // Move past the newline character
-                ix++; // Increment the line index
-
-                String _line = lineBuilder.toString();
-                Matcher matcher = edgePattern.matcher(_line);
-                if (matcher.find()) {
-                    line[0] = matcher.group(1);
-                    line[1] = matcher.group(2);
-                    action.accept(cursor);
-                    return true; // Successfully processed an edge
+        /**
+         * Parses the operands and attributes of an edge statement behind its first operand and prepares its edges.
+         *
+         * @param from the index of the first member of the first operand
+         */
+        private void edges(final int from) {
+            statementStart = from;
+            operands[0] = from;
+            count = 1;
+            weight = weights[depth];
+            while (token == Token.EDGE_OP) {
+                next();
+                if (count + 2 > operands.length) operands = Arrays.copyOf(operands, 2 * operands.length);
+                operands[count++] = size;
+                if (token == Token.OPEN_BRACE || (token == Token.ID && keyword(SUBGRAPH))) {
+                    final int operand = size;
+                    subgraph();
+                    distinct(operand);
+                } else if (token == Token.ID) {
+                    add(vertices.intern(window, start, end));
+                    next();
+                    while (token == Token.COLON) {
+                        next();
+                        if (token == Token.ID) next();
+                    }
+                } else {
+                    throw Exceptions.illegalState("missing edge operand at byte %d", base + tokenStart);
                 }
             }
+            while (token == Token.OPEN_BRACKET) weight = attributes(weight);
+            operands[count] = size;
+            emitting = true;
+            k = 0;
+            u = operands[0];
+            v = operands[1];
         }
 
         /**
-         * {@inheritDoc}
+         * Reads the vertices of a subgraph that is the right operand of an edge statement.
          */
-        @Override
-        public void forNext(Fn1.Consumer<? super String2StringEdge> action) {
-            System.out.println("FOR NEXT");
-            if (action == null) throw new NullPointerException("Action must not be null.");
-
-            Pattern edgePattern = isDirected
-                    ? Pattern.compile("\\s*(\\S+)\\s*->\\s*(\\S+)\\s*;")
-                    : Pattern.compile("\\s*(\\S+)\\s*--\\s*(\\S+)\\s*;");
-
-            while (ix < hi) {
-                if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
-                    numCharsRead = readBuffer.apply(reader, buffer);
-                    if (numCharsRead == -1) break;  // End of file reached
-                    bx = 0;  // Reset buffer index
-                    break;
+        private void subgraph() {
+            if (token == Token.ID) {
+                next();
+                if (token == Token.ID) next();
+            }
+            if (token != Token.OPEN_BRACE)
+                throw Exceptions.illegalState("expected '{' at byte %d", base + tokenStart);
+            next();
+            for (int open = 1; open > 0; ) {
+                switch (token) {
+                    case END -> throw Exceptions.illegalState("truncated subgraph at byte %d", base + tokenStart);
+                    case OPEN_BRACE -> {
+                        open++;
+                        next();
+                    }
+                    case CLOSE_BRACE -> {
+                        open--;
+                        next();
+                    }
+                    case OPEN_BRACKET -> attributes(0.0);
+                    case EDGE_OP -> throw Exceptions.illegalState(
+                            "edge statements within an edge operand are not supported at byte %d", base + tokenStart);
+                    case ID -> {
+                        if (keyword(SUBGRAPH)) {
+                            next();
+                            if (token == Token.ID) next();
+                        } else if (keyword(NODE) || keyword(EDGE) || keyword(GRAPH)) {
+                            next();
+                        } else {
+                            vertex();
+                        }
+                    }
+                    default -> next();
                 }
+            }
+        }
 
-                // Read the line from the buffer
-                StringBuilder lineBuilder = new StringBuilder();
-                while (bx < numCharsRead && buffer[bx] != '\n') {
-                    lineBuilder.append(buffer[bx++]);
+        /**
+         * Parses an attribute list at the current token and returns the value of its {@code weight} attribute.
+         *
+         * @param weight the weight if the list does not set it
+         * @return the weight
+         */
+        private double attributes(double weight) {
+            next();
+            while (token != Token.CLOSE_BRACKET) {
+                if (token == Token.END)
+                    throw Exceptions.illegalState("truncated attribute list at byte %d", base + tokenStart);
+                if (token != Token.ID) {
+                    next();
+                    continue;
                 }
-                bx++;  // Move past the newline character
-                ix++;  // Increment the line index
-
-                String _line = lineBuilder.toString();
-                Matcher matcher = edgePattern.matcher(_line);
-                if (matcher.find()) {
-                    line[0] = matcher.group(1);
-                    line[1] = matcher.group(2);
-                    action.accept(cursor);  // Perform action on each valid edge
+                final boolean isWeight = is(WEIGHT);
+                next();
+                if (token == Token.EQUALS) {
+                    next();
+                    if (token == Token.ID) {
+                        if (isWeight) weight = Utils.parseDouble(window, start, end);
+                        next();
+                    }
                 }
             }
-            closeReader.apply(reader);
+            next();
+            return weight;
+        }
+
+        private void open() {
+            if (++depth == bodyStarts.length) {
+                bodyStarts = Arrays.copyOf(bodyStarts, 2 * depth);
+                weights = Arrays.copyOf(weights, 2 * depth);
+            }
+            bodyStarts[depth] = size;
+            weights[depth] = weights[depth - 1];
+            next();
+        }
+
+        private void add(final int id) {
+            if (size == members.length) members = Arrays.copyOf(members, 2 * size);
+            members[size++] = id;
         }
 
         /**
-         * {@inheritDoc}
+         * Removes the repeated vertices from the members behind the given index.
+         *
+         * @param from the index of the first member
          */
-        @Override
-        public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super String2StringEdge>> context) {
-            System.out.println("WHILE NEXT");
-            if (context == null) throw new NullPointerException("Context must not be null.");
+        private void distinct(final int from) {
+            if (stamps.length < vertices.size()) stamps = Arrays.copyOf(stamps, max(vertices.size(), 2 * stamps.length));
+            if (++serial == 0) {
+                Arrays.fill(stamps, 0);
+                serial = 1;
+            }
+            int kept = from;
+            for (int i = from; i < size; i++) {
+                final int id = members[i];
+                if (stamps[id] != serial) {
+                    stamps[id] = serial;
+                    members[kept++] = id;
+                }
+            }
+            size = kept;
+        }
 
-            Pattern edgePattern = isDirected
-                    ? Pattern.compile("\\s*(\\S+)\\s*->\\s*(\\S+)\\s*;")
-                    : Pattern.compile("\\s*(\\S+)\\s*--\\s*(\\S+)\\s*;");
+        private boolean keyword(final byte[] word) {
+            if (quoted || end - start != word.length) return false;
+            for (int i = 0; i < word.length; i++) {
+                if ((window.get(start + i) | 0x20) != word[i]) return false;
+            }
+            return true;
+        }
 
-            // Prepare the action from the context
-            Fn1.Consumer<? super String2StringEdge> action = bind(context);
+        private boolean is(final byte[] name) {
+            if (end - start != name.length) return false;
+            for (int i = 0; i < name.length; i++) {
+                if (window.get(start + i) != name[i]) return false;
+            }
+            return true;
+        }
 
-            while (ix < hi) {
-                if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
+        // ------------------------------------------------------------------------------------------------------------
+        // Lexer
 
-                    numCharsRead = readBuffer.apply(reader, buffer);
-                    if (numCharsRead == -1) {
-                        closeReader.apply(reader);
-                        return Traversal.Status.DONE;  // End of file reached
-                    }
-                    bx = 0;  // Reset buffer index
-                    return Traversal.Status.NONE;
-
-                }
+        private void next() {
+            token = lex();
+        }
 
-                // Read the line from the buffer
-                StringBuilder lineBuilder = new StringBuilder();
-                while (bx < numCharsRead && buffer[bx] != '\n') {
-                    lineBuilder.append(buffer[bx++]);
-                }
-                bx++;  // Move past the newline character
-                ix++;  // Increment the line index
-
-                String _line = lineBuilder.toString();
-                Matcher matcher = edgePattern.matcher(_line);
-                if (matcher.find()) {
-                    line[0] = matcher.group(1);
-                    line[1] = matcher.group(2);
-                    action.accept(cursor);  // Perform action on each valid edge
-
-                    // Check if the traversal should exit based on the context's control state
-                    if (!active) {
-                        closeReader.apply(reader);
-                        return Traversal.Status.EXIT;
+        private Token lex() {
+            while (true) {
+                tokenStart = bx;
+                if (bx >= limit && !more()) return Token.END;
+                final byte b = window.get(bx);
+                switch (b) {
+                    case ' ', '\t', '\n', '\r', '\f' -> bx++;
+                    case '#' -> skipLine();
+                    case '/' -> {
+                        final byte c = has(1) ? window.get(bx + 1) : 0;
+                        if (c == '/') skipLine();
+                        else if (c == '*') skipComment();
+                        else throw unexpected(b);
+                    }
+                    case '{' -> { return single(Token.OPEN_BRACE); }
+                    case '}' -> { return single(Token.CLOSE_BRACE); }
+                    case '[' -> { return single(Token.OPEN_BRACKET); }
+                    case ']' -> { return single(Token.CLOSE_BRACKET); }
+                    case ';' -> { return single(Token.SEMICOLON); }
+                    case ',' -> { return single(Token.COMMA); }
+                    case '=' -> { return single(Token.EQUALS); }
+                    case ':' -> { return single(Token.COLON); }
+                    case '"' -> { return quoted(); }
+                    case '<' -> { return html(); }
+                    case '-' -> {
+                        final byte c = has(1) ? window.get(bx + 1) : 0;
+                        if (c == '>' || c == '-') {
+                            bx += 2;
+                            return Token.EDGE_OP;
+                        }
+                        return unquoted();
+                    }
+                    default -> {
+                        if (!isIdByte(b)) throw unexpected(b);
+                        return unquoted();
                     }
                 }
             }
-            closeReader.apply(reader);
-            return Traversal.Status.DONE;  // All data processed or range exceeded
         }
 
-        private final class Cursor implements String2StringEdge {
-            @Override
-            public String source() {
-                return line[0];
+        private Token single(final Token token) {
+            bx++;
+            return token;
+        }
+
+        private Token unquoted() {
+            bx++;
+            while ((bx < limit || more()) && isIdByte(window.get(bx))) bx++;
+            this.quoted = false;
+            this.start = tokenStart;
+            this.end = bx;
+            return Token.ID;
+        }
+
+        private Token quoted() {
+            bx++;
+            byte b;
+            while ((bx < limit || more()) && (b = window.get(bx)) != '"') bx += b == '\\' ? 2 : 1;
+            if (bx >= limit) throw Exceptions.illegalState("unterminated string at byte %d", base + tokenStart);
+            this.quoted = true;
+            this.start = tokenStart + 1;
+            this.end = bx++;
+            return Token.ID;
+        }
+
+        private Token html() {
+            bx++;
+            int open = 1;
+            while (bx < limit || more()) {
+                final byte b = window.get(bx);
+                if (b == '<') open++;
+                else if (b == '>' && --open == 0) break;
+                bx++;
             }
+            if (bx >= limit) throw Exceptions.illegalState("unterminated HTML string at byte %d", base + tokenStart);
+            this.quoted = true;
+            this.start = tokenStart + 1;
+            this.end = bx++;
+            return Token.ID;
+        }
 
-            @Override
-            public String target() {
-                return line[1];
+        private void skipLine() {
+            while ((bx < limit || more()) && window.get(bx) != '\n') {
+                bx++;
+                tokenStart = bx;
             }
         }
-    }
 
-    // TODO integrate
-    private static long countLines(Path path) throws IOException {
-        try (FileChannel fileChannel = (FileChannel) Files.newByteChannel(path, StandardOpenOption.READ)) {
-            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
-            long lines = 0;
-            while (buffer.hasRemaining()) {
-                byte b = buffer.get();
-                if (b == '\n') lines++;
+        private void skipComment() {
+            bx += 2;
+            while (has(1)) {
+                if (window.get(bx) == '*' && window.get(bx + 1) == '/') {
+                    bx += 2;
+                    return;
+                }
+                tokenStart = ++bx;
+            }
+            bx = limit;
+        }
+
+        private static boolean isIdByte(final byte b) {
+            return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                    || b == '_' || b == '.' || b < 0;
+        }
+
+        private IllegalStateException unexpected(final byte b) {
+            return Exceptions.illegalState("unexpected character '%c' at byte %d", (char) b, base + bx);
+        }
+
+        /**
+         * Makes the byte the given distance behind the current position available.
+         *
+         * @param distance the distance to the current position
+         * @return false at the end of the content
+         */
+        private boolean has(final int distance) {
+            while (bx + distance >= limit) {
+                if (!more()) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Moves the window forward to the current token, or to the held id, to read the bytes behind the window.
+         *
+         * @return false at the end of the content
+         */
+        private boolean more() {
+            if (base + limit >= input.size()) return false;
+            final int keep = heldStart >= 0 ? heldStart : tokenStart;
+            if (keep == 0) throw Exceptions.illegalState("token at byte %d exceeds the mapping window", base);
+            final long position = base + keep;
+            this.window = input.window(position, WINDOW);
+            this.base = position;
+            this.limit = window.limit();
+            this.bx -= keep;
+            this.tokenStart -= keep;
+            if (heldStart >= 0) {
+                this.heldStart -= keep;
+                this.heldEnd -= keep;
             }
-            return lines + 1; // Add one because last line does not end with a newline character
+            return bx < limit;
         }
     }
 
-    // TODO DELETE
-    // Method to print char array contents with the char at a specific index colored
-    private static void debugCharArray(char[] buffer, int index) {
-        if (buffer == null) {
-            System.out.println("Buffer is null");
-            return;
+    /**
+     * Implementation of a {@link Traverser} specific to .dot files, which yields the edges found by an
+     * {@link EdgeScanner} through a single cursor instance.
+     *
+     * @param <E> the type of the edge cursor
+     */
+    static final class DotTraverser<E> extends Traversal.Control.Context implements Traverser<E> {
+        private final EdgeScanner scanner;
+        private final E cursor;
+
+        private DotTraverser(final EdgeScanner scanner, final E cursor) {
+            this.scanner = scanner;
+            this.cursor = cursor;
         }
 
-        System.out.println("char[] Buffer Contents at " + index + "; ");
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryNext(Fn1.Consumer<? super E> action) {
+            if (null == action) throw new NullPointerException();
+            if (scanner.advance()) {
+                action.accept(cursor);
+                return true;
+            }
+            scanner.close();
+            return false;
+        }
 
-        // Iterate through the char array
-        for (int i = 0; i < buffer.length; i++) {
-            if (i == index) {
-                // Print the char at the index in red
-                System.out.print("X");
-            } else {
-                // Print the char in default color
-                System.out.print(buffer[i]);
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forNext(Fn1.Consumer<? super E> action) {
+            if (null == action) throw new NullPointerException();
+            try {
+                while (scanner.advance()) action.accept(cursor);
+            } finally {
+                scanner.close();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super E>> context) {
+            if (null == context) throw new NullPointerException();
+            try {
+                if (scanner.advance()) {
+                    // Propagate context control state.
+                    final var action = bind(context);
+                    do {
+                        action.accept(cursor);
+                    } while (active && scanner.advance());
+                    if (!active) return Traversal.Status.EXIT;
+                }
+                return Traversal.Status.DONE;
+            } finally {
+                scanner.close();
             }
         }
-        System.out.println(); // Newline after finishing the buffer
     }
 }
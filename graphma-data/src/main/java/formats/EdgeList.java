@@ -0,0 +1,499 @@
+package formats;
+
+import magma.adt.control.traversal.Traversal;
+import magma.control.exception.Exceptions;
+import magma.control.function.Fn;
+import magma.control.function.Fn1;
+import magma.control.traversal.Traversable;
+import magma.control.traversal.Traverser;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static formats.Utils.*;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Provides utilities for parsing and traversing edge list files, i.e. text files with one edge per line whose
+ * columns hold the source vertex, the target vertex and optionally a value of the edge. This covers the CSV
+ * exports of relational data as well as the blank separated edge lists of collections such as SNAP.
+ * <p>
+ * The lines are parsed straight from a memory-mapped view of the file into a single cursor that is reused for
+ * all edges, so a traversal does not allocate per line. A compressed file is parsed from its decompressed
+ * content, see {@link Input}. Empty lines and lines starting with {@code #} or {@code %} are skipped. A file can
+ * be split into byte ranges that are traversed independently.
+ * </p>
+ */
+public enum EdgeList {
+    ;
+
+    /**
+     * Describes the layout of an edge list file.
+     * <p>
+     * The delimiter {@code ' '} separates the columns by runs of blanks (spaces and tabs), any other delimiter
+     * separates the columns by exactly one occurrence. A column enclosed in double quotes may contain the
+     * delimiter, but no line break. Column numbers start at 0.
+     * </p>
+     *
+     * @param delimiter the character between two columns
+     * @param header the number of lines at the start of the file that are skipped
+     * @param source the column of the source vertex
+     * @param target the column of the target vertex
+     * @param value the column of the value of an edge, or -1 if the edges have no values
+     */
+    public record Format(char delimiter, int header, int source, int target, int value) {
+
+        /**
+         * Blank separated vertex pairs without header.
+         */
+        public static final Format WHITESPACE = new Format(' ', 0, 0, 1, -1);
+
+        /**
+         * Comma separated vertex pairs without header.
+         */
+        public static final Format CSV = new Format(',', 0, 0, 1, -1);
+
+        public Format {
+            if (delimiter > 127 || delimiter == '\n' || delimiter == '\r' || delimiter == '"' || (delimiter >= '0' && delimiter <= '9'))
+                throw Exceptions.illegalArgument("unsupported delimiter %s", delimiter);
+            if (header < 0) throw Exceptions.illegalArgument("header must not be negative: %d", header);
+            if (source < 0 || target < 0 || source == target)
+                throw Exceptions.illegalArgument("invalid vertex columns %d and %d", source, target);
+            if (value < -1 || value == source || value == target)
+                throw Exceptions.illegalArgument("invalid value column %d", value);
+        }
+
+        /**
+         * @param delimiter the character between two columns
+         * @return this format with the given delimiter
+         */
+        public Format delimiter(final char delimiter) {
+            return new Format(delimiter, header, source, target, value);
+        }
+
+        /**
+         * @param lines the number of lines at the start of the file that are skipped
+         * @return this format with the given number of header lines
+         */
+        public Format header(final int lines) {
+            return new Format(delimiter, lines, source, target, value);
+        }
+
+        /**
+         * @param source the column of the source vertex
+         * @param target the column of the target vertex
+         * @return this format with the given vertex columns
+         */
+        public Format columns(final int source, final int target) {
+            return new Format(delimiter, header, source, target, value);
+        }
+
+        /**
+         * @param column the column of the value of an edge, or -1 if the edges have no values
+         * @return this format with the given value column
+         */
+        public Format value(final int column) {
+            return new Format(delimiter, header, source, target, column);
+        }
+    }
+
+    /**
+     * Creates a traverser to iterate over all edges of an edge list file.
+     *
+     * @param pth the path to the edge list file
+     * @param format the layout of the file
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist
+     */
+    public static Traverser<Mtx.Long2LongEdge> traverse(Path pth, final Format format) {
+        return traverse(pth, format, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a traverser to iterate over the edges whose lines start within the given byte range of an edge list
+     * file. The start offset is snapped to the beginning of the next line and the header lines are never part of
+     * a range, hence adjacent byte ranges yield disjoint sets of edges and together cover the whole file.
+     *
+     * @param pth the path to the edge list file
+     * @param format the layout of the file
+     * @param from the first byte offset of the range (inclusive)
+     * @param to the last byte offset of the range (exclusive)
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Mtx.Long2LongEdge> traverse(Path pth, final Format format, final long from, final long to) {
+        return Mtx.edges(traverseWeighted(pth, format, from, to));
+    }
+
+    /**
+     * Creates a traverser like {@link #traverse(Path, Format)} whose edges are typed as
+     * {@link Mtx.Long2LongDoubleEdge}s, so the values of the edges can be read without casting the edges.
+     *
+     * @param pth the path to the edge list file
+     * @param format the layout of the file
+     * @return a {@link Traverser} for valued edges, or an empty traverser if the file does not exist
+     */
+    public static Traverser<Mtx.Long2LongDoubleEdge> traverseWeighted(Path pth, final Format format) {
+        return traverseWeighted(pth, format, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a traverser like {@link #traverse(Path, Format, long, long)} whose edges are typed as
+     * {@link Mtx.Long2LongDoubleEdge}s, so the values of the edges can be read without casting the edges.
+     *
+     * @param pth the path to the edge list file
+     * @param format the layout of the file
+     * @param from the first byte offset of the range (inclusive)
+     * @param to the last byte offset of the range (exclusive)
+     * @return a {@link Traverser} for valued edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Mtx.Long2LongDoubleEdge> traverseWeighted(Path pth, final Format format,
+                                                                     final long from, final long to) {
+        if (Files.notExists(pth) || from >= to)
+            return Traverser.empty();
+        return new EdgeListTraverser(from, to, pth, format);
+    }
+
+    /**
+     * Splits an edge list file into the given number of byte ranges of (roughly) equal size. Each part is backed by
+     * {@link #traverse(Path, Format, long, long)} and can be consumed concurrently with the other parts. A compressed
+     * file cannot be entered in the middle, its first part holds all edges and the other parts are empty.
+     *
+     * @param pth the path to the edge list file
+     * @param format the layout of the file
+     * @param parts the number of parts
+     * @return a list of {@link Traversable}s that together yield every edge of the file exactly once
+     */
+    public static List<Traversable<Mtx.Long2LongEdge>> split(Path pth, final Format format, final int parts) {
+        if (parts < 1) throw Exceptions.illegalArgument("parts must be positive: %d", parts);
+        final long size = Files.exists(pth) ? Fn.checked(() -> Files.size(pth)).apply() : 0L;
+        final List<Traversable<Mtx.Long2LongEdge>> splits = new ArrayList<>(parts);
+        if (size > 0 && Compression.isCompressed(pth)) {
+            splits.add(() -> EdgeList.traverse(pth, format));
+            for (int i = 1; i < parts; i++) splits.add(Traverser::empty);
+            return splits;
+        }
+        for (int i = 0; i < parts; i++) {
+            final long from = size * i / parts;
+            final long to = size * (i + 1) / parts;
+            splits.add(() -> EdgeList.traverse(pth, format, from, to));
+        }
+        return splits;
+    }
+
+    /**
+     * Record to encapsulate an edge list file and its layout.
+     */
+    public record EdgeListFile(Path pth, Format format) implements Traversable<Mtx.Long2LongEdge> {
+        public Traverser<Mtx.Long2LongEdge> traverse() {
+            return EdgeList.traverse(pth, format);
+        }
+
+        /**
+         * Provides a view of this file whose edges carry their values, 1 if the format has no value column.
+         * @return a {@link Traversable} for valued edges backed by {@link EdgeList#traverseWeighted(Path, Format)}
+         */
+        public Traversable<Mtx.Long2LongDoubleEdge> weighted() {
+            return () -> EdgeList.traverseWeighted(pth, format);
+        }
+
+        /**
+         * Splits this file into the given number of independently traversable parts.
+         * @param parts the number of parts
+         * @return the parts as produced by {@link EdgeList#split(Path, Format, int)}
+         */
+        public List<Traversable<Mtx.Long2LongEdge>> split(int parts) {
+            return EdgeList.split(pth, format, parts);
+        }
+    }
+
+    /**
+     * Implementation of a {@link Traverser} for edge list files, parsing the lines of a memory-mapped file or of
+     * the decompressed content of a compressed file.
+     * The edges are yielded through one {@link Mtx.Long2LongDoubleEdge} cursor, whose value is 1 if the format
+     * has no value column.
+     */
+    static final class EdgeListTraverser extends Traversal.Control.Context implements Traverser<Mtx.Long2LongDoubleEdge> {
+        // Size of a single mapping window.
+        private static final long WINDOW = 1L << 30;
+        // Bytes that must be left in a window before a line is parsed.
+        private static final int SLACK = 1 << 16;
+        private static final long NEW_LINES = Swar.broadcast((byte) '\n');
+        private static final long QUOTES = Swar.broadcast((byte) '"');
+
+        private final EdgeListTraverser.Cursor cursor;
+        private final Input input;
+        private final long end;
+
+        private final byte delimiter;
+        private final long delimiters;
+        private final boolean blanks; // columns are separated by runs of blanks
+        private final boolean tabs;   // a tab is a blank rather than the delimiter
+        private final int sourceColumn;
+        private final int targetColumn;
+        private final int valueColumn;
+        private final int lastColumn;
+
+        private ByteBuffer window;
+        private long base;
+        private int limit;
+        private int bx;
+
+        private long source;
+        private long target;
+        private double value = 1.0;
+
+        /**
+         * Constructs an EdgeListTraverser that parses all lines starting within the given byte range, behind the
+         * header lines of the file.
+         *
+         * @param from the first byte offset of the range (inclusive)
+         * @param to the last byte offset of the range (exclusive)
+         * @param path the path to the edge list file
+         * @param format the layout of the file
+         */
+        private EdgeListTraverser(final long from, final long to, final Path path, final Format format) {
+            this.cursor = new EdgeListTraverser.Cursor();
+            this.delimiter = (byte) format.delimiter();
+            this.delimiters = Swar.broadcast(delimiter);
+            this.blanks = format.delimiter() == ' ';
+            this.tabs = format.delimiter() != '\t';
+            this.sourceColumn = format.source();
+            this.targetColumn = format.target();
+            this.valueColumn = format.value();
+            this.lastColumn = max(max(sourceColumn, targetColumn), valueColumn);
+            this.input = Input.open(path);
+            this.end = to;
+
+            map(0L);
+            for (int i = 0; i < format.header() && available(); i++) {
+                moveToNextLine();
+            }
+            final long start = base + bx;
+            if (from > start && from < end) {
+                map(from - 1);
+                moveToNextLine();
+            } else if (from >= end) {
+                map(max(end, start));
+            }
+        }
+
+        private void map(final long position) {
+            this.window = input.window(position, WINDOW);
+            this.base = position;
+            this.limit = window.limit();
+            this.bx = 0;
+        }
+
+        private boolean available() {
+            final long position = base + bx;
+            return position < end && position < input.size();
+        }
+
+        private void ensureLine() {
+            if (limit - bx < SLACK && base + limit < input.size()) {
+                map(base + bx);
+            }
+        }
+
+        private boolean isBlank(final byte b) {
+            return b == ' ' || (b == '\t' && tabs);
+        }
+
+        private void moveToNextLine() {
+            while (true) {
+                final var window = this.window;
+                while (bx + 8 <= limit) {
+                    final int n = Swar.newLineIndex(window.getLong(bx));
+                    bx += n;
+                    if (n < 8) break;
+                }
+                while (bx < limit && window.get(bx) != '\n') {
+                    bx++;
+                }
+                if (bx < limit || base + limit >= input.size()) break;
+                map(base + bx); // line crosses the window boundary
+            }
+            bx++;
+        }
+
+        private long parseLong(final int column) {
+            final var window = this.window;
+            final int limit = this.limit;
+            int i = bx;
+            byte b;
+            while (i < limit && isBlank(window.get(i))) {
+                i++;
+            }
+
+            boolean negative = false;
+            if (i < limit && window.get(i) == '-') {
+                negative = true;
+                i++;
+            }
+
+            // Eight characters at a time while a whole word is left, the tail one at a time.
+            final int digits = i;
+            long result = 0;
+            while (i + 8 <= limit) {
+                final long word = window.getLong(i);
+                final int count = Swar.digitCount(word);
+                result = result * Swar.powerOfTen(count) + Swar.digitValue(word, count);
+                i += count;
+                if (count < 8) break;
+            }
+            while (i < limit && (b = window.get(i)) >= '0' && b <= '9') {
+                result = result * 10 + (b - '0');
+                i++;
+            }
+            if (i < limit && (b = window.get(i)) != delimiter && !isBlank(b) && b != '\r' && b != '\n') {
+                throw new NumberFormatException("Invalid character: " + (char) b);
+            }
+            if (i == digits) {
+                throw new NumberFormatException("Missing vertex in column " + column + " at byte " + (base + i));
+            }
+            while (i < limit && isBlank(window.get(i))) {
+                i++;
+            }
+
+            bx = i;
+            return negative ? -result : result;
+        }
+
+        // Moves behind the current column, which ends at the delimiter or the line break.
+        private void skipField() {
+            final var window = this.window;
+            final int limit = this.limit;
+            int i = bx;
+            byte b;
+            if (blanks) {
+                while (i < limit && isBlank(window.get(i))) i++;
+                while (i < limit && !isBlank(b = window.get(i)) && b != '\r' && b != '\n') i++;
+                bx = i;
+                return;
+            }
+            boolean quoted = false;
+            while (true) {
+                if (!quoted) {
+                    while (i + 8 <= limit) {
+                        final long word = window.getLong(i);
+                        final int n = Swar.firstMatch(Swar.matches(word, delimiters)
+                                | Swar.matches(word, NEW_LINES) | Swar.matches(word, QUOTES));
+                        i += n;
+                        if (n < 8) break;
+                    }
+                }
+                if (i >= limit || (b = window.get(i)) == '\n') break;
+                if (b == '"') quoted = !quoted;
+                else if (!quoted && b == delimiter) break;
+                i++;
+            }
+            bx = i;
+        }
+
+        // Moves to the start of the column behind the current one.
+        private void nextField(final int column) {
+            if (blanks) {
+                while (bx < limit && isBlank(window.get(bx))) bx++;
+                if (bx < limit && window.get(bx) != '\r' && window.get(bx) != '\n') return;
+            } else if (bx < limit && window.get(bx) == delimiter) {
+                bx++;
+                return;
+            }
+            throw Exceptions.illegalState("missing column %d in line at byte %d", column + 1, base + bx);
+        }
+
+        private void readLine() {
+            for (int column = 0; ; column++) {
+                if (column == sourceColumn) source = parseLong(column);
+                else if (column == targetColumn) target = parseLong(column);
+                else if (column == valueColumn) {
+                    final int start = bx;
+                    skipField();
+                    value = parseDouble(window, start, bx);
+                } else skipField();
+                if (column == lastColumn) break;
+                nextField(column);
+            }
+        }
+
+        /**
+         * Moves to the next edge, skipping empty lines and comment lines.
+         *
+         * @return false if all lines of the range have been read
+         */
+        private boolean advance() {
+            while (available()) {
+                ensureLine();
+                int i = bx;
+                byte b = '\n';
+                while (i < limit && ((b = window.get(i)) == ' ' || b == '\t')) i++;
+                if (i < limit && b != '\n' && b != '\r' && b != '#' && b != '%') {
+                    readLine();
+                    moveToNextLine();
+                    return true;
+                }
+                moveToNextLine();
+            }
+            return false;
+        }
+
+        private final class Cursor implements Mtx.Long2LongDoubleEdge {
+            @Override public long source() { return source; }
+            @Override public long target() { return target; }
+            @Override public double value() { return value; }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryNext(Fn1.Consumer<? super Mtx.Long2LongDoubleEdge> action) {
+            if (null == action) throw new NullPointerException();
+            if (advance()) {
+                action.accept(cursor);
+                return true;
+            }
+            input.close();
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forNext(Fn1.Consumer<? super Mtx.Long2LongDoubleEdge> action) {
+            if (null == action) throw new NullPointerException();
+            try {
+                while (advance()) {
+                    action.accept(cursor);
+                }
+            } finally {
+                input.close();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super Mtx.Long2LongDoubleEdge>> context) {
+            if (null == context) throw new NullPointerException();
+            try {
+                if (advance()) {
+                    // Propagate context control state.
+                    final var action = bind(context);
+                    do {
+                        action.accept(cursor);
+                    } while (active && advance());
+                    if (!active) return Traversal.Status.EXIT;
+                }
+                return Traversal.Status.DONE;
+            } finally {
+                input.close();
+            }
+        }
+    }
+}
@@ -8,12 +8,8 @@ import magma.control.traversal.Traverser;
 import magma.value.index.Range;
 
 import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -74,6 +70,25 @@ public enum Gml {
         public Traverser<String2StringEdge> traverse() {
             return Gml.traverse(pth, Range.of(0, lines), 0);
         }
+
+        /**
+         * Provides the edges of the associated file with the vertices numbered from 1 in the order of their first
+         * appearance, e.g. as input for the CSR graph transformations.
+         * @return a traversable of edges between vertex numbers
+         */
+        public Traversable<Mtx.Long2LongEdge> indexed() {
+            return () -> indexed(new VertexDictionary()).traverse();
+        }
+
+        /**
+         * Provides the edges of the associated file with the vertex ids interned into the given dictionary,
+         * which is shared by all traversals.
+         * @param dictionary the dictionary to intern the vertex ids into
+         * @return a traversable of edges between vertex numbers
+         */
+        public Traversable<Mtx.Long2LongEdge> indexed(final VertexDictionary dictionary) {
+            return VertexDictionary.index(this, String2StringEdge::source, String2StringEdge::target, dictionary);
+        }
     }
 
     /**
@@ -112,11 +127,7 @@ public enum Gml {
             this.bx = 0;
 
             // TODO this reads the entire file once before we actually start parsing. Not very performant
-            try {
-                this.entries = countLines(path);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            this.entries = countLines(path);
 
             this.numCharsRead = readBuffer.apply(reader, buffer);
             System.out.println("NUM CHARS READ: " + numCharsRead);
@@ -236,35 +247,38 @@ public enum Gml {
             StringBuilder blockBuilder = new StringBuilder();
             boolean inEdgeBlock = false;
 
-            while (ix < hi) {
-                if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
-                    numCharsRead = readBuffer.apply(reader, buffer);
-                    if (numCharsRead == -1) break;  // End of file reached
-                    bx = 0;  // Reset buffer index
-                }
-
-                // Build the complete line from the buffer
-                StringBuilder lineBuilder = new StringBuilder();
-                while (bx < numCharsRead && buffer[bx] != '\n') {
-                    lineBuilder.append(buffer[bx++]);
-                }
-                bx++; // Move past the newline character
-                ix++; // Increment the line index
+            try {
+                while (ix < hi) {
+                    if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
+                        numCharsRead = readBuffer.apply(reader, buffer);
+                        if (numCharsRead == -1) break;  // End of file reached
+                        bx = 0;  // Reset buffer index
+                    }
 
-                String _line = lineBuilder.toString().trim();
-                if (_line.startsWith("edge [")) {
-                    inEdgeBlock = true; // Start collecting lines for an edge block
-                } else if (_line.equals("]") && inEdgeBlock) {
-                    // Process the collected block
-                    inEdgeBlock = false;
-                    processEdgeBlock(blockBuilder.toString(), action);
-//                    System.out.println(blockBuilder.toString());
-                    blockBuilder.setLength(0); // Reset for the next block
-                } else if (inEdgeBlock) {
-                    blockBuilder.append(_line).append(" "); // Continue accumulating lines within the edge block
+                    // Build the complete line from the buffer
+                    StringBuilder lineBuilder = new StringBuilder();
+                    while (bx < numCharsRead && buffer[bx] != '\n') {
+                        lineBuilder.append(buffer[bx++]);
+                    }
+                    bx++; // Move past the newline character
+                    ix++; // Increment the line index
+
+                    String _line = lineBuilder.toString().trim();
+                    if (_line.startsWith("edge [")) {
+                        inEdgeBlock = true; // Start collecting lines for an edge block
+                    } else if (_line.equals("]") && inEdgeBlock) {
+                        // Process the collected block
+                        inEdgeBlock = false;
+                        processEdgeBlock(blockBuilder.toString(), action);
+//                        System.out.println(blockBuilder.toString());
+                        blockBuilder.setLength(0); // Reset for the next block
+                    } else if (inEdgeBlock) {
+                        blockBuilder.append(_line).append(" "); // Continue accumulating lines within the edge block
+                    }
                 }
+            } finally {
+                closeReader.apply(reader);
             }
-            closeReader.apply(reader);
         }
 
         private void processEdgeBlock(String block, Fn1.Consumer<? super String2StringEdge> action) {
@@ -293,46 +307,47 @@ public enum Gml {
             // Prepare the action from the context
             Fn1.Consumer<? super String2StringEdge> action = bind(context);
 
-            while (ix < hi) {
-                if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
-                    numCharsRead = readBuffer.apply(reader, buffer);
-                    if (numCharsRead == -1) { // End of file reached
-                        closeReader.apply(reader);
-                        return Traversal.Status.DONE;  // All data processed
+            try {
+                while (ix < hi) {
+                    if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
+                        numCharsRead = readBuffer.apply(reader, buffer);
+                        if (numCharsRead == -1) { // End of file reached
+                            return Traversal.Status.DONE;  // All data processed
+                        }
+                        bx = 0;  // Reset buffer index
                     }
-                    bx = 0;  // Reset buffer index
-                }
-
-                // Build the complete line from the buffer
-                StringBuilder lineBuilder = new StringBuilder();
-                while (bx < numCharsRead && buffer[bx] != '\n') {
-                    lineBuilder.append(buffer[bx++]);
-                }
-                bx++; // Move past the newline character
-                ix++; // Increment the line index
 
-                String _line = lineBuilder.toString().trim();
-                if (_line.startsWith("edge [")) {
-                    inEdgeBlock = true; // Start collecting lines for an edge block
-                    blockBuilder.append(_line).append(" "); // Add the start of the edge block
-                } else if (_line.equals("]") && inEdgeBlock) {
-                    // End of the current edge block
-                    blockBuilder.append(_line); // Append the closing line
-                    processEdgeBlock(blockBuilder.toString(), action);
-                    blockBuilder.setLength(0); // Reset for potentially next block
-
-                    // Check if the traversal should exit based on the context's control state
-                    if (!active) {
-                        closeReader.apply(reader);
-                        return Traversal.Status.EXIT;
+                    // Build the complete line from the buffer
+                    StringBuilder lineBuilder = new StringBuilder();
+                    while (bx < numCharsRead && buffer[bx] != '\n') {
+                        lineBuilder.append(buffer[bx++]);
+                    }
+                    bx++; // Move past the newline character
+                    ix++; // Increment the line index
+
+                    String _line = lineBuilder.toString().trim();
+                    if (_line.startsWith("edge [")) {
+                        inEdgeBlock = true; // Start collecting lines for an edge block
+                        blockBuilder.append(_line).append(" "); // Add the start of the edge block
+                    } else if (_line.equals("]") && inEdgeBlock) {
+                        // End of the current edge block
+                        blockBuilder.append(_line); // Append the closing line
+                        processEdgeBlock(blockBuilder.toString(), action);
+                        blockBuilder.setLength(0); // Reset for potentially next block
+
+                        // Check if the traversal should exit based on the context's control state
+                        if (!active) {
+                            return Traversal.Status.EXIT;
+                        }
+                    } else if (inEdgeBlock) {
+                        blockBuilder.append(_line).append(" "); // Continue accumulating lines within the edge block
                     }
-                } else if (inEdgeBlock) {
-                    blockBuilder.append(_line).append(" "); // Continue accumulating lines within the edge block
                 }
-            }
 
-            closeReader.apply(reader);
-            return Traversal.Status.DONE;  // All data processed or range exceeded
+                return Traversal.Status.DONE;  // All data processed or range exceeded
+            } finally {
+                closeReader.apply(reader);
+            }
         }
 
         private final class Cursor implements String2StringEdge {
@@ -348,19 +363,6 @@ public enum Gml {
         }
     }
 
-    // TODO integrate
-    private static long countLines(Path path) throws IOException {
-        try (FileChannel fileChannel = (FileChannel) Files.newByteChannel(path, StandardOpenOption.READ)) {
-            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
-            long lines = 0;
-            while (buffer.hasRemaining()) {
-                byte b = buffer.get();
-                if (b == '\n') lines++;
-            }
-            return lines + 1; // Add one because last line does not end with a newline character
-        }
-    }
-
     // TODO DELETE
     // Method to print char array contents with the char at a specific index colored
     private static void debugCharArray(char[] buffer, int index) {
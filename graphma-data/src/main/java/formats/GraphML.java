@@ -7,17 +7,11 @@ import magma.control.traversal.Traversable;
 import magma.control.traversal.Traverser;
 import magma.value.index.Range;
 
-import java.io.BufferedReader;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import static formats.Utils.*;
 
 /**
  * Provides utilities for parsing and traversing GraphML files.
@@ -26,10 +20,12 @@ import static formats.Utils.*;
  * Usage involves creating a {@link Traverser} that can iterate over edges defined within a GraphML file,
  * allowing for custom actions to be performed on each discovered edge.
  * </p>
- *
- * This is a preliminary implementation. The idea is to first prototype complete
- * pipelines in order to subsequently improve them.
- *
+ * <p>
+ * The file is scanned once, byte by byte, from a memory-mapped view. Only the {@code source} and {@code target}
+ * attributes of the {@code <edge>} elements are read, all other elements, comments and CDATA sections are
+ * skipped. The vertex ids are interned as they are found, so every distinct id is stored once; the edges are
+ * available with the ids as strings or as dense numbers.
+ * </p>
  */
 public enum GraphML {
     ;
@@ -47,379 +43,364 @@ public enum GraphML {
 
     /**
      * Creates a traverser to iterate over the edges in a GraphML file, starting from a specified position.
-     * This method only considers edges within the specified range in the file.
+     * This method only considers edges within the specified range of edges in the file.
      *
      * @param mtxPth the path to the GraphML file
-     * @param slice the range of lines in the file to process
-     * @param position the starting position within the range
+     * @param slice the range of edges in the file to process
+     * @param position the index of the first edge to process, if it lies behind the start of the range
      * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
      */
     public static Traverser<String2StringEdge> traverse(Path mtxPth, final Range slice, final long position) {
         if (Files.notExists(mtxPth) || Range.isEmpty(slice))
             return Traverser.empty();
-        return new GraphML.GraphMLTraverser(slice, position, mtxPth);
+        final var scanner = new EdgeScanner(mtxPth, Math.max(Range.lo(slice), position), Range.hi(slice), new VertexDictionary());
+        return new GraphMLTraverser<>(scanner, scanner.names);
+    }
+
+    /**
+     * Creates a traverser to iterate over the edges in a GraphML file with the vertex ids replaced by numbers.
+     * The vertices are numbered from 1 in the order of their first appearance in the file, starting from the
+     * first edge of the file, regardless of the range.
+     *
+     * @param mtxPth the path to the GraphML file
+     * @param slice the range of edges in the file to process
+     * @param position the index of the first edge to process, if it lies behind the start of the range
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Mtx.Long2LongEdge> traverseIndexed(Path mtxPth, final Range slice, final long position) {
+        return traverseIndexed(mtxPth, slice, position, new VertexDictionary());
+    }
+
+    /**
+     * Creates a traverser to iterate over the edges in a GraphML file with the vertex ids interned into the
+     * given dictionary. The vertex with the dictionary id {@code i} is yielded as {@code i + 1}.
+     *
+     * @param mtxPth the path to the GraphML file
+     * @param slice the range of edges in the file to process
+     * @param position the index of the first edge to process, if it lies behind the start of the range
+     * @param dictionary the dictionary to intern the vertex ids into
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Mtx.Long2LongEdge> traverseIndexed(Path mtxPth, final Range slice, final long position,
+                                                               final VertexDictionary dictionary) {
+        if (Files.notExists(mtxPth) || Range.isEmpty(slice))
+            return Traverser.empty();
+        final var scanner = new EdgeScanner(mtxPth, Math.max(Range.lo(slice), position), Range.hi(slice), dictionary);
+        return new GraphMLTraverser<>(scanner, scanner.indices);
     }
 
     /**
      * Record to encapsulate a GraphML file's metadata and provide a method to create a traverser for its content.
+     * The traversals are limited to the first {@code edges} {@code <edge>} elements of the file; the count is a
+     * number of edges, not of lines.
      */
-    public record GraphMLFile(Path pth, int rows, int cols, int lines,
+    public record GraphMLFile(Path pth, int rows, int cols, int edges,
                           int numCol) implements Traversable<String2StringEdge> {
+
+        /**
+         * Creates a GraphML file record that covers all edges of the file.
+         * @param pth the path to the GraphML file
+         */
+        public GraphMLFile(Path pth) {
+            this(pth, 0, 0, Integer.MAX_VALUE, 0);
+        }
+
         /**
          * Creates a traverser to iterate over all edges defined in the associated GraphML file.
          * @return a traverser for edges
          */
         public Traverser<String2StringEdge> traverse() {
-            return GraphML.traverse(pth, Range.of(0, lines), 0);
+            return GraphML.traverse(pth, Range.of(0, edges), 0);
+        }
+
+        /**
+         * Provides the edges of the associated GraphML file with the vertices numbered from 1 in the order of
+         * their first appearance, e.g. as input for the CSR graph transformations.
+         * @return a traversable of edges between vertex numbers
+         */
+        public Traversable<Mtx.Long2LongEdge> indexed() {
+            return () -> GraphML.traverseIndexed(pth, Range.of(0, edges), 0);
+        }
+
+        /**
+         * Provides the edges of the associated GraphML file with the vertex ids interned into the given dictionary,
+         * which is shared by all traversals.
+         * @param dictionary the dictionary to intern the vertex ids into
+         * @return a traversable of edges between vertex numbers
+         */
+        public Traversable<Mtx.Long2LongEdge> indexed(final VertexDictionary dictionary) {
+            return () -> GraphML.traverseIndexed(pth, Range.of(0, edges), 0, dictionary);
         }
     }
 
     /**
-     * Implementation of a {@link Traverser} specific to GraphML files, capable of parsing edges from the file's content.
+     * Scans the {@code <edge>} elements of a memory-mapped GraphML file.
+     * <p>
+     * A single {@link MappedByteBuffer} is limited to 2 GB, hence the file is mapped window by window. Whenever the
+     * remaining bytes of the current window might not hold a complete element, the window is moved forward.
+     * A compressed file is scanned through the windows of its decompressed content, see {@link Input}.
+     * </p>
      */
-    static final class GraphMLTraverser extends Traversal.Control.Context implements Traverser<GraphML.String2StringEdge> {
-        private final GraphML.GraphMLTraverser.Cursor cursor;
-        private final BufferedReader reader;
-        private final long sx;
+    static final class EdgeScanner {
+        // Size of a single mapping window.
+        private static final long WINDOW = 1L << 30;
+        // Bytes that must be left in a window before an element is parsed.
+        private static final int SLACK = 1 << 16;
+
+        private static final byte[] EDGE = {'<', 'e', 'd', 'g', 'e'};
+        private static final byte[] SOURCE = {'s', 'o', 'u', 'r', 'c', 'e'};
+        private static final byte[] TARGET = {'t', 'a', 'r', 'g', 'e', 't'};
+        private static final byte[] COMMENT = {'<', '!', '-', '-'};
+        private static final byte[] COMMENT_END = {'-', '-', '>'};
+        private static final byte[] CDATA = {'<', '!', '[', 'C', 'D', 'A', 'T', 'A', '['};
+        private static final byte[] CDATA_END = {']', ']', '>'};
+
+        private final Input input;
         private final long lo;
         private final long hi;
-        private long ix;
-
-        private long entries;
+        private long ix; // index of the next edge element
 
-        private final char[] buffer;
-        private int numCharsRead;
+        private ByteBuffer window;
+        private long base;
+        private int limit;
         private int bx;
 
-        private boolean isDirected;
-        private final String[] line = new String[2];
+        private final VertexDictionary vertices;
+        private int source;
+        private int target;
+
+        final String2StringEdge names = new String2StringEdge() {
+            @Override public String source() { return vertices.name(source); }
+            @Override public String target() { return vertices.name(target); }
+        };
+
+        final Mtx.Long2LongEdge indices = new Mtx.Long2LongEdge() {
+            @Override public long source() { return source + 1L; }
+            @Override public long target() { return target + 1L; }
+        };
+
+        private EdgeScanner(final Path path, final long lo, final long hi, final VertexDictionary vertices) {
+            this.vertices = vertices;
+            this.input = Input.open(path);
+            this.lo = lo;
+            this.hi = hi;
+            map(0L);
+        }
 
-        /**
-         * Constructs a GraphMLTraverser to parse edges from a GraphML file.
-         * This constructor initializes the reader and starts reading from the specified position.
-         * It determines whether the graph is directed and prepares to parse edges.
-         *
-         * @param slice the range of lines to read
-         * @param pos the starting position within the file
-         * @param path the path to the GraphML file
-         */
-        private GraphMLTraverser(final Range slice, final long pos, final Path path) {
-            this.cursor = new GraphML.GraphMLTraverser.Cursor();
-            this.reader = newReader.apply(path);
-            this.buffer = new char[8192];
+        private void map(final long position) {
+            this.window = input.window(position, WINDOW);
+            this.base = position;
+            this.limit = window.limit();
             this.bx = 0;
+        }
 
-            // TODO this reads the entire file once before we actually start parsing. Not very performant
-            try {
-                this.entries = countLines(path);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-
-            this.numCharsRead = readBuffer.apply(reader, buffer);
-            System.out.println("NUM CHARS READ: " + numCharsRead);
-            System.out.println("BUFFER SIZE:    " + buffer.length);
-//            System.out.println(buffer);
-            initHeader();
-            this.lo = Range.lo(slice);
-            this.hi = Math.min(Range.hi(slice), Long.MAX_VALUE);  // Assuming max lines if not known
-            this.sx = this.ix = pos;
-
-//            TODO DEBUG STUFF, DELETE!
-            System.out.println("HI: " + Range.hi(slice));
-            System.out.println("LO: " + lo);
-            System.out.println("HI: " + hi);
-            System.out.println("IX: " + ix);
+        private void close() {
+            input.close();
         }
 
         /**
-         * Initializes reading by processing the header to determine if the graph is directed or undirected.
+         * Moves to the next edge within the range and loads its vertices.
+         *
+         * @return false if there are no more edges in the range
          */
-        private void initHeader() {
-            StringBuilder headerBuilder = new StringBuilder();
-            boolean inGraphBlock = false; // Track if we are within the <graph> tags
+        boolean advance() {
+            while (ix < hi) {
+                if (!nextEdge()) return false;
+                if (ix++ >= lo) return true;
+            }
+            return false;
+        }
 
-            try {
-                while (bx < numCharsRead) {
-                    char currentChar = buffer[bx++];
-
-                    // Check for line breaks or buffer end to process the accumulated line
-                    if (currentChar == '\n' || currentChar == '\r' || bx == numCharsRead) {
-                        String line = headerBuilder.toString().trim();
-                        if (line.startsWith("<graph")) {
-                            inGraphBlock = true;
-                            // Parse attributes of the graph element, e.g., directed
-                            if (line.contains("edgedefault=\"directed\"")) {
-                                isDirected = true;
-                            } else if (line.contains("edgedefault=\"undirected\"")) {
-                                isDirected = false;
-                            }
-                            System.out.println("Graph type determined: " + (isDirected ? "Directed" : "Undirected"));
-                        } else if (line.startsWith("</graph")) {
-                            inGraphBlock = false; // End of graph block
-                            System.out.println("End of graph block reached.");
-                            throw Exceptions.illegalState("THIS SHOULD NOT HAPPEN");
-                        } else if (inGraphBlock && line.startsWith("<edge")) {
-                            System.out.println("Reached first edge, stopping header parsing.");
-                            bx -= (line.length() + 1); // Move back to the start of the <edge> tag
-//                            debugCharArray(buffer, bx);
-                            break; // Stop before processing any edges
-                        }
-                        // Reset headerBuilder for the next line
-                        headerBuilder.setLength(0);
-                    } else {
-                        // Accumulate characters into the builder
-                        headerBuilder.append(currentChar);
-                    }
-                    // If we reach the end of the buffer, try to reload
-                    if (bx >= numCharsRead) {
-                        if (!readMore()) break; // If no more data to read, exit
-                    }
+        private boolean nextEdge() {
+            while (true) {
+                final var window = this.window;
+                final int limit = this.limit;
+                int i = bx;
+                while (i < limit && window.get(i) != '<') i++;
+                if (i == limit) {
+                    bx = i;
+                    if (base + limit >= input.size()) return false;
+                    map(base + i);
+                    continue;
                 }
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to parse header due to an error.", e);
+                bx = i;
+                if (limit - bx < SLACK && base + limit < input.size()) map(base + bx);
+
+                if (startsWith(COMMENT)) skipPast(COMMENT_END);
+                else if (startsWith(CDATA)) skipPast(CDATA_END);
+                else if (startsWith(EDGE) && isNameEnd(bx + EDGE.length)) {
+                    parseEdge();
+                    return true;
+                } else bx++;
             }
         }
 
-        private boolean readMore() {
-            numCharsRead = readBuffer.apply(reader, buffer);
-            bx = 0; // Reset buffer index
-            return numCharsRead != -1;
+        private boolean startsWith(final byte[] prefix) {
+            if (bx + prefix.length > limit) return false;
+            for (int i = 0; i < prefix.length; i++) {
+                if (window.get(bx + i) != prefix[i]) return false;
+            }
+            return true;
         }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public boolean tryNext(Fn1.Consumer<? super GraphML.String2StringEdge> action) {
-            System.out.println("TRY NEXT");
-            if (action == null) throw new NullPointerException("Action must not be null.");
+        private boolean isNameEnd(final int i) {
+            if (i >= limit) return true;
+            final byte b = window.get(i);
+            return isWhitespace(b) || b == '/' || b == '>';
+        }
 
-            StringBuilder edgeBuilder = new StringBuilder();
-            boolean inEdge = false;
+        private static boolean isWhitespace(final byte b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
 
-            try {
-                while (ix < hi) {
-                    if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
-                        if (!readMore()) {
-                            closeReader.apply(reader);
-                            return false;  // No more data to read, end of file
-                        }
+        private void skipPast(final byte[] terminator) {
+            bx += 2;
+            while (true) {
+                if (bx + terminator.length > limit) {
+                    if (base + limit >= input.size()) {
+                        bx = limit;
+                        return;
                     }
+                    map(base + bx);
+                    continue;
+                }
+                if (startsWith(terminator)) {
+                    bx += terminator.length;
+                    return;
+                }
+                bx++;
+            }
+        }
 
-                    // Process character by character
-                    char currentChar = buffer[bx++];
-                    if (currentChar == '\n' || currentChar == '\r' || bx == numCharsRead) {
-                        String line = edgeBuilder.toString().trim();
-                        if (line.contains("<edge") && !inEdge) {
-//                            System.out.println("START EDGE");
-                            // Start of an edge element
-                            inEdge = true;
-                        }
-                        if (line.contains("/>") && inEdge) {
-//                            System.out.println("END EDGE: " + edgeBuilder.toString());
-                            // Complete edge element read, process it
-                            processEdge(edgeBuilder.toString(), action);
-                            edgeBuilder.setLength(0);
-                            inEdge = false;
-                            return true; // Successfully processed an edge
-                        }
-                        if (inEdge) {
-//                            System.out.println("IN EDGE");
-                            // Continue building the edge element if within an edge block
-                            edgeBuilder.append(line);
-                            System.out.println(edgeBuilder);
-                        } else {
-                            // Reset edgeBuilder for the next potential edge
-                            edgeBuilder.setLength(0);
-                        }
-                        ix++; // Increment line index
-                    } else {
-                        // Keep building the edge element
-                        edgeBuilder.append(currentChar);
+        /**
+         * Reads the {@code source} and {@code target} attributes of the edge element at the current position.
+         */
+        private void parseEdge() {
+            while (true) {
+                final var window = this.window;
+                final int limit = this.limit;
+                int i = bx + EDGE.length;
+                int source = -1;
+                int target = -1;
+                boolean complete = false;
+                while (i < limit) {
+                    byte b = window.get(i);
+                    if (isWhitespace(b)) {
+                        i++;
+                        continue;
+                    }
+                    if (b == '>' || b == '/') {
+                        complete = true;
+                        break;
                     }
+                    final int nameStart = i;
+                    while (i < limit && (b = window.get(i)) != '=' && !isWhitespace(b)) i++;
+                    final int nameEnd = i;
+                    while (i < limit && isWhitespace(window.get(i))) i++;
+                    if (i >= limit) break;
+                    if (window.get(i) != '=')
+                        throw Exceptions.illegalState("malformed edge element at byte %d", base + bx);
+                    i++;
+                    while (i < limit && isWhitespace(window.get(i))) i++;
+                    if (i >= limit) break;
+                    final byte quote = window.get(i);
+                    if (quote != '"' && quote != '\'')
+                        throw Exceptions.illegalState("malformed edge element at byte %d", base + bx);
+                    final int valueStart = ++i;
+                    while (i < limit && window.get(i) != quote) i++;
+                    if (i >= limit) break;
+                    if (is(SOURCE, nameStart, nameEnd)) source = vertices.intern(window, valueStart, i);
+                    else if (is(TARGET, nameStart, nameEnd)) target = vertices.intern(window, valueStart, i);
+                    i++;
                 }
-            } catch (Exception e) {
-                throw new RuntimeException("Error processing the next edge: " + e.getMessage(), e);
+                if (!complete) {
+                    // The element crosses the end of the window.
+                    if (base + limit >= input.size())
+                        throw Exceptions.illegalState("truncated edge element at byte %d", base + bx);
+                    if (bx == 0)
+                        throw Exceptions.illegalState("edge element at byte %d exceeds the mapping window", base);
+                    map(base + bx);
+                    continue;
+                }
+                if (source < 0 || target < 0)
+                    throw Exceptions.illegalState("edge element without source or target at byte %d", base + bx);
+                this.source = source;
+                this.target = target;
+                bx = i;
+                return;
+            }
+        }
+
+        private boolean is(final byte[] name, final int from, final int to) {
+            if (to - from != name.length) return false;
+            for (int i = 0; i < name.length; i++) {
+                if (window.get(from + i) != name[i]) return false;
             }
-            closeReader.apply(reader);
-            return false; // If we reach here, no more edges to process or end of file
+            return true;
         }
+    }
 
-        private void processEdge(String edgeData, Fn1.Consumer<? super GraphML.String2StringEdge> action) {
-            Pattern edgePattern = Pattern.compile(
-                    "source=\"(\\w+)\".*?target=\"(\\w+)\"",
-                    Pattern.DOTALL
-            );
+    /**
+     * Implementation of a {@link Traverser} specific to GraphML files, which yields the edges found by an
+     * {@link EdgeScanner} through a single cursor instance.
+     *
+     * @param <E> the type of the edge cursor
+     */
+    static final class GraphMLTraverser<E> extends Traversal.Control.Context implements Traverser<E> {
+        private final EdgeScanner scanner;
+        private final E cursor;
+
+        private GraphMLTraverser(final EdgeScanner scanner, final E cursor) {
+            this.scanner = scanner;
+            this.cursor = cursor;
+        }
 
-            Matcher matcher = edgePattern.matcher(edgeData);
-            if (matcher.find()) {
-                line[0] = matcher.group(1);
-                line[1] = matcher.group(2);
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryNext(Fn1.Consumer<? super E> action) {
+            if (null == action) throw new NullPointerException();
+            if (scanner.advance()) {
                 action.accept(cursor);
+                return true;
             }
+            scanner.close();
+            return false;
         }
 
         /**
          * {@inheritDoc}
          */
         @Override
-        public void forNext(Fn1.Consumer<? super GraphML.String2StringEdge> action) {
-            System.out.println("FOR NEXT");
-            if (action == null) throw new NullPointerException("Action must not be null.");
-
-            StringBuilder edgeBuilder = new StringBuilder();
-            boolean inEdge = false;
-
+        public void forNext(Fn1.Consumer<? super E> action) {
+            if (null == action) throw new NullPointerException();
             try {
-                while (ix < hi) {
-                    if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
-                        if (!readMore()) {
-                            closeReader.apply(reader);
-                            break;  // No more data to read, end of file
-                        }
-                    }
-
-                    // Process character by character
-                    char currentChar = buffer[bx++];
-                    if (currentChar == '\n' || currentChar == '\r' || bx == numCharsRead) {
-                        String line = edgeBuilder.toString().trim();
-                        if (line.contains("<edge") && !inEdge) {
-                            // Start of an edge element
-                            inEdge = true;
-                        }
-                        if (line.contains("/>") && inEdge) {
-                            // Complete edge element read, process it
-                            processEdge(edgeBuilder.toString(), action);
-                            edgeBuilder.setLength(0);  // Reset for the next edge
-                            inEdge = false;
-                        }
-                        if (inEdge) {
-                            // Continue building the edge element if within an edge block
-                            edgeBuilder.append(line);
-                        } else {
-                            // Reset edgeBuilder for the next potential edge
-                            edgeBuilder.setLength(0);
-                        }
-                        ix++; // Increment line index
-                    } else {
-                        // Keep building the edge element
-                        edgeBuilder.append(currentChar);
-                    }
-                }
-            } catch (Exception e) {
-                throw new RuntimeException("Error while processing edges: " + e.getMessage(), e);
+                while (scanner.advance()) action.accept(cursor);
+            } finally {
+                scanner.close();
             }
-            closeReader.apply(reader);
         }
 
         /**
          * {@inheritDoc}
          */
         @Override
-        public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super GraphML.String2StringEdge>> context) {
-            System.out.println("WHILE NEXT");
-
-            // Prepare the action from the context
-            Fn1.Consumer<? super GraphML.String2StringEdge> action = bind(context);
-            StringBuilder edgeBuilder = new StringBuilder();
-            boolean inEdge = false;
-
+        public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super E>> context) {
+            if (null == context) throw new NullPointerException();
             try {
-                while (ix < hi) {
-                    if (bx >= numCharsRead) {  // If buffer is exhausted, reload it
-                        if (!readMore()) {
-                            closeReader.apply(reader);
-                            return Traversal.Status.DONE;  // End of file reached
-                        }
-                    }
-
-                    // Process character by character
-                    char currentChar = buffer[bx++];
-                    if (currentChar == '\n' || currentChar == '\r' || bx == numCharsRead) {
-                        String line = edgeBuilder.toString().trim();
-                        if (line.contains("<edge") && !inEdge) {
-                            // Start of an edge element
-                            inEdge = true;
-                        }
-                        if (line.contains("/>") && inEdge) {
-                            // Complete edge element read, process it
-                            processEdge(edgeBuilder.toString(), action);
-                            edgeBuilder.setLength(0);  // Reset for the next edge
-                            inEdge = false;
-
-                            // Check if the traversal should exit based on the context's control state
-                            if (!active) {
-                                closeReader.apply(reader);
-                                return Traversal.Status.EXIT;
-                            }
-                        }
-                        if (inEdge) {
-                            // Continue building the edge element if within an edge block
-                            edgeBuilder.append(line);
-                        } else {
-                            // Reset edgeBuilder for the next potential edge
-                            edgeBuilder.setLength(0);
-                        }
-                        ix++; // Increment line index
-                    } else {
-                        // Keep building the edge element
-                        edgeBuilder.append(currentChar);
-                    }
+                if (scanner.advance()) {
+                    // Propagate context control state.
+                    final var action = bind(context);
+                    do {
+                        action.accept(cursor);
+                    } while (active && scanner.advance());
+                    if (!active) return Traversal.Status.EXIT;
                 }
-            } catch (Exception e) {
-                throw new RuntimeException("Error while processing edges in whileNext: " + e.getMessage(), e);
-            }
-            closeReader.apply(reader);
-            return Traversal.Status.DONE;  // All data processed or range exceeded
-        }
-
-        private final class Cursor implements GraphML.String2StringEdge {
-            @Override
-            public String source() {
-                return line[0];
-            }
-
-            @Override
-            public String target() {
-                return line[1];
-            }
-        }
-    }
-
-    // TODO integrate
-    private static long countLines(Path path) throws IOException {
-        try (FileChannel fileChannel = (FileChannel) Files.newByteChannel(path, StandardOpenOption.READ)) {
-            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
-            long lines = 0;
-            while (buffer.hasRemaining()) {
-                byte b = buffer.get();
-                if (b == '\n') lines++;
-            }
-            return lines + 1; // Add one because last line does not end with a newline character
-        }
-    }
-
-    // TODO DELETE
-    // Method to print char array contents with the char at a specific index colored
-    private static void debugCharArray(char[] buffer, int index) {
-        if (buffer == null) {
-            System.out.println("Buffer is null");
-            return;
-        }
-
-        System.out.println("char[] Buffer Contents at " + index + "; ");
-
-        // Iterate through the char array
-        for (int i = 0; i < buffer.length; i++) {
-            if (i == index) {
-                // Print the char at the index in red
-                System.out.print("X");
-            } else {
-                // Print the char in default color
-                System.out.print(buffer[i]);
+                return Traversal.Status.DONE;
+            } finally {
+                scanner.close();
             }
         }
-        System.out.println(); // Newline after finishing the buffer
     }
 }
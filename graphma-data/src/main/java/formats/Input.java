@@ -0,0 +1,155 @@
+package formats;
+
+import magma.control.exception.Exceptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static formats.Utils.*;
+import static java.lang.Math.min;
+
+/**
+ * Provides the content of a graph file to the byte parsers as a sequence of windows. A plain file is memory-mapped
+ * window by window; a compressed file is decompressed by a {@link ReadAhead} and its windows are filled from the
+ * decompressed stream, which restricts the windows to move forward only.
+ * <p>
+ * The windows are in little-endian order, as expected by the word reads of {@link Swar}.
+ * </p>
+ */
+abstract class Input implements AutoCloseable {
+
+    // Size of a window over a compressed file.
+    private static final int STREAM_WINDOW = 1 << 23;
+
+    /**
+     * Opens the content of a file.
+     *
+     * @param path the path to the file
+     * @return the mapped content of a plain file or the decompressed content of a compressed file
+     */
+    static Input open(final Path path) {
+        return Compression.isCompressed(path) ? new Streamed(ReadAhead.start(path, true)) : new Mapped(path);
+    }
+
+    /**
+     * Returns the size of the content.
+     *
+     * @return the size in bytes; {@link Long#MAX_VALUE} as long as the end of a compressed file has not been read
+     */
+    abstract long size();
+
+    /**
+     * Provides a window of the content. The window of a compressed file is only valid until the next but one call.
+     *
+     * @param position the position of the first byte of the window
+     * @param length the maximal length of the window
+     * @return the window, which is shorter than the given length only at the end of the content or if the input
+     * restricts the size of its windows
+     */
+    abstract ByteBuffer window(long position, long length);
+
+    @Override
+    public abstract void close();
+
+    /**
+     * The content of a plain file, mapped into memory.
+     */
+    private static final class Mapped extends Input {
+        private final FileChannel channel;
+        private final long size;
+
+        private Mapped(final Path path) {
+            this.channel = openChannel.apply(path);
+            this.size = channelSize.apply(channel);
+        }
+
+        @Override
+        long size() {
+            return size;
+        }
+
+        @Override
+        ByteBuffer window(final long position, final long length) {
+            if (position >= size) return ByteBuffer.allocate(0);
+            return mapWindow.apply(channel, position, min(length, size - position)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public void close() {
+            closeChannel.apply(channel);
+        }
+    }
+
+    /**
+     * The content of a compressed file, read into two alternating heap buffers. A new window takes over the unread
+     * bytes of the previous one, while the window before stays untouched.
+     */
+    private static final class Streamed extends Input {
+        private final InputStream in;
+        private final ByteBuffer[] buffers = new ByteBuffer[2];
+        private int current;
+        private long base;
+        private int limit;
+        private long size = Long.MAX_VALUE;
+
+        private Streamed(final InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        long size() {
+            return size;
+        }
+
+        @Override
+        ByteBuffer window(final long position, final long length) {
+            if (position < base)
+                throw Exceptions.illegalState("compressed input cannot move back from byte %d to byte %d", base, position);
+            final int capacity = (int) min(length, STREAM_WINDOW);
+            final int next = 1 - current;
+            if (buffers[next] == null || buffers[next].capacity() < capacity)
+                buffers[next] = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            final byte[] bytes = buffers[next].array();
+            try {
+                int filled = 0;
+                final long end = base + limit;
+                if (position < end) {
+                    filled = (int) min(end - position, capacity);
+                    System.arraycopy(buffers[current].array(), (int) (position - base), bytes, 0, filled);
+                } else {
+                    for (long skip = position - end; skip > 0 && size == Long.MAX_VALUE; ) {
+                        final int n = in.read(bytes, 0, (int) min(skip, capacity));
+                        if (n < 0) size = position - skip;
+                        else skip -= n;
+                    }
+                }
+                while (filled < capacity && size == Long.MAX_VALUE) {
+                    final int n = in.read(bytes, filled, capacity - filled);
+                    if (n < 0) size = position + filled;
+                    else filled += n;
+                }
+                if (position > size) filled = 0;
+                this.current = next;
+                this.base = position;
+                this.limit = filled;
+                return buffers[next].clear().limit(filled);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
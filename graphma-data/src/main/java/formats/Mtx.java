@@ -2,6 +2,7 @@ package formats;
 
 import magma.adt.control.traversal.Traversal;
 import magma.adt.value.product.Product2;
+import magma.control.exception.Exceptions;
 import magma.control.function.*;
 import magma.control.traversal.Traversable;
 import magma.control.traversal.Traverser;
@@ -10,10 +11,17 @@ import magma.value.index.Range;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static formats.Utils.*;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 /**
@@ -41,6 +49,13 @@ public enum Mtx {
         long target();
     }
 
+    /**
+     * Represents an edge that carries a numerical value, e.g. the weight of a graph edge or the value of a matrix entry.
+     */
+    public interface Long2LongDoubleEdge extends Long2LongEdge {
+        double value();
+    }
+
     /**
      * Creates a traverser to iterate over the edges in an MTX file, starting from a specified position.
      * This method considers only edges within the specified range in the file.
@@ -56,6 +71,118 @@ public enum Mtx {
         return new MtxTraverser(slice, position, mtxPth);
     }
 
+    /**
+     * Creates a traverser to iterate over the edges in an MTX file by parsing a memory-mapped view of the file.
+     * In contrast to {@link #traverse(Path, Range, long)} the entries are parsed straight from the mapped bytes,
+     * i.e. without charset decoding and without copying the content into an intermediate buffer.
+     *
+     * @param mtxPth the path to the MTX file
+     * @param slice the range of entry lines in the file to process
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Long2LongEdge> traverseMapped(Path mtxPth, final Range slice) {
+        return traverseMapped(mtxPth, slice, false);
+    }
+
+    /**
+     * Creates a traverser to iterate over the edges in an MTX file by parsing a memory-mapped view of the file.
+     * If requested, the entries of a {@code symmetric}, {@code skew-symmetric} or {@code hermitian} matrix are
+     * expanded: every off-diagonal entry is followed by its mirrored entry, with the negated value for a
+     * {@code skew-symmetric} matrix, so the edges of the full matrix are yielded in a single pass.
+     *
+     * @param mtxPth the path to the MTX file
+     * @param slice the range of entry lines in the file to process
+     * @param expand whether to mirror the entries of a matrix stored in symmetric form
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Long2LongEdge> traverseMapped(Path mtxPth, final Range slice, final boolean expand) {
+        return edges(traverseWeighted(mtxPth, slice, expand));
+    }
+
+    /**
+     * Creates a traverser like {@link #traverseMapped(Path, Range, boolean)} whose edges are typed as
+     * {@link Long2LongDoubleEdge}s, so the values of the entries can be read without casting the edges.
+     *
+     * @param mtxPth the path to the MTX file
+     * @param slice the range of entry lines in the file to process
+     * @param expand whether to mirror the entries of a matrix stored in symmetric form
+     * @return a {@link Traverser} for valued edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Long2LongDoubleEdge> traverseWeighted(Path mtxPth, final Range slice, final boolean expand) {
+        if (Files.notExists(mtxPth) || Range.isEmpty(slice))
+            return Traverser.empty();
+        return new MappedMtxTraverser(slice, mtxPth, expand);
+    }
+
+    /**
+     * Creates a traverser to iterate over the edges whose entry lines start within the given byte range of an MTX
+     * file. The start offset is snapped to the beginning of the next line, hence adjacent byte ranges yield disjoint
+     * sets of edges and together cover the whole file. Neither the header nor the preceding entries are re-scanned,
+     * so a file can be split into any number of ranges at constant cost per range.
+     *
+     * @param mtxPth the path to the MTX file
+     * @param from the first byte offset of the range (inclusive)
+     * @param to the last byte offset of the range (exclusive)
+     * @return a {@link Traverser} for edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Long2LongEdge> traverseMapped(Path mtxPth, final long from, final long to) {
+        return edges(traverseWeighted(mtxPth, from, to));
+    }
+
+    /**
+     * Creates a traverser like {@link #traverseMapped(Path, long, long)} whose edges are typed as
+     * {@link Long2LongDoubleEdge}s, so the values of the entries can be read without casting the edges.
+     *
+     * @param mtxPth the path to the MTX file
+     * @param from the first byte offset of the range (inclusive)
+     * @param to the last byte offset of the range (exclusive)
+     * @return a {@link Traverser} for valued edges, or an empty traverser if the file does not exist or the range is empty
+     */
+    public static Traverser<Long2LongDoubleEdge> traverseWeighted(Path mtxPth, final long from, final long to) {
+        if (Files.notExists(mtxPth) || from >= to)
+            return Traverser.empty();
+        return new MappedMtxTraverser(from, to, mtxPth, false);
+    }
+
+    /**
+     * Views a traverser of some kind of edges as a traverser of plain edges. A traverser only hands its elements
+     * to the given actions, which accept any edge, hence the view is type safe.
+     *
+     * @param traverser the traverser of the edges
+     * @return the same traverser, typed on {@link Long2LongEdge}
+     */
+    @SuppressWarnings("unchecked")
+    static Traverser<Long2LongEdge> edges(final Traverser<? extends Long2LongEdge> traverser) {
+        return (Traverser<Long2LongEdge>) traverser;
+    }
+
+    /**
+     * Splits an MTX file into the given number of byte ranges of (roughly) equal size. Each part is backed by
+     * {@link #traverseMapped(Path, long, long)} and its traversers are independent of each other, so the parts
+     * can be consumed concurrently, e.g. one part per core. A compressed file cannot be entered in the middle,
+     * its first part holds all edges and the other parts are empty.
+     *
+     * @param mtxPth the path to the MTX file
+     * @param parts the number of parts
+     * @return a list of {@link Traversable}s that together yield every edge of the file exactly once
+     */
+    public static List<Traversable<Long2LongEdge>> split(Path mtxPth, final int parts) {
+        if (parts < 1) throw Exceptions.illegalArgument("parts must be positive: %d", parts);
+        final long size = Files.exists(mtxPth) ? Fn.checked(() -> Files.size(mtxPth)).apply() : 0L;
+        final List<Traversable<Long2LongEdge>> splits = new ArrayList<>(parts);
+        if (size > 0 && Compression.isCompressed(mtxPth)) {
+            splits.add(() -> Mtx.traverseMapped(mtxPth, 0L, Long.MAX_VALUE));
+            for (int i = 1; i < parts; i++) splits.add(Traverser::empty);
+            return splits;
+        }
+        for (int i = 0; i < parts; i++) {
+            final long from = size * i / parts;
+            final long to = size * (i + 1) / parts;
+            splits.add(() -> Mtx.traverseMapped(mtxPth, from, to));
+        }
+        return splits;
+    }
+
     /**
      * Record to encapsulate an MTX file's metadata and provide a method to create a traverser for its content.
      */
@@ -63,6 +190,50 @@ public enum Mtx {
         public Traverser<Mtx.Long2LongEdge> traverse() {
             return Mtx.traverse(pth, Range.of(0, lines), 0);
         }
+
+        /**
+         * Provides a view of this file whose traversers parse the memory-mapped file content.
+         * @return a {@link Traversable} for edges backed by {@link Mtx#traverseMapped(Path, Range)}
+         */
+        public Traversable<Mtx.Long2LongEdge> mapped() {
+            return () -> Mtx.traverseMapped(pth, Range.of(0, lines));
+        }
+
+        /**
+         * Provides a view of this file whose traversers parse the memory-mapped file content and expand a matrix
+         * stored in symmetric form into all of its entries.
+         * @return a {@link Traversable} for edges backed by {@link Mtx#traverseMapped(Path, Range, boolean)}
+         */
+        public Traversable<Mtx.Long2LongEdge> expanded() {
+            return () -> Mtx.traverseMapped(pth, Range.of(0, lines), true);
+        }
+
+        /**
+         * Provides a view of this file like {@link #mapped()} whose edges carry the values of the entries.
+         * @return a {@link Traversable} for valued edges backed by {@link Mtx#traverseWeighted(Path, Range, boolean)}
+         */
+        public Traversable<Mtx.Long2LongDoubleEdge> weighted() {
+            return weighted(false);
+        }
+
+        /**
+         * Provides a view of this file whose edges carry the values of the entries, optionally expanding a matrix
+         * stored in symmetric form like {@link #expanded()}.
+         * @param expand whether to mirror the entries of a matrix stored in symmetric form
+         * @return a {@link Traversable} for valued edges backed by {@link Mtx#traverseWeighted(Path, Range, boolean)}
+         */
+        public Traversable<Mtx.Long2LongDoubleEdge> weighted(final boolean expand) {
+            return () -> Mtx.traverseWeighted(pth, Range.of(0, lines), expand);
+        }
+
+        /**
+         * Splits this file into the given number of independently traversable parts.
+         * @param parts the number of parts
+         * @return the parts as produced by {@link Mtx#split(Path, int)}
+         */
+        public List<Traversable<Mtx.Long2LongEdge>> split(int parts) {
+            return Mtx.split(pth, parts);
+        }
     }
 
     /**
@@ -81,9 +252,11 @@ public enum Mtx {
         private long entries;
 
 
-        private final char[] buffer;
+        private char[] buffer;
         private int numCharsRead;
         private int bx;
+        private int eol; // line feed of the current line, or numCharsRead at the end of the file
+        private boolean eof;
 
         private final long[] line = new long[2];
 
@@ -102,7 +275,7 @@ public enum Mtx {
             this.buffer = new char[8192];
             this.bx = 0;
 
-            this.numCharsRead = readBuffer.apply(reader, buffer);
+            this.numCharsRead = max(0, readBuffer.apply(reader, buffer));
             initHeader();
 
             for (long i = 0; i < pos; i++) {
@@ -112,11 +285,6 @@ public enum Mtx {
             this.lo = Range.lo(slice);
             this.hi = min(Range.hi(slice), entries);
             this.sx = this.ix = pos;
-//            System.out.println("HI: " + Range.hi(slice));
-//            System.out.println("LO: " + lo);
-//            System.out.println("HI: " + hi);
-//            System.out.println("IX: " + ix);
-//            System.out.println("SYMMETRY: " + entries);
         }
 
         /**
@@ -124,44 +292,44 @@ public enum Mtx {
          * This sets up the subsequent parsing operations by moving the buffer to the start of the data entries.
          */
         private void initHeader() {
-            while (bx < numCharsRead && buffer[bx] == '%') {
+            ensureLine();
+            while (bx < eol && buffer[bx] == '%') {
                 moveToNextLine();
+                ensureLine();
             }
 
-            int start = bx;
-            int end = findSpaceOrNewLine(buffer, start);
-            rows = parseLong(buffer, start, end);
-
-            start = end + 1;
-            end = findSpaceOrNewLine(buffer, start);
-            cols = parseLong(buffer, start, end);
-
-            start = end + 1;
-            end = findSpaceOrNewLine(buffer, start);
-            entries = parseLong(buffer, start, end);
+            rows = parseLong();
+            cols = parseLong();
+            entries = parseLong();
 
             moveToNextLine();
         }
 
-        private int findSpaceOrNewLine(char[] chars, int start) {
-            for (int i = start; i < numCharsRead; i++) {
-                if (chars[i] == ' ' || chars[i] == '\n') {
-                    return i;
-                }
+        /**
+         * Makes sure that the current line is complete in the buffer and finds its end. A line that crosses the end
+         * of the buffer is moved to the front of the buffer before the next characters are read behind it.
+         */
+        private void ensureLine() {
+            int i = bx;
+            while (true) {
+                while (i < numCharsRead && buffer[i] != '\n') i++;
+                if (i < numCharsRead || eof) break;
+                final int rest = numCharsRead - bx;
+                if (bx == 0) buffer = Arrays.copyOf(buffer, 2 * buffer.length); // the line is longer than the buffer
+                else System.arraycopy(buffer, bx, buffer, 0, rest);
+                i -= bx;
+                bx = 0;
+                final int read = readMore.apply(reader, buffer, rest);
+                if (read < 0) eof = true;
+                numCharsRead = rest + max(0, read);
             }
-            return numCharsRead;
+            eol = i;
         }
 
         private void moveToNextLine() {
-            while (bx < numCharsRead && buffer[bx] != '\n') {
-                bx++;
-            }
-            bx++;
+            ensureLine();
+            bx = eol + 1;
             ix++;
-            if (bx >= numCharsRead) {
-                numCharsRead = readBuffer.apply(reader, buffer);
-                bx = 0;
-            }
         }
 
         private final class Cursor implements Long2LongEdge {
@@ -169,27 +337,41 @@ public enum Mtx {
             @Override public long target() { return line[1]; }
         }
 
-        private long parseLong(char[] chars, int start, int end) {
-            long result = 0;
-            boolean negative = false;
-            int i = start;
+        // Parses the next blank separated number of the current line.
+        private long parseLong() {
+            final char[] chars = this.buffer;
+            final int end = this.eol;
+            int i = bx;
+            char c;
+            while (i < end && ((c = chars[i]) == ' ' || c == '\t')) i++;
 
-            if (chars[i] == '-') {
+            boolean negative = false;
+            if (i < end && chars[i] == '-') {
                 negative = true;
                 i++;
             }
 
-            for (; i < end; i++) {
-                if (chars[i] < '0' || chars[i] > '9') {
-                    System.out.println(String.copyValueOf(chars));
-                    throw new NumberFormatException("Invalid character: " + chars[i]);
-                }
-                result = result * 10 + (chars[i] - '0');
+            long result = 0;
+            while (i < end && (c = chars[i]) >= '0' && c <= '9') {
+                result = result * 10 + (c - '0');
+                i++;
+            }
+            if (i < end && (c = chars[i]) != ' ' && c != '\t' && c != '\r') {
+                throw new NumberFormatException("Invalid character: " + c);
             }
 
+            bx = i;
             return negative ? -result : result;
         }
 
+        private void readEntry() {
+            ensureLine();
+            line[0] = parseLong();
+            line[1] = parseLong();
+            bx = eol + 1;
+            ix++;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -198,16 +380,7 @@ public enum Mtx {
 //            System.out.println("TRY NEXT");
             if (null == action) throw new NullPointerException();
             if (ix < hi) {
-                final long[] line = this.line;
-                int start = bx;
-                int end = findSpaceOrNewLine(buffer, start);
-                line[0] = parseLong(buffer, start, end);
-
-                start = end + 1;
-                end = findSpaceOrNewLine(buffer, start);
-                line[1] = parseLong(buffer, start, end);
-
-                moveToNextLine();
+                readEntry();
                 action.accept(cursor);
                 return true;
             }
@@ -222,23 +395,17 @@ public enum Mtx {
         public void forNext(Fn1.Consumer<? super Long2LongEdge> action) {
 //            System.out.println("FOR NEXT");
             if (null == action) throw new NullPointerException();
-            if (this.ix < this.hi) {
-                do {
-                    final long[] line = this.line;
-                    int start = bx;
-                    int end = findSpaceOrNewLine(buffer, start);
-                    line[0] = parseLong(buffer, start, end);
-
-                    start = end + 1;
-                    end = findSpaceOrNewLine(buffer, start);
-                    line[1] = parseLong(buffer, start, end);
-
-                    moveToNextLine();
-                    action.accept(cursor);
+            try {
+                if (this.ix < this.hi) {
+                    do {
+                        readEntry();
+                        action.accept(cursor);
+                    }
+                    while (ix < hi);
                 }
-                while (ix < hi);
+            } finally {
+                closeReader.apply(reader);
             }
-            closeReader.apply(reader);
         }
 
         /**
@@ -248,31 +415,381 @@ public enum Mtx {
         public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super Long2LongEdge>> context) {
 //            System.out.println("WHILE NEXT");
             if (null == context) throw new NullPointerException();
-            // Hoist boundary checks, state and array accesses.
-            if (this.ix < this.hi) {
-                final var reader = this.reader;
-                // Propagate context control state.
-                final var action = bind(context);
-                do {
-                    final long[] line = this.line;
-                    int start = bx;
-                    int end = findSpaceOrNewLine(buffer, start);
-                    line[0] = parseLong(buffer, start, end);
-
-                    start = end + 1;
-                    end = findSpaceOrNewLine(buffer, start);
-                    line[1] = parseLong(buffer, start, end);
-
-                    moveToNextLine();
+            try {
+                // Hoist boundary checks, state and array accesses.
+                if (this.ix < this.hi) {
+                    // Propagate context control state.
+                    final var action = bind(context);
+                    do {
+                        readEntry();
+                        action.accept(cursor);
+                    } while (active && ix < hi);
+                    if (!active) return Traversal.Status.EXIT;
+                }
+                return Traversal.Status.DONE;
+            } finally {
+                closeReader.apply(reader);
+            }
+        }
+    }
+
+    /**
+     * Implementation of a {@link Traverser} specific to MTX files that parses the edges from a memory-mapped view
+     * of the file. The digits are accumulated directly from the mapped bytes, there is no charset decoding and no
+     * intermediate copy of the file content.
+     * <p>
+     * A single {@link MappedByteBuffer} is limited to 2 GB, hence the file is mapped window by window. Whenever the
+     * remaining bytes of the current window might not hold a complete entry line, the window is moved forward.
+     * A compressed file is read through the windows of its decompressed content, see {@link Input}.
+     * </p>
+     * <p>
+     * The {@code %%MatrixMarket} banner determines the field and the symmetry of the entries. The cursor is a
+     * {@link Long2LongDoubleEdge}, whose value is parsed from the mapped bytes only when it is requested; the
+     * entries of a {@code pattern} matrix have the value 1. For a {@code complex} matrix the value is the real part.
+     * </p>
+     */
+    static final class MappedMtxTraverser extends Traversal.Control.Context implements Traverser<Long2LongDoubleEdge> {
+        // Size of a single mapping window.
+        private static final long WINDOW = 1L << 30;
+        // Bytes that must be left in a window before an entry line is parsed.
+        private static final int SLACK = 1 << 16;
+        private static final byte[] BANNER = "%%MatrixMarket".getBytes(StandardCharsets.US_ASCII);
+
+        private final MappedMtxTraverser.Cursor cursor;
+        private final Input input;
+        private final long end;
+        private final long lo;
+        private final long hi;
+        private long ix; // entry line in den daten
+
+        private long rows;
+        private long cols;
+        private long entries;
+
+        private ByteBuffer window;
+        private long base;
+        private int limit;
+        private int bx;
+
+        private final long[] line = new long[2];
+
+        // Banner: whether the entries have values, and the sign of the value of a mirrored entry (0 = no mirroring).
+        private boolean dense;
+        private boolean valued;
+        private int mirror;
+        private final boolean expand;
+
+        // Current edge; the value is parsed lazily from the position recorded by readEntry.
+        private long source;
+        private long target;
+        private double sign;
+        private boolean pending;
+        private ByteBuffer valueWindow;
+        private int valueIndex;
+        private boolean valueParsed;
+        private double value;
+
+        /**
+         * Constructs a MappedMtxTraverser to parse edges from an MTX file.
+         * This constructor maps the first window of the file, parses the header and skips all entry lines
+         * in front of the given slice.
+         *
+         * @param slice the range of entry lines to read
+         * @param path the path to the MTX file
+         * @param expand whether to mirror the entries of a matrix stored in symmetric form
+         */
+        private MappedMtxTraverser(final Range slice, final Path path, final boolean expand) {
+            this.cursor = new MappedMtxTraverser.Cursor();
+            this.expand = expand;
+            this.input = Input.open(path);
+            this.end = Long.MAX_VALUE;
+
+            map(0L);
+            initHeader();
+
+            this.lo = slice.lo();
+            this.hi = min(slice.hi(), entries);
+            while (ix < lo && available()) {
+                moveToNextLine();
+                ix++;
+            }
+        }
+
+        /**
+         * Constructs a MappedMtxTraverser that parses all entry lines starting within the given byte range.
+         * The start offset is snapped forward to the beginning of the next line, unless it already is a line
+         * start, so adjacent byte ranges partition the entry lines of the file without gaps and overlaps.
+         *
+         * @param from the first byte offset of the range (inclusive)
+         * @param to the last byte offset of the range (exclusive)
+         * @param path the path to the MTX file
+         * @param expand whether to mirror the entries of a matrix stored in symmetric form
+         */
+        private MappedMtxTraverser(final long from, final long to, final Path path, final boolean expand) {
+            this.cursor = new MappedMtxTraverser.Cursor();
+            this.expand = expand;
+            this.input = Input.open(path);
+            this.end = to;
+
+            map(0L);
+            initHeader();
+
+            this.lo = 0L;
+            this.hi = Long.MAX_VALUE;
+            final long start = base + bx;
+            if (from > start && from < end) {
+                map(from - 1);
+                moveToNextLine();
+            } else if (from >= end) {
+                map(max(end, start));
+            }
+        }
+
+        /**
+         * Parses the banner, skips the comment lines and parses the matrix dimensions and the number of edges
+         * (non-zero entries).
+         */
+        private void initHeader() {
+            if (startsWith(BANNER)) {
+                bx += BANNER.length;
+                final String object = nextToken();
+                final String format = nextToken();
+                final String field = nextToken();
+                final String symmetry = nextToken();
+                // A dense matrix or a vector has no coordinates, hence no edges.
+                dense = !object.equals("matrix") || !format.equals("coordinate");
+                valued = switch (field) {
+                    case "pattern", "" -> false;
+                    case "real", "double", "integer", "complex" -> true;
+                    default -> throw Exceptions.illegalArgument("unsupported MatrixMarket field %s", field);
+                };
+                mirror = switch (symmetry) {
+                    case "general", "" -> 0;
+                    case "symmetric", "hermitian" -> 1;
+                    case "skew-symmetric" -> -1;
+                    default -> throw Exceptions.illegalArgument("unsupported MatrixMarket symmetry %s", symmetry);
+                };
+                moveToNextLine();
+            }
+            while (base + bx < input.size() && bx < limit && window.get(bx) == '%') {
+                moveToNextLine();
+            }
+            ensureLine();
+            rows = parseLong();
+            cols = parseLong();
+            entries = parseLong();
+            moveToNextLine();
+        }
+
+        private boolean startsWith(final byte[] prefix) {
+            if (limit - bx < prefix.length) return false;
+            for (int i = 0; i < prefix.length; i++) {
+                if (window.get(bx + i) != prefix[i]) return false;
+            }
+            return true;
+        }
+
+        // Reads the next blank separated token of the current line in lower case.
+        private String nextToken() {
+            byte b;
+            while (bx < limit && ((b = window.get(bx)) == ' ' || b == '\t')) bx++;
+            final var token = new StringBuilder();
+            while (bx < limit && (b = window.get(bx)) != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                token.append(Character.toLowerCase((char) b));
+                bx++;
+            }
+            return token.toString();
+        }
+
+        private void map(final long position) {
+            this.window = input.window(position, WINDOW);
+            this.base = position;
+            this.limit = window.limit();
+            this.bx = 0;
+        }
+
+        private boolean available() {
+            final long position = base + bx;
+            return position < end && position < input.size();
+        }
+
+        private void ensureLine() {
+            if (limit - bx < SLACK && base + limit < input.size()) {
+                map(base + bx);
+            }
+        }
+
+        private void moveToNextLine() {
+            while (true) {
+                final var window = this.window;
+                while (bx + 8 <= limit) {
+                    final int n = Swar.newLineIndex(window.getLong(bx));
+                    bx += n;
+                    if (n < 8) break;
+                }
+                while (bx < limit && window.get(bx) != '\n') {
+                    bx++;
+                }
+                if (bx < limit || base + limit >= input.size()) break;
+                map(base + bx); // line crosses the window boundary
+            }
+            bx++;
+        }
+
+        private long parseLong() {
+            final var window = this.window;
+            final int limit = this.limit;
+            int i = bx;
+            byte b;
+            while (i < limit && ((b = window.get(i)) == ' ' || b == '\t')) {
+                i++;
+            }
+
+            boolean negative = false;
+            if (i < limit && window.get(i) == '-') {
+                negative = true;
+                i++;
+            }
+
+            // Eight characters at a time while a whole word is left, the tail one at a time.
+            long result = 0;
+            while (i + 8 <= limit) {
+                final long word = window.getLong(i);
+                final int count = Swar.digitCount(word);
+                result = result * Swar.powerOfTen(count) + Swar.digitValue(word, count);
+                i += count;
+                if (count < 8) break;
+            }
+            while (i < limit && (b = window.get(i)) >= '0' && b <= '9') {
+                result = result * 10 + (b - '0');
+                i++;
+            }
+            if (i < limit && (b = window.get(i)) != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                throw new NumberFormatException("Invalid character: " + (char) b);
+            }
+
+            bx = i;
+            return negative ? -result : result;
+        }
+
+        /**
+         * Skips the blank lines in front of the next entry line, e.g. the trailing newlines of a file. In byte range
+         * mode the number of entries does not bound the lines, so a blank line would otherwise be read as an entry.
+         *
+         * @return false if no entry line is left in the range
+         */
+        private boolean skipBlankLines() {
+            while (available()) {
+                ensureLine();
+                int i = bx;
+                byte b = '\n';
+                while (i < limit && ((b = window.get(i)) == ' ' || b == '\t')) i++;
+                if (i < limit && b != '\n' && b != '\r') return true;
+                moveToNextLine();
+            }
+            return false;
+        }
+
+        private void readEntry() {
+            ensureLine();
+            line[0] = parseLong();
+            line[1] = parseLong();
+            if (valued) {
+                valueWindow = window;
+                valueIndex = bx;
+                valueParsed = false;
+            }
+            moveToNextLine();
+            ix++;
+        }
+
+        /**
+         * Moves to the next edge, which is either the mirror of the previous entry or the next entry line.
+         *
+         * @return false if all entries have been read
+         */
+        private boolean advance() {
+            if (pending) {
+                pending = false;
+                source = line[1];
+                target = line[0];
+                sign = mirror;
+                return true;
+            }
+            if (ix < hi && available() && !dense && (hi != Long.MAX_VALUE || skipBlankLines())) {
+                readEntry();
+                source = line[0];
+                target = line[1];
+                sign = 1.0;
+                pending = expand && mirror != 0 && source != target;
+                return true;
+            }
+            return false;
+        }
+
+        private double value() {
+            if (!valued) return 1.0;
+            if (!valueParsed) {
+                value = parseDouble(valueWindow, valueIndex, valueWindow.limit());
+                valueParsed = true;
+            }
+            return sign * value;
+        }
+
+        private final class Cursor implements Long2LongDoubleEdge {
+            @Override public long source() { return source; }
+            @Override public long target() { return target; }
+            @Override public double value() { return MappedMtxTraverser.this.value(); }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryNext(Fn1.Consumer<? super Long2LongDoubleEdge> action) {
+            if (null == action) throw new NullPointerException();
+            if (advance()) {
+                action.accept(cursor);
+                return true;
+            }
+            input.close();
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forNext(Fn1.Consumer<? super Long2LongDoubleEdge> action) {
+            if (null == action) throw new NullPointerException();
+            try {
+                while (advance()) {
                     action.accept(cursor);
-                } while (active && ix < hi);
-                if (!active) {
-                    closeReader.apply(reader);
-                    return Traversal.Status.EXIT;
                 }
+            } finally {
+                input.close();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super Long2LongDoubleEdge>> context) {
+            if (null == context) throw new NullPointerException();
+            try {
+                if (advance()) {
+                    // Propagate context control state.
+                    final var action = bind(context);
+                    do {
+                        action.accept(cursor);
+                    } while (active && advance());
+                    if (!active) return Traversal.Status.EXIT;
+                }
+                return Traversal.Status.DONE;
+            } finally {
+                input.close();
             }
-            closeReader.apply(reader);
-            return Traversal.Status.DONE;
         }
     }
 }
@@ -0,0 +1,171 @@
+package formats;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static java.lang.Math.min;
+
+/**
+ * Reads a file on a background thread, a few chunks ahead of the reader. While the parser works on the current
+ * chunk, the next chunks are read (and decompressed, for a compressed file), so the parse loop does not stall on
+ * I/O latency, e.g. of network-attached storage. The chunks are recycled once they have been read.
+ * <p>
+ * The background thread ends when the file is read or the stream is closed. It never waits for room in the queue
+ * longer than a short interval without checking whether the stream was closed, and a stream that is dropped
+ * without being closed, e.g. by a traversal that was abandoned, is closed when it is garbage collected. An
+ * orphaned thread hence neither holds the file open nor keeps its chunks.
+ * </p>
+ */
+final class ReadAhead extends InputStream {
+    // Bytes per chunk handed from the background thread to the reader.
+    private static final int CHUNK = 1 << 18;
+    // Chunks read ahead of the reader.
+    private static final int AHEAD = 4;
+    // Time between the checks for a closed stream while the queue is full.
+    private static final long IDLE = TimeUnit.MILLISECONDS.toNanos(100);
+    // Closes the streams that become unreachable without being closed.
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private record Chunk(byte[] bytes, int length) {}
+
+    private static final Chunk END = new Chunk(new byte[0], 0);
+
+    private final Producer producer;
+    private final Cleaner.Cleanable cleanable;
+
+    private Chunk current;
+    private int position;
+
+    private ReadAhead(final Path path, final boolean compressed) {
+        this.producer = new Producer(path, compressed);
+        // The producer must not refer to this stream, otherwise the stream never becomes unreachable.
+        this.cleanable = CLEANER.register(this, producer::close);
+    }
+
+    /**
+     * Starts to read a file.
+     *
+     * @param path the path to the file
+     * @param compressed whether the file is gzip compressed
+     * @return the stream of the (decompressed) content
+     */
+    static ReadAhead start(final Path path, final boolean compressed) {
+        final var readAhead = new ReadAhead(path, compressed);
+        readAhead.producer.thread.start();
+        return readAhead;
+    }
+
+    private boolean fill() throws IOException {
+        if (current != null && position < current.length()) return true;
+        if (current == END) return false;
+        if (producer.closed) throw new IOException("stream closed");
+        if (current != null) producer.free.offer(current.bytes());
+        try {
+            current = producer.chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + producer.path);
+        }
+        position = 0;
+        if (current == END && producer.failure != null) throw producer.failure;
+        return current != END;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return fill() ? current.bytes()[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) return 0;
+        if (!fill()) return -1;
+        final int n = min(length, current.length() - position);
+        System.arraycopy(current.bytes(), position, bytes, offset, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current != null ? current.length() - position : 0;
+    }
+
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+
+    /**
+     * The background thread and the state it shares with the reader.
+     */
+    private static final class Producer implements Runnable {
+        private final Path path;
+        private final boolean compressed;
+        private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(AHEAD);
+        private final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(AHEAD + 2);
+        private final Thread thread;
+        private volatile boolean closed;
+        private IOException failure; // published by the END chunk
+
+        private Producer(final Path path, final boolean compressed) {
+            this.path = path;
+            this.compressed = compressed;
+            this.thread = new Thread(this, "graphma-read-ahead");
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try (InputStream in = compressed
+                    ? new GZIPInputStream(Files.newInputStream(path), 1 << 16)
+                    : Files.newInputStream(path)) {
+                while (!closed) {
+                    byte[] bytes = free.poll();
+                    if (bytes == null) bytes = new byte[CHUNK];
+                    final int length = in.readNBytes(bytes, 0, CHUNK);
+                    if (length > 0 && !offer(new Chunk(bytes, length))) return;
+                    if (length < CHUNK) break;
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                return; // closed by the reader
+            }
+            try {
+                offer(END);
+            } catch (InterruptedException e) {
+                // closed by the reader
+            }
+        }
+
+        /**
+         * Hands a chunk to the reader, waiting while the queue is full.
+         *
+         * @return false if the stream was closed before the chunk was taken over
+         */
+        private boolean offer(final Chunk chunk) throws InterruptedException {
+            while (!closed) {
+                if (chunks.offer(chunk, IDLE, TimeUnit.NANOSECONDS)) return true;
+            }
+            return false;
+        }
+
+        private void close() {
+            closed = true;
+            thread.interrupt();
+            chunks.clear();
+            free.clear();
+        }
+    }
+}
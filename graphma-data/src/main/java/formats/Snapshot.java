@@ -0,0 +1,526 @@
+package formats;
+
+import magma.adt.control.traversal.Traversal;
+import magma.control.exception.Exceptions;
+import magma.control.function.Fn1;
+import magma.control.traversal.Traversable;
+import magma.control.traversal.Traverser;
+import magma.data.sequence.operator.Operator;
+import magma.data.sequence.pipeline.Composer;
+import magma.data.sequence.pipeline.Pipe;
+import magma.data.sequence.pipeline.Pipeline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import static formats.Utils.*;
+
+/**
+ * Provides a binary snapshot format for graphs, which is reloaded by memory-mapping instead of parsing text.
+ * A snapshot stores the graph in compressed sparse row (CSR) layout with the vertices sorted by descending degree,
+ * so the adjacency of the high degree vertices lies at the front of the file.
+ * <p>
+ * All numbers are little-endian. The file starts with a header of {@value #HEADER} bytes:
+ * </p>
+ * <pre>
+ *  0  magic "GMACSR\0\0"     8  version (int)          12  flags (int: 1 = directed, 2 = weighted)
+ * 16  vertices (long)       24  entries (long)        32  edges (long)
+ * 40  CRC32C of all bytes after the header (long)     48  reserved
+ * </pre>
+ * <p>
+ * followed by the sections {@code long ids[vertices]} with the original vertex id of every CSR index,
+ * {@code long offsets[vertices + 1]}, {@code int neighbors[entries]} padded to 8 bytes and, for weighted graphs,
+ * {@code double weights[entries]}. An undirected graph stores every edge in the adjacency of both end points, a
+ * directed graph in the adjacency of its source only; the adjacencies are sorted by CSR index.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * ForNext.build(System.out::println)
+ *                 .compose(Snapshot.writer((Mtx.MTXFile mtx) -> dir.resolve(mtx.pth().getFileName() + ".gcsr"), false))
+ *                 .apply(DataSource.of(SSDB.SMALL))
+ *                 .evaluate();
+ *
+ * Snapshot.open(dir.resolve("karate.mtx.gcsr")).forEach(edge -> ...);
+ * }
+ * </pre>
+ */
+public enum Snapshot {
+    ;
+
+    /** The size of the header in bytes. */
+    public static final int HEADER = 64;
+
+    /** The current version of the format. */
+    public static final int VERSION = 1;
+
+    private static final long MAGIC = 0x000052534341_4D47L; // "GMACSR\0\0" read as a little-endian long
+    private static final int DIRECTED = 1;
+    private static final int WEIGHTED = 2;
+
+    // Size of a single mapping window; a multiple of every element size, so no element crosses a window.
+    private static final int WINDOW_SHIFT = 30;
+
+    /**
+     * Creates a pipeline stage that writes every traversable collection of edges into a snapshot and yields the
+     * written snapshot. Edges implementing {@link Mtx.Long2LongDoubleEdge}, e.g. those of {@link Mtx.MTXFile#weighted()},
+     * are stored with their values as weights, unless all values are 1.
+     *
+     * @param destination the function determining the snapshot file of each collection
+     * @param directed whether the edges are directed
+     * @param <A> The traversable collection type containing the edges.
+     * @param <P> The pipeline type extending {@link Pipeline}.
+     * @return A {@link Composer} that, when applied, returns a {@link Pipeline.Stage} for writing snapshots.
+     */
+    public static <A extends Traversable<? extends Mtx.Long2LongEdge>, P extends Pipeline<?, ?>>
+    Composer<P, Pipeline.Stage<SnapshotFile, P>> writer(final Fn1<? super A, Path> destination, final boolean directed) {
+
+        final class _SnapshotWriter extends Pipeline.AbstractBase<P> implements Pipeline.Stage<SnapshotFile, P> {
+
+            private _SnapshotWriter(final P tail) { super(tail); }
+
+            @Override
+            public Pipe<A> apply(final Pipe<SnapshotFile> out) {
+
+                final class WritingStage extends Operator.Transform<A, SnapshotFile> {
+
+                    private WritingStage(final Pipe<SnapshotFile> out) {
+                        super(out);
+                    }
+
+                    @Override
+                    public void onNext(final long index, final A next) {
+                        this.yield(write(next, destination.apply(next), directed));
+                    }
+                }
+                return new WritingStage(out);
+            }
+        }
+        return _SnapshotWriter::new;
+    }
+
+    /**
+     * Writes the given edges into a snapshot file, which is created or overwritten. The vertices are the distinct
+     * ids of the edge end points; duplicate edges are kept. The values of {@link Mtx.Long2LongDoubleEdge}s are
+     * stored as weights, unless all values are 1.
+     *
+     * @param edges the edges of the graph
+     * @param file the snapshot file
+     * @param directed whether the edges are directed
+     * @return the written snapshot
+     */
+    public static SnapshotFile write(final Traversable<? extends Mtx.Long2LongEdge> edges, final Path file, final boolean directed) {
+        final var list = new EdgeList();
+        edges.forEach(list::add);
+        final int m = list.size;
+
+        // Dense indices of the distinct vertex ids.
+        final long[] ids = new long[2 * m];
+        System.arraycopy(list.sources, 0, ids, 0, m);
+        System.arraycopy(list.targets, 0, ids, m, m);
+        Arrays.sort(ids);
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) ids[n++] = ids[i];
+        }
+        final int[] sources = new int[m];
+        final int[] targets = new int[m];
+        final int[] degrees = new int[n];
+        for (int e = 0; e < m; e++) {
+            final int u = sources[e] = Arrays.binarySearch(ids, 0, n, list.sources[e]);
+            final int v = targets[e] = Arrays.binarySearch(ids, 0, n, list.targets[e]);
+            degrees[u]++;
+            if (!directed && u != v) degrees[v]++;
+        }
+
+        // Rank the vertices by descending degree, ties by ascending id, with a counting sort.
+        int maxDegree = 0;
+        for (int d : degrees) maxDegree = Math.max(maxDegree, d);
+        final int[] buckets = new int[maxDegree + 2];
+        for (int d : degrees) buckets[maxDegree - d + 1]++;
+        for (int i = 1; i < buckets.length; i++) buckets[i] += buckets[i - 1];
+        final int[] rank = new int[n];
+        final long[] rankedIds = new long[n];
+        for (int v = 0; v < n; v++) {
+            final int r = rank[v] = buckets[maxDegree - degrees[v]]++;
+            rankedIds[r] = ids[v];
+        }
+
+        // Scatter the adjacency entries.
+        final long[] offsets = new long[n + 1];
+        for (int v = 0; v < n; v++) offsets[rank[v] + 1] = degrees[v];
+        for (int r = 0; r < n; r++) offsets[r + 1] += offsets[r];
+        final long entries = offsets[n];
+        if (entries > Integer.MAX_VALUE - 8)
+            throw Exceptions.illegalState("%d adjacency entries exceed the capacity of the snapshot writer", entries);
+        final int[] cursor = new int[n];
+        for (int r = 0; r < n; r++) cursor[r] = (int) offsets[r];
+        final int[] neighbors = new int[(int) entries];
+        final double[] weights = list.weighted ? new double[(int) entries] : null;
+        for (int e = 0; e < m; e++) {
+            final int u = rank[sources[e]];
+            final int v = rank[targets[e]];
+            final int i = cursor[u]++;
+            neighbors[i] = v;
+            if (weights != null) weights[i] = list.values[e];
+            if (!directed && u != v) {
+                final int j = cursor[v]++;
+                neighbors[j] = u;
+                if (weights != null) weights[j] = list.values[e];
+            }
+        }
+        sortAdjacencies(offsets, neighbors, weights, maxDegree);
+
+        long edgeCount = 0;
+        for (int r = 0; r < n; r++) {
+            for (int i = (int) offsets[r]; i < offsets[r + 1]; i++) {
+                if (directed || r <= neighbors[i]) edgeCount++;
+            }
+        }
+
+        final int flags = (directed ? DIRECTED : 0) | (weights != null ? WEIGHTED : 0);
+        writeFile(file, flags, rankedIds, offsets, neighbors, weights, edgeCount);
+        return new SnapshotFile(file, n, entries, edgeCount, directed, weights != null);
+    }
+
+    /**
+     * Opens a snapshot file, validating its header and checksum.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     */
+    public static SnapshotFile open(final Path file) {
+        return open(file, true);
+    }
+
+    /**
+     * Opens a snapshot file, validating its header and, optionally, its checksum.
+     *
+     * @param file the snapshot file
+     * @param verify whether to compare the checksum against the content, which reads the whole file
+     * @return the snapshot
+     */
+    public static SnapshotFile open(final Path file, final boolean verify) {
+        final var channel = openChannel.apply(file);
+        try {
+            final long size = channelSize.apply(channel);
+            if (size < HEADER) throw Exceptions.illegalArgument("not a snapshot file: %s", file);
+            final var header = mapWindow.apply(channel, 0L, (long) HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getLong(0) != MAGIC) throw Exceptions.illegalArgument("not a snapshot file: %s", file);
+            if (header.getInt(8) != VERSION)
+                throw Exceptions.illegalArgument("unsupported snapshot version %d: %s", header.getInt(8), file);
+            final int flags = header.getInt(12);
+            final long vertices = header.getLong(16);
+            final long entries = header.getLong(24);
+            final boolean weighted = (flags & WEIGHTED) != 0;
+            if (vertices < 0 || vertices > Integer.MAX_VALUE || entries < 0
+                    || size != layout(vertices, entries, weighted)[4])
+                throw Exceptions.illegalArgument("corrupt snapshot header: %s", file);
+            if (verify) {
+                final var pages = map(channel, size);
+                final var crc = new CRC32C();
+                for (int i = 0; i < pages.length; i++) {
+                    final var page = pages[i].duplicate();
+                    if (i == 0) page.position(HEADER);
+                    crc.update(page);
+                }
+                if (crc.getValue() != header.getLong(40))
+                    throw Exceptions.illegalState("snapshot checksum mismatch: %s", file);
+            }
+            return new SnapshotFile(file, (int) vertices, entries, header.getLong(32), (flags & DIRECTED) != 0, weighted);
+        } finally {
+            closeChannel.apply(channel);
+        }
+    }
+
+    // ----------------------------------------------------------
+
+    // Start positions of the ids, offsets, neighbors and weights sections and the file size.
+    private static long[] layout(final long vertices, final long entries, final boolean weighted) {
+        final long ids = HEADER;
+        final long offsets = ids + 8 * vertices;
+        final long neighbors = offsets + 8 * (vertices + 1);
+        final long weights = neighbors + ((4 * entries + 7) & ~7L);
+        final long end = weighted ? weights + 8 * entries : weights;
+        return new long[]{ids, offsets, neighbors, weights, end};
+    }
+
+    private static MappedByteBuffer[] map(final FileChannel channel, final long size) {
+        final var pages = new MappedByteBuffer[(int) ((size + (1L << WINDOW_SHIFT) - 1) >>> WINDOW_SHIFT)];
+        for (int i = 0; i < pages.length; i++) {
+            final long position = (long) i << WINDOW_SHIFT;
+            pages[i] = mapWindow.apply(channel, position, Math.min(1L << WINDOW_SHIFT, size - position));
+            pages[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return pages;
+    }
+
+    private static void sortAdjacencies(final long[] offsets, final int[] neighbors, final double[] weights, final int maxDegree) {
+        final int n = offsets.length - 1;
+        final long[] keys = weights != null ? new long[maxDegree] : null;
+        final double[] values = weights != null ? new double[maxDegree] : null;
+        for (int r = 0; r < n; r++) {
+            final int lo = (int) offsets[r];
+            final int hi = (int) offsets[r + 1];
+            if (weights == null) {
+                Arrays.sort(neighbors, lo, hi);
+                continue;
+            }
+            // Sort the neighbors together with their weights by packing the position into the sort key.
+            for (int i = lo; i < hi; i++) keys[i - lo] = ((long) neighbors[i] << 32) | (i - lo);
+            System.arraycopy(weights, lo, values, 0, hi - lo);
+            Arrays.sort(keys, 0, hi - lo);
+            for (int i = lo; i < hi; i++) {
+                final long key = keys[i - lo];
+                neighbors[i] = (int) (key >>> 32);
+                weights[i] = values[(int) key];
+            }
+        }
+    }
+
+    private static void writeFile(final Path file, final int flags, final long[] ids, final long[] offsets,
+                                  final int[] neighbors, final double[] weights, final long edges) {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            final var out = new SectionWriter(channel);
+            out.skip(HEADER);
+            for (long id : ids) out.putLong(id);
+            for (long offset : offsets) out.putLong(offset);
+            for (int neighbor : neighbors) out.putInt(neighbor);
+            if ((neighbors.length & 1) != 0) out.putInt(0);
+            if (weights != null) for (double weight : weights) out.putDouble(weight);
+            out.flush();
+
+            final var header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION).putInt(flags)
+                    .putLong(ids.length).putLong(neighbors.length).putLong(edges)
+                    .putLong(out.crc.getValue());
+            header.clear();
+            while (header.hasRemaining()) channel.write(header, header.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Buffered little-endian writer that computes the checksum of everything it writes.
+     */
+    private static final class SectionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+        private long position;
+
+        private SectionWriter(final FileChannel channel) { this.channel = channel; }
+
+        void skip(final long bytes) { position += bytes; }
+
+        void putInt(final int value) throws IOException { ensure(4).putInt(value); }
+
+        void putLong(final long value) throws IOException { ensure(8).putLong(value); }
+
+        void putDouble(final double value) throws IOException { ensure(8).putDouble(value); }
+
+        private ByteBuffer ensure(final int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+            return buffer;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) position += channel.write(buffer, position);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Growable primitive arrays of the edges to write.
+     */
+    private static final class EdgeList {
+        long[] sources = new long[1024];
+        long[] targets = new long[1024];
+        double[] values = new double[1024];
+        int size;
+        boolean weighted;
+
+        void add(final Mtx.Long2LongEdge edge) {
+            if (size == sources.length) {
+                final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * size);
+                if (capacity == size) throw Exceptions.illegalState("too many edges for the snapshot writer");
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            sources[size] = edge.source();
+            targets[size] = edge.target();
+            values[size] = edge instanceof Mtx.Long2LongDoubleEdge weightedEdge ? weightedEdge.value() : 1.0;
+            if (values[size] != 1.0) weighted = true;
+            size++;
+        }
+    }
+
+    // ----------------------------------------------------------
+    //  SNAPSHOT.SNAPSHOTFILE
+    // ----------------------------------------------------------
+
+    /**
+     * A snapshot file and the graph properties from its header. Every traversal maps the file and yields each
+     * edge once with the original vertex ids; an undirected edge is yielded with the vertex of the higher degree
+     * first. The weights are read through the valued edges of {@link #weightedEdges()}.
+     *
+     * @param pth the path to the snapshot file
+     * @param vertices the number of vertices
+     * @param entries the number of adjacency entries
+     * @param edges the number of edges
+     * @param directed whether the graph is directed
+     * @param weighted whether the snapshot stores edge weights
+     */
+    public record SnapshotFile(Path pth, int vertices, long entries, long edges, boolean directed, boolean weighted)
+            implements Traversable<Mtx.Long2LongEdge> {
+
+        @Override
+        public Traverser<Mtx.Long2LongEdge> traverse() {
+            return Mtx.edges(new SnapshotTraverser(this));
+        }
+
+        /**
+         * Provides a view of this snapshot whose edges carry their weights, 1 if the snapshot is not weighted.
+         * @return a {@link Traversable} for valued edges
+         */
+        public Traversable<Mtx.Long2LongDoubleEdge> weightedEdges() {
+            return () -> new SnapshotTraverser(this);
+        }
+    }
+
+    /**
+     * Traverser over the adjacency entries of a mapped snapshot. The channel is closed right after mapping, the
+     * mapping stays valid until the traverser is garbage collected.
+     */
+    static final class SnapshotTraverser extends Traversal.Control.Context implements Traverser<Mtx.Long2LongDoubleEdge> {
+
+        private final MappedByteBuffer[] pages;
+        private final boolean directed;
+        private final int vertices;
+        private final long idsAt;
+        private final long offsetsAt;
+        private final long neighborsAt;
+        private final long weightsAt;
+        private final boolean weighted;
+        private final Cursor cursor = new Cursor();
+
+        private int vertex;   // CSR index of the current adjacency
+        private long entry;   // next adjacency entry
+        private long end;     // end of the current adjacency
+
+        private long source;
+        private long target;
+        private double value;
+
+        private SnapshotTraverser(final SnapshotFile file) {
+            final var channel = openChannel.apply(file.pth());
+            try {
+                this.pages = map(channel, channelSize.apply(channel));
+            } finally {
+                closeChannel.apply(channel);
+            }
+            final long[] layout = layout(file.vertices(), file.entries(), file.weighted());
+            this.directed = file.directed();
+            this.vertices = file.vertices();
+            this.weighted = file.weighted();
+            this.idsAt = layout[0];
+            this.offsetsAt = layout[1];
+            this.neighborsAt = layout[2];
+            this.weightsAt = layout[3];
+            this.vertex = -1;
+        }
+
+        private int getInt(final long position) {
+            return pages[(int) (position >>> WINDOW_SHIFT)].getInt((int) (position & ((1 << WINDOW_SHIFT) - 1)));
+        }
+
+        private long getLong(final long position) {
+            return pages[(int) (position >>> WINDOW_SHIFT)].getLong((int) (position & ((1 << WINDOW_SHIFT) - 1)));
+        }
+
+        private double getDouble(final long position) {
+            return pages[(int) (position >>> WINDOW_SHIFT)].getDouble((int) (position & ((1 << WINDOW_SHIFT) - 1)));
+        }
+
+        /**
+         * Advances to the next adjacency entry that represents an edge and loads it into the cursor.
+         *
+         * @return false if all entries have been read
+         */
+        private boolean advance() {
+            while (true) {
+                while (entry == end) {
+                    if (++vertex >= vertices) return false;
+                    entry = getLong(offsetsAt + 8L * vertex);
+                    end = getLong(offsetsAt + 8L * vertex + 8);
+                    if (entry < end) source = getLong(idsAt + 8L * vertex);
+                }
+                final long i = entry++;
+                final int neighbor = getInt(neighborsAt + 4 * i);
+                if (!directed && neighbor < vertex) continue;
+                target = getLong(idsAt + 8L * neighbor);
+                if (weighted) value = getDouble(weightsAt + 8 * i);
+                return true;
+            }
+        }
+
+        private final class Cursor implements Mtx.Long2LongDoubleEdge {
+            @Override public long source() { return source; }
+            @Override public long target() { return target; }
+            @Override public double value() { return weighted ? value : 1.0; }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryNext(Fn1.Consumer<? super Mtx.Long2LongDoubleEdge> action) {
+            if (null == action) throw new NullPointerException();
+            if (advance()) {
+                action.accept(cursor);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forNext(Fn1.Consumer<? super Mtx.Long2LongDoubleEdge> action) {
+            if (null == action) throw new NullPointerException();
+            while (advance()) action.accept(cursor);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super Mtx.Long2LongDoubleEdge>> context) {
+            if (null == context) throw new NullPointerException();
+            if (advance()) {
+                // Propagate context control state.
+                final var action = bind(context);
+                do {
+                    action.accept(cursor);
+                } while (active && advance());
+                if (!active) return Traversal.Status.EXIT;
+            }
+            return Traversal.Status.DONE;
+        }
+    }
+}
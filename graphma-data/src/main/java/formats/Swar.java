@@ -0,0 +1,120 @@
+package formats;
+
+/**
+ * Provides SWAR (SIMD within a register) primitives for the text parsers: a little-endian {@code long} read from
+ * a byte buffer holds eight characters, which are classified and converted with a few arithmetic instructions
+ * instead of a loop with one branch and one bounds check per character.
+ * <p>
+ * All methods expect words read in little-endian order, i.e. the first character in the lowest byte. The parsers
+ * read whole words while at least eight bytes are left and fall back to a scalar loop for the tail.
+ * </p>
+ */
+enum Swar {
+    ;
+
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long NEW_LINES = 0x0A0A0A0A0A0A0A0AL;
+
+    // Powers of ten for the combination of digit runs.
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+    };
+
+    /**
+     * Counts the leading characters of a word that are decimal digits.
+     *
+     * @param word eight characters in little-endian order
+     * @return the number of digits before the first other character, 8 if all characters are digits
+     */
+    static int digitCount(final long word) {
+        final long digits = word ^ ZEROS; // a digit becomes its value 0..9
+        // Bytes above 9 overflow into their high bit; a carry out of such a byte only affects later bytes.
+        final long invalid = ((digits + 0x7676767676767676L) | digits) & HIGH_BITS;
+        return Long.numberOfTrailingZeros(invalid) >>> 3;
+    }
+
+    /**
+     * Computes the value of the leading digits of a word.
+     *
+     * @param word eight characters in little-endian order
+     * @param count the number of leading digits, as returned by {@link #digitCount(long)}
+     * @return the value of the digits, 0 if there are none
+     */
+    static long digitValue(final long word, final int count) {
+        if (count == 0) return 0L;
+        // Move the digits to the top of the word, the cleared bytes act as leading zeros.
+        long value = ((word ^ ZEROS) << ((8 - count) << 3));
+        value = (value * 10) + (value >>> 8);
+        value = (((value & 0x000000FF000000FFL) * (100 + (1_000_000L << 32)))
+                + (((value >>> 16) & 0x000000FF000000FFL) * (1 + (10_000L << 32)))) >>> 32;
+        return value;
+    }
+
+    /**
+     * Returns the power of ten to shift an accumulated value by the given number of digits.
+     *
+     * @param count the number of digits, at most 8
+     * @return {@code 10^count}
+     */
+    static long powerOfTen(final int count) {
+        return POWERS_OF_TEN[count];
+    }
+
+    /**
+     * Finds the first line feed in a word.
+     *
+     * @param word eight characters in little-endian order
+     * @return the index of the first line feed, 8 if there is none
+     */
+    static int newLineIndex(final long word) {
+        return firstMatch(matches(word, NEW_LINES));
+    }
+
+    /**
+     * Repeats a character in all bytes of a word, to be searched with {@link #matches(long, long)}.
+     *
+     * @param b the character
+     * @return the pattern word
+     */
+    static long broadcast(final byte b) {
+        return (b & 0xFFL) * ONES;
+    }
+
+    /**
+     * Marks the bytes of a word that equal the bytes of a pattern. Only the first marked byte is exact, later
+     * bytes may be marked spuriously; the marks of several patterns can be combined with {@code |}.
+     *
+     * @param word eight characters in little-endian order
+     * @param pattern the pattern as returned by {@link #broadcast(byte)}
+     * @return a word with the high bit set in the matching bytes, 0 if there is no match
+     */
+    static long matches(final long word, final long pattern) {
+        final long x = word ^ pattern;
+        return (x - ONES) & ~x & HIGH_BITS;
+    }
+
+    /**
+     * Counts the bytes of a word that equal the bytes of a pattern.
+     *
+     * @param word eight characters
+     * @param pattern the pattern as returned by {@link #broadcast(byte)}
+     * @return the number of matching bytes
+     */
+    static int count(final long word, final long pattern) {
+        final long x = word ^ pattern;
+        // Without the high bits the sums cannot carry into the next byte, so every byte is classified exactly.
+        return Long.bitCount(~(((x & ~HIGH_BITS) + ~HIGH_BITS) | x) & HIGH_BITS);
+    }
+
+    /**
+     * Returns the index of the first marked byte.
+     *
+     * @param matches the marks as returned by {@link #matches(long, long)}
+     * @return the index of the first marked byte, 8 if there is none
+     */
+    static int firstMatch(final long matches) {
+        return Long.numberOfTrailingZeros(matches) >>> 3;
+    }
+}
@@ -2,21 +2,155 @@ package formats;
 
 import magma.control.function.Fn1;
 import magma.control.function.Fn2;
+import magma.control.function.Fn3;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 enum Utils {
     ;
 
     static final Fn2.Checked<BufferedReader, char[], Integer> readBuffer = Reader::read;
 
-    static final Fn1.Checked<Path, BufferedReader> newReader = pth -> new BufferedReader(new FileReader(pth.toFile()));
+    // Fills the buffer behind the given offset.
+    static final Fn3.Checked<BufferedReader, char[], Integer, Integer> readMore =
+            (rea, buf, off) -> rea.read(buf, off, buf.length - off);
+
+    // The file is read (and decompressed) on a background thread, the reader takes the chunks read ahead.
+    static final Fn1.Checked<Path, BufferedReader> newReader =
+            pth -> new BufferedReader(new InputStreamReader(Compression.newReadAheadStream(pth)));
 
     static final Fn1.Checked<BufferedReader, Boolean> closeReader = rea -> {
         rea.close();
         return true;
     };
+
+    static final Fn1.Checked<Path, FileChannel> openChannel = pth -> FileChannel.open(pth, StandardOpenOption.READ);
+
+    static final Fn1.Checked<FileChannel, Long> channelSize = FileChannel::size;
+
+    static final Fn3.Checked<FileChannel, Long, Long, MappedByteBuffer> mapWindow =
+            (chn, pos, len) -> chn.map(FileChannel.MapMode.READ_ONLY, pos, len);
+
+    static final Fn1.Checked<FileChannel, Boolean> closeChannel = chn -> {
+        chn.close();
+        return true;
+    };
+
+    private static final long NEW_LINES = Swar.broadcast((byte) '\n');
+
+    /**
+     * Counts the lines of a file, reading a compressed file through its decompressed content.
+     *
+     * @param path the path to the file
+     * @return the number of line feeds plus one, for the last line without line feed
+     */
+    static long countLines(final Path path) {
+        try (Input input = Input.open(path)) {
+            long lines = 0;
+            long position = 0;
+            while (position < input.size()) {
+                final ByteBuffer window = input.window(position, Integer.MAX_VALUE);
+                final int limit = window.limit();
+                if (limit == 0) break;
+                int i = 0;
+                for (; i + 8 <= limit; i += 8) lines += Swar.count(window.getLong(i), NEW_LINES);
+                for (; i < limit; i++) if (window.get(i) == '\n') lines++;
+                position += limit;
+            }
+            return lines + 1;
+        }
+    }
+
+    // Powers of ten that are exactly representable as doubles.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Parses the decimal number that starts at the given index of a buffer, after optional blanks, and ends at the
+     * next blank or line break. A number with at most 15 significant digits and a decimal exponent of at most 22 is
+     * computed exactly from its digits, which covers the values of the usual graph files; any other number is
+     * handed to {@link Double#parseDouble(String)}.
+     *
+     * @param buffer the buffer holding the number
+     * @param index the index of the first byte to read
+     * @param limit the index behind the last readable byte
+     * @return the parsed number
+     */
+    static double parseDouble(final ByteBuffer buffer, final int index, final int limit) {
+        int i = index;
+        byte b;
+        while (i < limit && ((b = buffer.get(i)) == ' ' || b == '\t')) i++;
+        final int start = i;
+
+        boolean negative = false;
+        if (i < limit && ((b = buffer.get(i)) == '-' || b == '+')) {
+            negative = b == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean any = false;
+        while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9') {
+            mantissa = mantissa * 10 + (b - '0');
+            if (mantissa != 0) digits++;
+            any = true;
+            i++;
+            if (digits > 15) return parseToken(buffer, start, limit);
+        }
+        if (i < limit && buffer.get(i) == '.') {
+            i++;
+            while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) digits++;
+                exponent--;
+                any = true;
+                i++;
+                if (digits > 15) return parseToken(buffer, start, limit);
+            }
+        }
+        if (i < limit && ((b = buffer.get(i)) == 'e' || b == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < limit && ((b = buffer.get(i)) == '-' || b == '+')) {
+                negativeExponent = b == '-';
+                i++;
+            }
+            int value = 0;
+            while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9') {
+                if (value > 10_000) return parseToken(buffer, start, limit);
+                value = value * 10 + (b - '0');
+                i++;
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (!any || (i < limit && (b = buffer.get(i)) != ' ' && b != '\t' && b != '\r' && b != '\n'))
+            return parseToken(buffer, start, limit);
+
+        final double value;
+        if (mantissa == 0) value = 0.0;
+        else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) value = mantissa * POWERS_OF_TEN[exponent];
+        else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) value = mantissa / POWERS_OF_TEN[-exponent];
+        else return parseToken(buffer, start, limit);
+        return negative ? -value : value;
+    }
+
+    private static double parseToken(final ByteBuffer buffer, final int start, final int limit) {
+        int end = start;
+        byte b;
+        while (end < limit && (b = buffer.get(end)) != ' ' && b != '\t' && b != '\r' && b != '\n') end++;
+        final byte[] token = new byte[end - start];
+        buffer.get(start, token);
+        return Double.parseDouble(new String(token, StandardCharsets.US_ASCII));
+    }
 }
@@ -0,0 +1,269 @@
+package formats;
+
+import magma.adt.control.traversal.Traversal;
+import magma.control.exception.Exceptions;
+import magma.control.function.Fn1;
+import magma.control.traversal.Traversable;
+import magma.control.traversal.Traverser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns the textual vertex ids of a graph file into dense int ids, numbered from 0 in the order of their first
+ * appearance. The id bytes are compared and copied straight from the buffer they are parsed from, only the first
+ * occurrence of an id is stored, and a {@link String} is only created when the name of an id is requested.
+ * <p>
+ * The dictionary is an open addressing hash table with linear probing over the id numbers; the id bytes are
+ * appended to a single byte arena in UTF-8, so the dictionary holds a constant number of arrays regardless of
+ * its size.
+ * </p>
+ * <p>
+ * The string-keyed formats yield their edges with {@link String} ids; {@link #index} turns them into
+ * {@link Mtx.Long2LongEdge}s, which feed the primitive graph builders.
+ * </p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ * final var dictionary = new VertexDictionary();
+ * final var graph = MtxToCsrGraph.build(
+ *         VertexDictionary.index(dot, Dot.String2StringEdge::source, Dot.String2StringEdge::target, dictionary), true);
+ * final String name = dictionary.name(0); // name of CSR vertex 0
+ * }
+ * </pre>
+ */
+public final class VertexDictionary {
+
+    private int[] table = new int[1 << 11];   // id + 1 per slot, 0 if the slot is empty
+    private int[] hashes = new int[1 << 10];
+    private int[] starts = new int[(1 << 10) + 1];
+    private byte[] arena = new byte[1 << 14];
+    private String[] names = new String[1 << 10];
+    private int size;
+
+    /**
+     * Provides the edges of the given traversable with the vertex ids interned into the given dictionary. The
+     * edges are numbered like the MTX format, i.e. the vertex with the dictionary id {@code i} is yielded as
+     * {@code i + 1}. The dictionary is shared by all traversals, so every traversal yields the same numbers.
+     *
+     * @param edges the edges with textual vertex ids
+     * @param source the function projecting the source id of an edge
+     * @param target the function projecting the target id of an edge
+     * @param dictionary the dictionary to intern the vertex ids into
+     * @param <E> the type of the edges
+     * @return a traversable of edges between vertex numbers
+     */
+    public static <E> Traversable<Mtx.Long2LongEdge> index(final Traversable<E> edges,
+                                                           final Fn1<? super E, String> source,
+                                                           final Fn1<? super E, String> target,
+                                                           final VertexDictionary dictionary) {
+        return () -> index(edges.traverse(), source, target, dictionary);
+    }
+
+    /**
+     * Adapts a traverser over edges with textual vertex ids into a traverser over edges between vertex numbers.
+     * The vertex with the dictionary id {@code i} is yielded as {@code i + 1}.
+     *
+     * @param edges the traverser over the edges with textual vertex ids
+     * @param source the function projecting the source id of an edge
+     * @param target the function projecting the target id of an edge
+     * @param dictionary the dictionary to intern the vertex ids into
+     * @param <E> the type of the edges
+     * @return a traverser over edges between vertex numbers
+     */
+    public static <E> Traverser<Mtx.Long2LongEdge> index(final Traverser<E> edges,
+                                                         final Fn1<? super E, String> source,
+                                                         final Fn1<? super E, String> target,
+                                                         final VertexDictionary dictionary) {
+        return new IndexingTraverser<>(edges, source, target, dictionary);
+    }
+
+    /**
+     * Returns the id of the vertex with the given name, adding the vertex if it is new.
+     *
+     * @param name the name of the vertex
+     * @return the id of the vertex
+     */
+    public int intern(final String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return intern(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Returns the id of the vertex with the given name without adding it.
+     *
+     * @param name the name of the vertex
+     * @return the id of the vertex, or -1 if the name has not been interned
+     */
+    public int find(final String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        final var source = ByteBuffer.wrap(bytes);
+        final int hash = hash(source, 0, bytes.length);
+        final int mask = table.length - 1;
+        for (int slot = hash & mask, entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            final int id = entry - 1;
+            if (hashes[id] == hash && matches(id, source, 0, bytes.length)) return id;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the id of the vertex whose name consists of the given bytes, adding the vertex if it is new.
+     *
+     * @param source the buffer holding the name
+     * @param from the index of the first byte of the name (inclusive)
+     * @param to the index of the last byte of the name (exclusive)
+     * @return the id of the vertex
+     */
+    int intern(final ByteBuffer source, final int from, final int to) {
+        final int hash = hash(source, from, to);
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        for (int entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            final int id = entry - 1;
+            if (hashes[id] == hash && matches(id, source, from, to)) return id;
+        }
+        final int id = add(source, from, to, hash);
+        table[slot] = id + 1;
+        if (2 * size > table.length) rehash();
+        return id;
+    }
+
+    /**
+     * Returns the name of the given vertex.
+     *
+     * @param id the id of the vertex
+     * @return the name
+     */
+    public String name(final int id) {
+        if (id < 0 || id >= size) throw Exceptions.illegalArgument("unknown vertex id: %d", id);
+        var name = names[id];
+        if (name == null) {
+            name = names[id] = new String(arena, starts[id], starts[id + 1] - starts[id], StandardCharsets.UTF_8);
+        }
+        return name;
+    }
+
+    /**
+     * Returns the number of interned vertices.
+     * @return the number of vertices
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int hash(final ByteBuffer source, final int from, final int to) {
+        int hash = 0x811c9dc5; // FNV-1a
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ (source.get(i) & 0xff)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean matches(final int id, final ByteBuffer source, final int from, final int to) {
+        final int start = starts[id];
+        if (starts[id + 1] - start != to - from) return false;
+        for (int i = from, j = start; i < to; i++, j++) {
+            if (arena[j] != source.get(i)) return false;
+        }
+        return true;
+    }
+
+    private int add(final ByteBuffer source, final int from, final int to, final int hash) {
+        final int id = size;
+        if (id == Integer.MAX_VALUE - 9) throw Exceptions.illegalState("too many vertices: %d", size);
+        if (id + 1 == starts.length) {
+            final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * id);
+            hashes = Arrays.copyOf(hashes, capacity);
+            names = Arrays.copyOf(names, capacity);
+            starts = Arrays.copyOf(starts, capacity + 1);
+        }
+        final int start = starts[id];
+        final long end = (long) start + (to - from);
+        if (end > Integer.MAX_VALUE - 8) throw Exceptions.illegalState("vertex names exceed %d bytes", start);
+        if (end > arena.length) arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(end, 2L * arena.length)));
+        source.get(from, arena, start, to - from);
+        hashes[id] = hash;
+        starts[id + 1] = (int) end;
+        size++;
+        return id;
+    }
+
+    private void rehash() {
+        final int[] table = new int[2 * this.table.length];
+        final int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = id + 1;
+        }
+        this.table = table;
+    }
+
+    /**
+     * Traverser that interns the vertex ids of the edges of another traverser and yields them through a single
+     * cursor instance.
+     *
+     * @param <E> the type of the adapted edges
+     */
+    private static final class IndexingTraverser<E> implements Traverser<Mtx.Long2LongEdge> {
+        private final Traverser<E> edges;
+        private final Fn1<? super E, String> sourceName;
+        private final Fn1<? super E, String> targetName;
+        private final VertexDictionary dictionary;
+        private final Cursor cursor = new Cursor();
+
+        private long source;
+        private long target;
+
+        private IndexingTraverser(final Traverser<E> edges, final Fn1<? super E, String> sourceName,
+                                  final Fn1<? super E, String> targetName, final VertexDictionary dictionary) {
+            this.edges = edges;
+            this.sourceName = sourceName;
+            this.targetName = targetName;
+            this.dictionary = dictionary;
+        }
+
+        private Fn1.Consumer<E> adapt(final Fn1.Consumer<? super Mtx.Long2LongEdge> action) {
+            return edge -> {
+                source = dictionary.intern(sourceName.apply(edge)) + 1L;
+                target = dictionary.intern(targetName.apply(edge)) + 1L;
+                action.accept(cursor);
+            };
+        }
+
+        private final class Cursor implements Mtx.Long2LongEdge {
+            @Override public long source() { return source; }
+            @Override public long target() { return target; }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryNext(Fn1.Consumer<? super Mtx.Long2LongEdge> action) {
+            if (null == action) throw new NullPointerException();
+            return edges.tryNext(adapt(action));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forNext(Fn1.Consumer<? super Mtx.Long2LongEdge> action) {
+            if (null == action) throw new NullPointerException();
+            edges.forNext(adapt(action));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Traversal.Status whileNext(Fn1<Traversal.Control, Fn1.Consumer<? super Mtx.Long2LongEdge>> context) {
+            if (null == context) throw new NullPointerException();
+            return edges.whileNext(control -> adapt(context.apply(control)));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package data.suitesparse;
+
+import data.Config;
+import formats.Mtx;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the SuiteSparse catalog loads the same files in parallel as sequentially and reuses its header index.
+ */
+public class CatalogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void test_catalog_matches_sequential_headers() {
+        final var root = Config.SUITE_SPARSE.resolve("small_graphs");
+        final List<Mtx.MTXFile> catalog = SSDB.files(root, dir.resolve("small_graphs.index"));
+        assertThat(catalog).isEqualTo(SSDB.SMALL.files());
+        for (Mtx.MTXFile mtx : catalog) assertThat(mtx).isEqualTo(reference(mtx.pth()));
+        assertThat(SSDB.files(root, dir.resolve("small_graphs.index"))).isEqualTo(catalog);
+    }
+
+    @Test
+    public void test_index_reuse_and_refresh() throws IOException {
+        final Path root = Files.createDirectories(dir.resolve("collection"));
+        final Path index = dir.resolve("index").resolve("collection.index");
+        final Path a = Files.writeString(root.resolve("a.mtx"), "%%MatrixMarket matrix coordinate pattern symmetric\n% comment\n3 3 2\n1 2\n2 3\n");
+        final Path b = Files.writeString(root.resolve("b.mtx"), "4 4 1\n1 4 0.5\n");
+
+        assertThat(SSDB.files(root, index)).containsExactlyInAnyOrder(
+                new Mtx.MTXFile(a, 3, 3, 2, 2), new Mtx.MTXFile(b, 4, 4, 1, 3));
+        final List<String> lines = Files.readAllLines(index);
+        assertThat(lines).hasSize(3);
+        assertThat(lines).anyMatch(line -> line.startsWith("a.mtx\t") && line.endsWith("\tpattern\tsymmetric"));
+
+        // An unchanged file is taken from the index without being opened.
+        Files.write(index, lines.stream().map(line -> line.replace("\t3\t3\t2\t2\t", "\t7\t7\t7\t2\t")).toList());
+        assertThat(SSDB.files(root, index)).contains(new Mtx.MTXFile(a, 7, 7, 7, 2));
+
+        // A modified file is parsed again.
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 1000));
+        assertThat(SSDB.files(root, index)).contains(new Mtx.MTXFile(a, 3, 3, 2, 2));
+
+        // Removed files leave the index, a damaged index is rebuilt.
+        Files.delete(b);
+        assertThat(SSDB.files(root, index)).containsExactly(new Mtx.MTXFile(a, 3, 3, 2, 2));
+        assertThat(Files.readAllLines(index)).hasSize(2);
+        Files.writeString(index, "garbage");
+        assertThat(SSDB.files(root, index)).containsExactly(new Mtx.MTXFile(a, 3, 3, 2, 2));
+    }
+
+    @Test
+    public void test_query() {
+        assertThat(SSDB.SMALL.query().lines(21, 40).files())
+                .isEqualTo(SSDB.SMALL.files().stream().filter(mtx -> mtx.lines() < 40 && mtx.lines() > 20).toList());
+        assertThat(SSDB.SMALL.query().rows(100, 1000).lines(0, 5000).files())
+                .isEqualTo(SSDB.SMALL.files().stream()
+                        .filter(mtx -> mtx.rows() >= 100 && mtx.rows() < 1000 && mtx.lines() < 5000).toList());
+
+        final var symmetric = SSDB.SMALL.query().symmetries("Symmetric").fields("pattern", "real").files();
+        assertThat(symmetric).isNotEmpty();
+        for (Mtx.MTXFile mtx : SSDB.SMALL.files()) {
+            final var header = Catalog.parseHeader(mtx.pth());
+            final boolean selected = header.symmetry().equals("symmetric")
+                    && (header.field().equals("pattern") || header.field().equals("real"));
+            assertThat(symmetric.contains(mtx)).as(mtx.pth().toString()).isEqualTo(selected);
+        }
+        assertThat(SSDB.SMALL.query().bytes(0, 1).files()).isEmpty();
+        assertThat(SSDB.LARGE.files()).isEmpty();
+    }
+
+    @Test
+    public void test_long_header() throws IOException {
+        final StringBuilder builder = new StringBuilder("%%MatrixMarket matrix coordinate real general\n");
+        for (int i = 0; i < 2000; i++) builder.append("% a long comment block that exceeds the first chunk\n");
+        final Path file = Files.writeString(dir.resolve("long.mtx"), builder.append("  5 6 1\r\n1 2 3.0\r\n"));
+        assertThat(SSDB.parseHeader(file)).isEqualTo(new Mtx.MTXFile(file, 5, 6, 1, 3));
+        assertThat(Catalog.parseHeader(file).field()).isEqualTo("real");
+        assertThat(Catalog.parseHeader(file).symmetry()).isEqualTo("general");
+    }
+
+    @Test
+    public void test_compressed() throws IOException {
+        final Path root = Files.createDirectories(dir.resolve("compressed"));
+        final Path plain = Files.writeString(root.resolve("a.mtx"), "%%MatrixMarket matrix coordinate real general\n2 2 1\n1 2 0.5\n");
+        final Path compressed = root.resolve("b.mtx.gz");
+        try (var out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            out.write(Files.readAllBytes(plain));
+        }
+        assertThat(SSDB.files(root, null)).containsExactlyInAnyOrder(
+                new Mtx.MTXFile(plain, 2, 2, 1, 3), new Mtx.MTXFile(compressed, 2, 2, 1, 3));
+        assertThat(Catalog.parseHeader(compressed).field()).isEqualTo("real");
+    }
+
+    // The header values as read by splitting the lines.
+    private static Mtx.MTXFile reference(final Path path) {
+        try (Stream<String> stream = Files.lines(path)) {
+            final List<String> lines = stream.dropWhile(line -> line.startsWith("%")).limit(2).toList();
+            final String[] size = lines.get(0).trim().split("\\s+");
+            return new Mtx.MTXFile(path,
+                    size.length > 0 ? Integer.parseInt(size[0]) : 0,
+                    size.length > 1 ? Integer.parseInt(size[1]) : 0,
+                    size.length > 2 ? Integer.parseInt(size[2]) : 0,
+                    lines.size() > 1 ? lines.get(1).trim().split("\\s+").length : 0);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package formats;
+
+import data.differenformats.FormatsDB;
+import data.suitesparse.SSDB;
+import magma.control.traversal.Traversable;
+import magma.value.index.Range;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that gzip compressed graph files yield the same edges as their uncompressed originals.
+ */
+public class CompressionTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void test_mtx() throws IOException {
+        for (Mtx.MTXFile mtx : SSDB.SMALL.query().lines(0, 5000).files().subList(0, 20)) {
+            final var compressed = new Mtx.MTXFile(gzip(mtx.pth()), mtx.rows(), mtx.cols(), mtx.lines(), mtx.numCol());
+            assertThat(Compression.isCompressed(compressed.pth())).isTrue();
+            assertThat(Compression.isCompressed(mtx.pth())).isFalse();
+            assertThat(edges(compressed)).as(mtx.pth().toString()).isEqualTo(edges(mtx));
+            assertThat(values(compressed.weighted(true))).isEqualTo(values(mtx.weighted(true)));
+            final List<String> parts = new ArrayList<>();
+            for (Traversable<Mtx.Long2LongEdge> part : compressed.split(3)) parts.addAll(edges(part));
+            assertThat(parts).isEqualTo(edges(mtx.mapped()));
+        }
+    }
+
+    @Test
+    public void test_text_formats() throws IOException {
+        final var dot = new Dot.DotFile(gzip(FormatsDB.DIRECTED_DOT), 9999, 9999, 9999, 9999);
+        final var gml = new Gml.GmlFile(gzip(FormatsDB.DIRECTED_GML), 9999, 9999, 9999, 9999);
+        final var graphml = new GraphML.GraphMLFile(gzip(FormatsDB.DIRECTED_GRAPHML));
+        assertThat(names(dot, e -> e.source() + " " + e.target())).isEqualTo(names(
+                new Dot.DotFile(FormatsDB.DIRECTED_DOT, 9999, 9999, 9999, 9999), e -> e.source() + " " + e.target()));
+        assertThat(names(gml, e -> e.source() + " " + e.target())).isEqualTo(names(
+                new Gml.GmlFile(FormatsDB.DIRECTED_GML, 9999, 9999, 9999, 9999), e -> e.source() + " " + e.target()));
+        assertThat(names(graphml, e -> e.source() + " " + e.target())).containsExactly("A B", "B C", "C A");
+    }
+
+    @Test
+    public void test_edge_list_across_windows() throws IOException {
+        // Large enough to span several windows of the decompressed content.
+        final Random random = new Random(19);
+        final Path plain = dir.resolve("edges.csv");
+        try (var writer = Files.newBufferedWriter(plain)) {
+            writer.write("source,target,weight\n");
+            for (int i = 0; i < 1_500_000; i++) {
+                writer.write(random.nextInt(1 << 30) + "," + random.nextInt(1 << 30) + "," + random.nextInt(100) + "\n");
+            }
+        }
+        final var format = EdgeList.Format.CSV.header(1).value(2);
+        final var compressed = new EdgeList.EdgeListFile(gzip(plain), format);
+        assertThat(Files.size(plain)).isGreaterThan(3L << 23);
+        assertThat(values(compressed.weighted())).isEqualTo(values(new EdgeList.EdgeListFile(plain, format).weighted()));
+    }
+
+    @Test
+    public void test_read_ahead_stream() throws IOException {
+        final byte[] content = new byte[3 << 20];
+        new Random(23).nextBytes(content);
+        final Path plain = Files.write(dir.resolve("random.bin"), content);
+        try (InputStream in = Compression.newReadAheadStream(gzip(plain))) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+        // Closing early stops the decompression.
+        final InputStream in = Compression.newReadAheadStream(gzip(plain));
+        assertThat(in.read()).isEqualTo(content[0] & 0xFF);
+        in.close();
+        try (InputStream plainIn = Compression.newReadAheadStream(plain)) {
+            assertThat(plainIn.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    public void test_abandoned_read_ahead() throws IOException, InterruptedException {
+        final long before = readAheadThreads();
+        final StringBuilder builder = new StringBuilder("%%MatrixMarket matrix coordinate pattern general\n");
+        builder.append("1000 1000 300000\n");
+        final Random random = new Random(29);
+        for (int i = 0; i < 300_000; i++) {
+            builder.append(1 + random.nextInt(1000)).append(' ').append(1 + random.nextInt(1000)).append('\n');
+        }
+        final Path mtx = gzip(Files.writeString(dir.resolve("large.mtx"), builder));
+
+        // A failing consumer ends the traversal, the read ahead stops with it.
+        assertThatThrownBy(() -> Mtx.traverse(mtx, Range.of(0, 300_000), 0).forNext(edge -> {
+            throw new IllegalStateException("consumer failed");
+        })).hasMessage("consumer failed");
+        awaitReadAheadThreads(before);
+
+        // A stream that is dropped without being closed stops once it is garbage collected.
+        InputStream in = Compression.newReadAheadStream(mtx);
+        assertThat(in.read()).isEqualTo(0x25);
+        in = null;
+        awaitReadAheadThreads(before);
+    }
+
+    private static long readAheadThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("graphma-read-ahead") && thread.isAlive())
+                .count();
+    }
+
+    private static void awaitReadAheadThreads(final long expected) throws InterruptedException {
+        for (int i = 0; i < 200 && readAheadThreads() > expected; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertThat(readAheadThreads()).isLessThanOrEqualTo(expected);
+    }
+
+    private Path gzip(final Path path) throws IOException {
+        final Path target = dir.resolve(path.getFileName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            Files.copy(path, out);
+        }
+        return target;
+    }
+
+    private static List<String> edges(final Traversable<Mtx.Long2LongEdge> traversable) {
+        final List<String> edges = new ArrayList<>();
+        traversable.forEach(e -> edges.add(e.source() + " " + e.target()));
+        return edges;
+    }
+
+    private static List<String> values(final Traversable<Mtx.Long2LongDoubleEdge> traversable) {
+        final List<String> edges = new ArrayList<>();
+        traversable.forEach(e -> edges.add(e.source() + " " + e.target() + " " + e.value()));
+        return edges;
+    }
+
+    private static <E> List<String> names(final Traversable<E> traversable, final Function<E, String> name) {
+        final List<String> edges = new ArrayList<>();
+        traversable.forEach(e -> edges.add(name.apply(e)));
+        return edges;
+    }
+}
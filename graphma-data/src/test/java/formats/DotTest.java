@@ -5,11 +5,23 @@ import formats.Dot.String2StringEdge;
 import magma.data.Seq;
 import magma.data.sequence.operator.DataSource;
 import magma.data.sequence.operator.strict.ForNext;
+import magma.control.traversal.Traversable;
+import magma.value.index.Range;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
 
 import static data.Config.GRAPH_FORMATS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * These are not really tests. More demos with printouts to check if stuff works.
@@ -46,4 +58,102 @@ public class DotTest {
         var traverser = DIRECTED_SOURCE.traverse();
         while (traverser.tryNext(e -> System.out.println(e.source() + " --> " + e.target())));
     }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void test_directed_graph() {
+        assertThat(edges(new Dot.DotFile(FormatsDB.DIRECTED_DOT))).containsExactly("A B 1.0", "B C 1.0", "C A 1.0");
+    }
+
+    @Test
+    public void test_statements() throws IOException {
+        final Path dot = Files.writeString(dir.resolve("statements.dot"), """
+                /* a block comment with a -> b */
+                strict digraph "G" {
+                  // a line comment with c -> d
+                  graph [rankdir=LR]; rankdir = LR
+                  node [shape=box]
+                  a -> b -> c [weight=2.5, color="red"]
+                  "quoted id" -> <<b>html</b>>;
+                  x:port:n -> y
+                  edge [weight=3]
+                  d->e
+                  subgraph cluster_0 {
+                    edge [weight=4]
+                    f -- g
+                  }
+                  h -> { i j } -> k [ "weight" = "5" ]
+                  { l m } -> n
+                  o
+                # a preprocessor line
+                }
+                """);
+        assertThat(edges(new Dot.DotFile(dot))).containsExactly(
+                "a b 2.5", "b c 2.5",
+                "quoted id <b>html</b> 1.0",
+                "x y 1.0",
+                "d e 3.0",
+                "f g 4.0",
+                "h i 5.0", "h j 5.0", "i k 5.0", "j k 5.0",
+                "l n 3.0", "m n 3.0");
+    }
+
+    @Test
+    public void test_range_and_indexed() throws IOException {
+        final Path dot = Files.writeString(dir.resolve("chain.dot"), "graph { a -- b -- c -- d -- a }");
+        final List<String> range = new ArrayList<>();
+        Dot.traverse(dot, Range.of(1, 3), 0).forNext(e -> range.add(e.source() + " " + e.target()));
+        assertThat(range).containsExactly("b c", "c d");
+
+        final VertexDictionary dictionary = new VertexDictionary();
+        final List<String> indexed = new ArrayList<>();
+        new Dot.DotFile(dot).indexed(dictionary).forEach(e -> indexed.add(e.source() + " " + e.target()));
+        assertThat(indexed).containsExactly("1 2", "2 3", "3 4", "4 1");
+        assertThat(dictionary.name(3)).isEqualTo("d");
+    }
+
+    @Test
+    public void test_across_windows() throws IOException {
+        // Large enough to span several windows of the decompressed content.
+        final Path plain = dir.resolve("large.dot");
+        final List<String> expected = new ArrayList<>();
+        try (var writer = Files.newBufferedWriter(plain)) {
+            writer.write("digraph large {\n");
+            for (int i = 0; i < 1_000_000; i++) {
+                writer.write("  \"vertex " + i + "\" -> v" + (i * 7 % 1_000_003) + " [weight=" + (i % 10) + "];\n");
+                if (i % 100_000 == 0) expected.add("vertex " + i + " v" + (i * 7 % 1_000_003) + " " + (double) (i % 10));
+            }
+            writer.write("}\n");
+        }
+        assertThat(Files.size(plain)).isGreaterThan(3L << 23);
+        final Path compressed = dir.resolve("large.dot.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(plain, out);
+        }
+        for (Path path : List.of(plain, compressed)) {
+            final List<String> sample = new ArrayList<>();
+            final long[] count = {0};
+            new Dot.DotFile(path).forEach(e -> {
+                if (count[0]++ % 100_000 == 0) sample.add(e.source() + " " + e.target() + " " + e.weight());
+            });
+            assertThat(count[0]).isEqualTo(1_000_000);
+            assertThat(sample).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void test_malformed() throws IOException {
+        final Path dot = Files.writeString(dir.resolve("malformed.dot"), "digraph { a -> ; }");
+        assertThatThrownBy(() -> edges(new Dot.DotFile(dot))).isInstanceOf(IllegalStateException.class);
+        final Path nested = Files.writeString(dir.resolve("nested.dot"), "digraph { a -> { b -> c } }");
+        assertThatThrownBy(() -> edges(new Dot.DotFile(nested))).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static List<String> edges(final Traversable<String2StringEdge> traversable) {
+        final List<String> edges = new ArrayList<>();
+        traversable.forEach(e -> edges.add(e.source() + " " + e.target() + " " + e.weight()));
+        return edges;
+    }
 }
@@ -0,0 +1,112 @@
+package formats;
+
+import magma.control.traversal.Traversable;
+import magma.data.Seq;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the edge list traverser parses delimited files, value columns and byte range splits.
+ */
+public class EdgeListTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void test_whitespace() throws IOException {
+        final Random random = new Random(5);
+        final StringBuilder builder = new StringBuilder("# a SNAP style comment\n% another comment\n");
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            final long source = random.nextLong() >>> random.nextInt(64);
+            final long target = random.nextInt(1000);
+            expected.add(source + " " + target);
+            builder.append(random.nextInt(10) == 0 ? "\n" : "")
+                    .append(" ".repeat(random.nextInt(2)))
+                    .append(source).append(random.nextBoolean() ? " " : "\t\t").append(target)
+                    .append(random.nextBoolean() ? "\n" : " \r\n");
+        }
+        final Path file = Files.writeString(dir.resolve("edges.txt"), builder);
+        assertThat(edges(new EdgeList.EdgeListFile(file, EdgeList.Format.WHITESPACE))).isEqualTo(expected);
+    }
+
+    @Test
+    public void test_csv_columns() throws IOException {
+        final Path file = Files.writeString(dir.resolve("papers.csv"), """
+                ResearcherID,PaperID,Name,Title,Year
+                1,10,"Doe, Jane",Graphs,2020
+                2,10,Roe,"On ""fast"", parsers",2021
+
+                3,11,"Poe",Streams,1999
+                """);
+        final var format = EdgeList.Format.CSV.header(1);
+        assertThat(edges(new EdgeList.EdgeListFile(file, format))).containsExactly("1 10", "2 10", "3 11");
+        assertThat(edges(new EdgeList.EdgeListFile(file, format.columns(4, 0))))
+                .containsExactly("2020 1", "2021 2", "1999 3");
+
+        final List<String> weighted = new ArrayList<>();
+        EdgeList.traverseWeighted(file, format.columns(1, 0).value(4))
+                .forNext(e -> weighted.add(e.source() + " " + e.target() + " " + e.value()));
+        assertThat(weighted).containsExactly("10 1 2020.0", "10 2 2021.0", "11 3 1999.0");
+
+        final Path tabs = Files.writeString(dir.resolve("edges.tsv"), "1\t2\t0.5\n3\t4\t-1e3\r\n");
+        final List<String> values = new ArrayList<>();
+        EdgeList.traverseWeighted(tabs, EdgeList.Format.CSV.delimiter('\t').value(2))
+                .forNext(e -> values.add(e.source() + " " + e.target() + " " + e.value()));
+        assertThat(values).containsExactly("1 2 0.5", "3 4 -1000.0");
+    }
+
+    @Test
+    public void test_malformed() throws IOException {
+        final Path file = Files.writeString(dir.resolve("broken.csv"), "1,2\n3\n");
+        assertThatThrownBy(() -> edges(new EdgeList.EdgeListFile(file, EdgeList.Format.CSV)))
+                .isInstanceOf(IllegalStateException.class);
+        final Path letters = Files.writeString(dir.resolve("letters.csv"), "1,a\n");
+        assertThatThrownBy(() -> edges(new EdgeList.EdgeListFile(letters, EdgeList.Format.CSV)))
+                .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> EdgeList.Format.CSV.columns(1, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_split_partitions_edges() throws IOException {
+        final Random random = new Random(7);
+        final StringBuilder builder = new StringBuilder("source,target\n");
+        for (int i = 0; i < 5_000; i++) builder.append(random.nextInt(100_000)).append(',').append(random.nextInt(100_000)).append('\n');
+        final var edgeList = new EdgeList.EdgeListFile(Files.writeString(dir.resolve("split.csv"), builder), EdgeList.Format.CSV.header(1));
+        final List<String> expected = edges(edgeList);
+        assertThat(expected).hasSize(5_000);
+        for (int parts : new int[] {1, 2, 3, 7, 64, 1_000}) {
+            final List<String> actual = new ArrayList<>();
+            for (Traversable<Mtx.Long2LongEdge> part : edgeList.split(parts)) actual.addAll(edges(part));
+            assertThat(actual).as("parts " + parts).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void test_tryNext_and_whileNext() throws IOException {
+        final Path file = Files.writeString(dir.resolve("short.txt"), "1 2\n2 3\n3 1\n");
+        final var traverser = EdgeList.traverse(file, EdgeList.Format.WHITESPACE);
+        final List<String> edges = new ArrayList<>();
+        while (traverser.tryNext(e -> edges.add(e.source() + " " + e.target())));
+        assertThat(edges).containsExactly("1 2", "2 3", "3 1");
+        assertThat(Seq.of(new EdgeList.EdgeListFile(file, EdgeList.Format.WHITESPACE)).anyMatch(e -> e.target() == 3)).isTrue();
+        assertThat(edges(() -> EdgeList.traverse(dir.resolve("missing.txt"), EdgeList.Format.WHITESPACE))).isEmpty();
+    }
+
+    private static List<String> edges(Traversable<Mtx.Long2LongEdge> traversable) {
+        final List<String> edges = new ArrayList<>();
+        traversable.forEach(e -> edges.add(e.source() + " " + e.target()));
+        return edges;
+    }
+}
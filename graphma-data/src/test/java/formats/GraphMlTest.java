@@ -3,11 +3,20 @@ package formats;
 import data.differenformats.FormatsDB;
 import magma.data.Seq;
 import magma.data.sequence.operator.DataSource;
+import magma.value.index.Range;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 
 import static data.Config.GRAPH_FORMATS;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * These are not really tests. More demos with printouts to check if stuff works.
@@ -45,4 +54,64 @@ public class GraphMlTest {
         var traverser = DIRECTED_SOURCE.traverse();
         while (traverser.tryNext(e -> System.out.println(e.source() + " --> " + e.target())));
     }
+
+    @Test
+    public void test_edges() {
+        assertThat(edges(new GraphML.GraphMLFile(FormatsDB.DIRECTED_GRAPHML))).containsExactly("A B", "B C", "C A");
+    }
+
+    @Test
+    public void test_markup_variants(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve("variants.graphml");
+        Files.writeString(file, """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <graphml xmlns="http://graphml.graphdrawing.org/xmlns">
+                  <key id="w" for="edge" attr.name="weight" attr.type="double"/>
+                  <graph id="G" edgedefault="undirected">
+                    <node id="n0"/><node id="n1"/>
+                    <!-- <edge source="x" target="y"/> -->
+                    <edge id="e0" source="n0" target="n1"/>
+                    <edge target='n1'
+                          source = 'n2'>
+                      <data key="w"><![CDATA[<edge source="u" target="v"/>]]></data>
+                    </edge>
+                    <edges/><edge source="n0"  target="n0"   />
+                    <edge source="Köln" target="n0"></edge>
+                  </graph>
+                </graphml>
+                """);
+        final var graphml = new GraphML.GraphMLFile(file);
+        assertThat(edges(graphml)).containsExactly("n0 n1", "n2 n1", "n0 n0", "Köln n0");
+        final List<String> indexed = new ArrayList<>();
+        graphml.indexed().forEach(e -> indexed.add(e.source() + " " + e.target()));
+        assertThat(indexed).containsExactly("1 2", "3 2", "1 1", "4 1");
+    }
+
+    @Test
+    public void test_edge_range(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve("random.graphml");
+        final Random random = new Random(7);
+        final List<String> expected = new ArrayList<>();
+        final StringBuilder builder = new StringBuilder("<graphml><graph edgedefault=\"directed\">\n");
+        for (int e = 0; e < 20000; e++) {
+            final String source = "v" + random.nextInt(5000);
+            final String target = "v" + random.nextInt(5000);
+            expected.add(source + " " + target);
+            builder.append("<edge source=\"").append(source).append("\" target=\"").append(target).append("\"/>\n");
+        }
+        Files.writeString(file, builder.append("</graph></graphml>\n"));
+
+        assertThat(edges(new GraphML.GraphMLFile(file))).isEqualTo(expected);
+        assertThat(edges(new GraphML.GraphMLFile(file, 0, 0, 500, 0))).isEqualTo(expected.subList(0, 500));
+        final List<String> slice = new ArrayList<>();
+        final var traverser = GraphML.traverse(file, Range.of(100, 300), 150);
+        while (traverser.tryNext(e -> slice.add(e.source() + " " + e.target())));
+        assertThat(slice).isEqualTo(expected.subList(150, 300));
+    }
+
+    private static List<String> edges(final GraphML.GraphMLFile graphml) {
+        final List<String> edges = new ArrayList<>();
+        graphml.forEach(e -> edges.add(e.source() + " " + e.target()));
+        return edges;
+    }
 }
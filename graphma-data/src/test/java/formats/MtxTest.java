@@ -1,13 +1,29 @@
 package formats;
 
 import data.differenformats.FormatsDB;
+import data.suitesparse.SSDB;
+import magma.control.traversal.Traversable;
+import magma.control.traversal.Traverser;
 import magma.data.Seq;
 import magma.data.sequence.operator.DataSource;
+import magma.value.index.Range;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static data.Config.GRAPH_FORMATS;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * These are not really tests. More demos with printouts to check if stuff works.
@@ -44,4 +60,213 @@ public class MtxTest {
         var traverser = DIRECTED_SOURCE.traverse();
         while (traverser.tryNext(e -> System.out.println(e.source() + " --> " + e.target())));
     }
+
+    @Test
+    public void test_mtx_format_Mapped() {
+        var traverser = Mtx.traverseMapped(FormatsDB.DIRECTED_MTX, Range.of(0, 9999));
+        while (traverser.tryNext(e -> System.out.println(e.source() + " --> " + e.target())));
+    }
+
+    @Test
+    public void test_mapped_matches_reference() throws IOException {
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0) continue;
+            assertThat(edges(mtx.mapped())).as(mtx.pth().toString()).isEqualTo(reference(mtx));
+        }
+    }
+
+    @Test
+    public void test_buffered_matches_reference() throws IOException {
+        // The entry lines cross the boundaries of the read buffer in most files.
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0) continue;
+            assertThat(edges(mtx)).as(mtx.pth().toString()).isEqualTo(reference(mtx));
+        }
+    }
+
+    @Test
+    public void test_split_partitions_edges() throws IOException {
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0) continue;
+            final var expected = reference(mtx);
+            for (int parts : new int[] { 1, 2, 3, 7, 64 }) {
+                final List<String> actual = new ArrayList<>();
+                mtx.split(parts).forEach(part -> actual.addAll(edges(part)));
+                assertThat(actual).as(mtx.pth() + " / " + parts).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void test_split_trailing_blank_lines(@TempDir Path dir) throws IOException {
+        final Path path = Files.writeString(dir.resolve("trailing.mtx"),
+                "%%MatrixMarket matrix coordinate real symmetric\n% c\n3 3 2\n1 2 0.5\n3 1 2.5\n\n \r\n\n");
+        final List<String> expected = List.of("1 2", "3 1");
+        assertThat(edges(() -> Mtx.traverseMapped(path, 0, Long.MAX_VALUE))).isEqualTo(expected);
+        for (int parts : new int[] { 1, 2, 3, 7 }) {
+            final List<String> actual = new ArrayList<>();
+            Mtx.split(path, parts).forEach(part -> actual.addAll(edges(part)));
+            assertThat(actual).as("parts: " + parts).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void test_split_parallel() {
+        final var parts = Mtx.split(FormatsDB.DIRECTED_MTX, 4);
+        final long count = parts.parallelStream().mapToLong(part -> edges(part).size()).sum();
+        System.out.println("Edges: " + count);
+        assertThat(count).isEqualTo(edges(() -> Mtx.traverseMapped(FormatsDB.DIRECTED_MTX, 0, Long.MAX_VALUE)).size());
+    }
+
+    @Test
+    public void test_values_match_reference() throws IOException {
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0 || mtx.numCol() < 3) continue;
+            final List<String> expected;
+            try (Stream<String> lines = Files.lines(mtx.pth())) {
+                expected = lines.filter(l -> !l.startsWith("%"))
+                        .skip(1)
+                        .map(l -> l.trim().split("\\s+"))
+                        .map(t -> t[0] + " " + t[1] + " " + Double.parseDouble(t[2]))
+                        .collect(Collectors.toList());
+            }
+            final List<String> actual = new ArrayList<>();
+            mtx.weighted().forEach(e -> actual.add(e.source() + " " + e.target() + " " + e.value()));
+            assertThat(actual).as(mtx.pth().toString()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void test_expanded_symmetric_storage() throws IOException {
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0) continue;
+            final String banner;
+            try (Stream<String> lines = Files.lines(mtx.pth())) {
+                banner = lines.findFirst().orElse("").toLowerCase();
+            }
+            final List<String> stored = edges(mtx.mapped());
+            final List<String> expected = new ArrayList<>();
+            for (String edge : stored) {
+                expected.add(edge);
+                final String[] t = edge.split(" ");
+                if (!banner.endsWith(" general") && !t[0].equals(t[1])) expected.add(t[1] + " " + t[0]);
+            }
+            assertThat(edges(mtx.expanded())).as(mtx.pth().toString()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void test_banner(@TempDir Path dir) throws IOException {
+        final Path skew = Files.writeString(dir.resolve("skew.mtx"), """
+                %%MatrixMarket matrix coordinate real skew-symmetric
+                % comment
+                3 3 3
+                2 1 1.5
+                3 1 -2e-3
+                3 3 4
+                """);
+        assertThat(weighted(Mtx.traverseWeighted(skew, Range.of(0, 3), false)))
+                .containsExactly("2 1 1.5", "3 1 -0.002", "3 3 4.0");
+        assertThat(weighted(Mtx.traverseWeighted(skew, Range.of(0, 3), true)))
+                .containsExactly("2 1 1.5", "1 2 -1.5", "3 1 -0.002", "1 3 0.002", "3 3 4.0");
+
+        final Path pattern = Files.writeString(dir.resolve("pattern.mtx"), """
+                %%MatrixMarket MATRIX Coordinate Pattern Symmetric
+                2 2 1
+                2 1
+                """);
+        assertThat(weighted(Mtx.traverseWeighted(pattern, Range.of(0, 1), true))).containsExactly("2 1 1.0", "1 2 1.0");
+
+        final Path complex = Files.writeString(dir.resolve("complex.mtx"), """
+                %%MatrixMarket matrix coordinate complex hermitian
+                2 2 1
+                2 1 0.25 -1
+                """);
+        assertThat(weighted(Mtx.traverseWeighted(complex, Range.of(0, 1), true))).containsExactly("2 1 0.25", "1 2 0.25");
+
+        final Path array = Files.writeString(dir.resolve("array.mtx"), """
+                %%MatrixMarket matrix array real general
+                2 1
+                1.0
+                2.0
+                """);
+        assertThat(weighted(Mtx.traverseWeighted(array, 0, Long.MAX_VALUE))).isEmpty();
+    }
+
+    @Test
+    public void test_parse_double() {
+        final Random random = new Random(11);
+        final List<String> numbers = new ArrayList<>(List.of("0", "-0", "+1", ".5", "5.", "1e22", "1e23", "123456789012345678",
+                "0.1", "0.30000000000000004", "-1.7976931348623157E308", "4.9e-324", "1E-400", "00012.50", "9007199254740993"));
+        for (int i = 0; i < 20_000; i++) {
+            numbers.add(switch (i % 4) {
+                case 0 -> Integer.toString(random.nextInt());
+                case 1 -> Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+                case 2 -> String.format(java.util.Locale.ROOT, "%." + random.nextInt(12) + "f", random.nextGaussian() * 1000);
+                default -> String.format(java.util.Locale.ROOT, "%." + random.nextInt(17) + "e", random.nextGaussian());
+            });
+        }
+        for (String number : numbers) {
+            final var buffer = ByteBuffer.wrap(("  " + number + "\n").getBytes(StandardCharsets.US_ASCII));
+            assertThat(Utils.parseDouble(buffer, 0, buffer.limit())).as(number).isEqualTo(Double.parseDouble(number));
+        }
+    }
+
+    @Test
+    public void test_swar_digits() {
+        final Random random = new Random(13);
+        for (int i = 0; i < 100_000; i++) {
+            final String digits = Long.toString(random.nextLong() & Long.MAX_VALUE).substring(0, random.nextInt(9));
+            final String text = digits + (char) random.nextInt(128) + "        ";
+            final long word = ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1))
+                    .order(java.nio.ByteOrder.LITTLE_ENDIAN).getLong(0);
+            int count = 0;
+            while (count < 8 && Character.isDigit(text.charAt(count))) count++;
+            assertThat(Swar.digitCount(word)).as(text).isEqualTo(count);
+            assertThat(Swar.digitValue(word, count)).as(text).isEqualTo(count == 0 ? 0 : Long.parseLong(text.substring(0, count)));
+            assertThat(Swar.newLineIndex(word)).as(text).isEqualTo(Math.min(8, text.indexOf('\n') < 0 ? 8 : text.indexOf('\n')));
+            assertThat(Swar.count(word, Swar.broadcast((byte) '\n'))).as(text).isEqualTo((int) text.substring(0, 8).chars().filter(c -> c == '\n').count());
+        }
+    }
+
+    @Test
+    public void test_mapped_long_ids(@TempDir Path dir) throws IOException {
+        final Random random = new Random(17);
+        final StringBuilder builder = new StringBuilder("%%MatrixMarket matrix coordinate pattern general\n");
+        final List<String> expected = new ArrayList<>();
+        builder.append("1 1 1000\n");
+        for (int i = 0; i < 1000; i++) {
+            final long source = random.nextLong() >>> random.nextInt(64);
+            final long target = random.nextInt(10);
+            expected.add(source + " " + target);
+            builder.append(" ".repeat(random.nextInt(3))).append(source).append(random.nextBoolean() ? " " : "\t")
+                    .append(target).append(random.nextBoolean() ? "\n" : "\r\n");
+        }
+        final Path file = Files.writeString(dir.resolve("long.mtx"), builder);
+        final List<String> actual = new ArrayList<>();
+        Mtx.traverseMapped(file, Range.of(0, 1000)).forNext(e -> actual.add(e.source() + " " + e.target()));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static List<String> weighted(Traverser<Mtx.Long2LongDoubleEdge> traverser) {
+        final List<String> edges = new ArrayList<>();
+        traverser.forNext(e -> edges.add(e.source() + " " + e.target() + " " + e.value()));
+        return edges;
+    }
+
+    private static List<String> reference(Mtx.MTXFile mtx) throws IOException {
+        try (Stream<String> lines = Files.lines(mtx.pth())) {
+            return lines.filter(l -> !l.startsWith("%"))
+                    .skip(1)
+                    .map(l -> l.trim().split("\\s+"))
+                    .map(t -> Long.parseLong(t[0]) + " " + Long.parseLong(t[1]))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> edges(Traversable<Mtx.Long2LongEdge> source) {
+        final List<String> edges = new ArrayList<>();
+        source.forEach(e -> edges.add(e.source() + " " + e.target()));
+        return edges;
+    }
 }
@@ -0,0 +1,126 @@
+package formats;
+
+import data.suitesparse.SSDB;
+import magma.control.traversal.Traversable;
+import magma.data.sequence.operator.DataSource;
+import magma.data.sequence.operator.lazy.Filter;
+import magma.data.sequence.operator.strict.ForNext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that CSR snapshots round-trip the edges and weights of their sources and reject corrupt files.
+ */
+public class SnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void test_snapshot_writer() {
+        ForNext.build(System.out::println)
+                .compose(Snapshot.writer((Mtx.MTXFile mtx) -> dir.resolve(mtx.pth().getFileName() + ".gcsr"), false))
+                .compose(Filter.build((Mtx.MTXFile mtx) -> mtx.lines() < 40 && mtx.lines() > 20))
+                .apply(DataSource.of(SSDB.SMALL))
+                .evaluate();
+    }
+
+    @Test
+    public void test_round_trip_matches_mtx() {
+        for (Mtx.MTXFile mtx : SSDB.SMALL) {
+            if (mtx.lines() == 0) continue;
+            for (boolean directed : new boolean[] { false, true }) {
+                final Path file = dir.resolve(mtx.pth().getFileName() + "." + directed + ".gcsr");
+                Snapshot.write(mtx.mapped(), file, directed);
+                final var snapshot = Snapshot.open(file);
+                final var expected = edges(mtx.mapped(), directed);
+                assertThat(edges(snapshot, directed)).as(mtx.pth().toString()).isEqualTo(expected);
+                assertThat(snapshot.edges()).isEqualTo(expected.size());
+                assertThat(snapshot.directed()).isEqualTo(directed);
+                assertThat(snapshot.weighted()).isEqualTo(weighted(mtx.weighted()));
+            }
+        }
+    }
+
+    @Test
+    public void test_degree_order() {
+        final var snapshot = Snapshot.write(edges(new long[][] { { 1, 2 }, { 3, 2 }, { 4, 2 }, { 3, 4 } }),
+                dir.resolve("star.gcsr"), false);
+        final List<Long> sources = new ArrayList<>();
+        snapshot.forEach(edge -> sources.add(edge.source()));
+        // Vertex 2 has the highest degree, hence its adjacency comes first.
+        assertThat(sources).containsExactly(2L, 2L, 2L, 3L);
+        assertThat(snapshot.vertices()).isEqualTo(4);
+        assertThat(snapshot.entries()).isEqualTo(8);
+    }
+
+    @Test
+    public void test_weights() {
+        final List<Mtx.Long2LongEdge> input = List.of(edge(5, 7, 0.5), edge(5, 6, 1.5), edge(7, 7, 2.5), edge(6, 5, -1));
+        final var snapshot = Snapshot.write(Traversable.of(input), dir.resolve("weighted.gcsr"), true);
+        assertThat(snapshot.weighted()).isTrue();
+        final List<String> actual = new ArrayList<>();
+        Snapshot.open(snapshot.pth()).weightedEdges().forEach(edge ->
+                actual.add(edge.source() + " " + edge.target() + " " + edge.value()));
+        assertThat(actual).containsExactlyInAnyOrder("5 7 0.5", "5 6 1.5", "7 7 2.5", "6 5 -1.0");
+    }
+
+    @Test
+    public void test_corrupt_snapshot() throws IOException {
+        final Path file = dir.resolve("corrupt.gcsr");
+        Snapshot.write(edges(new long[][] { { 1, 2 }, { 2, 3 }, { 3, 1 } }), file, false);
+        try (var raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(Files.size(file) - 4);
+            raf.writeInt(0x7fffffff);
+        }
+        assertThatThrownBy(() -> Snapshot.open(file)).hasMessageContaining("checksum");
+        assertThat(Snapshot.open(file, false).vertices()).isEqualTo(3);
+
+        Files.write(file, new byte[Snapshot.HEADER]);
+        assertThatThrownBy(() -> Snapshot.open(file)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> edges(final Traversable<Mtx.Long2LongEdge> edges, final boolean directed) {
+        final List<String> result = new ArrayList<>();
+        edges.forEach(edge -> {
+            final long u = directed ? edge.source() : Math.min(edge.source(), edge.target());
+            final long v = directed ? edge.target() : Math.max(edge.source(), edge.target());
+            result.add(u + " " + v);
+        });
+        result.sort(null);
+        return result;
+    }
+
+    private static boolean weighted(final Traversable<Mtx.Long2LongDoubleEdge> edges) {
+        final boolean[] weighted = { false };
+        edges.forEach(edge -> weighted[0] |= edge.value() != 1.0);
+        return weighted[0];
+    }
+
+    private static Traversable<Mtx.Long2LongEdge> edges(final long[][] pairs) {
+        final List<Mtx.Long2LongEdge> edges = new ArrayList<>();
+        for (long[] pair : pairs) edges.add(new Mtx.Long2LongEdge() {
+            @Override public long source() { return pair[0]; }
+            @Override public long target() { return pair[1]; }
+        });
+        return Traversable.of(edges);
+    }
+
+    private static Mtx.Long2LongDoubleEdge edge(final long source, final long target, final double value) {
+        return new Mtx.Long2LongDoubleEdge() {
+            @Override public long source() { return source; }
+            @Override public long target() { return target; }
+            @Override public double value() { return value; }
+        };
+    }
+}
@@ -23,4 +23,11 @@ public class SsbdTest {
                 .apply(DataSource.of(SSDB.SMALL))
                 .evaluate();
     }
+
+    @Test
+    public void test_ssbd_query() {
+        ForNext.build(System.out::println)
+                .apply(DataSource.of(SSDB.SMALL.query().lines(21, 40).symmetries("symmetric")))
+                .evaluate();
+    }
 }
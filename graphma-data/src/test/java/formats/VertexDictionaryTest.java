@@ -0,0 +1,75 @@
+package formats;
+
+import data.differenformats.FormatsDB;
+import magma.data.Seq;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the vertex dictionary interns string ids and backs the indexed DOT and GML views.
+ */
+public class VertexDictionaryTest {
+
+    @Test
+    public void test_dot_indexed() {
+        final var dictionary = new VertexDictionary();
+        final var dot = new Dot.DotFile(FormatsDB.DIRECTED_DOT, 9999, 9999, 9999, 9999);
+        final List<String> edges = new ArrayList<>();
+        dot.indexed(dictionary).forEach(e -> edges.add(e.source() + " " + e.target()));
+        assertThat(edges).containsExactly("1 2", "2 3", "3 1");
+        assertThat(dictionary.size()).isEqualTo(3);
+        assertThat(dictionary.name(0)).isEqualTo("A");
+
+        // The shared dictionary keeps the numbers stable across traversals.
+        assertThat(Seq.of(dot.indexed(dictionary)).anyMatch(e -> e.source() == 3 && e.target() == 1)).isTrue();
+        assertThat(dictionary.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void test_gml_indexed() {
+        final var gml = new Gml.GmlFile(FormatsDB.DIRECTED_GML, 9999, 9999, 9999, 9999);
+        final List<String> expected = new ArrayList<>();
+        final Map<String, Long> numbers = new HashMap<>();
+        gml.forEach(e -> expected.add(numbers.computeIfAbsent(e.source(), k -> numbers.size() + 1L) + " "
+                + numbers.computeIfAbsent(e.target(), k -> numbers.size() + 1L)));
+        final List<String> actual = new ArrayList<>();
+        final var traverser = gml.indexed().traverse();
+        while (traverser.tryNext(e -> actual.add(e.source() + " " + e.target())));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void test_intern_and_find() {
+        final var dictionary = new VertexDictionary();
+        final Random random = new Random(3);
+        final Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            final String name = random.nextInt(4) == 0 ? "Vertex-" + random.nextInt(50_000) : "ä" + random.nextInt(50_000);
+            final int id = i % 2 == 0 ? dictionary.intern(name) : intern(dictionary, " " + name + " ", 1);
+            assertThat(id).isEqualTo(expected.computeIfAbsent(name, k -> expected.size()));
+        }
+        assertThat(dictionary.size()).isEqualTo(expected.size());
+        expected.forEach((name, id) -> {
+            assertThat(dictionary.find(name)).isEqualTo(id);
+            assertThat(dictionary.name(id)).isEqualTo(name);
+        });
+        assertThat(dictionary.find("missing")).isEqualTo(-1);
+        assertThat(dictionary.intern("")).isEqualTo(expected.size());
+        assertThat(dictionary.name(expected.size())).isEmpty();
+    }
+
+    // Interns the name between the padding, as a format scanner does with the bytes of a mapped file.
+    private static int intern(final VertexDictionary dictionary, final String padded, final int padding) {
+        final byte[] bytes = padded.getBytes(StandardCharsets.UTF_8);
+        return dictionary.intern(ByteBuffer.wrap(bytes), padding, bytes.length - padding);
+    }
+}